@@ -0,0 +1,252 @@
+package benchmark;
+
+import amalgamation.Amalgamation;
+import amalgamation.abilities.Ability;
+import amalgamation.abilities.Attack;
+import amalgamation.abilities.StatModifier;
+import amalgamation.battle.AIController;
+import amalgamation.battle.Battle;
+import amalgamation.parts.Body;
+import amalgamation.parts.Part;
+import amalgamation.parts.Slot;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BattleBenchmark measures the hot paths of the battle engine: using
+ * Abilities, dealing damage, modifying stats, performing moves, playing whole
+ * Battles, leveling up and totaling a Body's Parts.
+ *
+ * Every benchmark that changes an Amalgamation's current stats or an
+ * Ability's cooldown resets them afterwards, so each operation starts from
+ * the same state. The reset is part of the measured time, but it is small
+ * next to the work being measured.
+ *
+ * @author Caleb Rush
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BattleBenchmark {
+    // The battling Amalgamations.
+    private Amalgamation    player;
+    private Amalgamation    opponent;
+    // The Amalgamation that is leveled up.
+    private Amalgamation    leveled;
+    // The Controllers for the full Battles.
+    private AIController    playerAI;
+    private AIController    opponentAI;
+    // The Abilities being used.
+    private Attack          attack;
+    private Ability         modifierAbility;
+    private StatModifier    modifier;
+    // The moves performed by each Amalgamation in the doMove benchmark.
+    private int             playerMove;
+    private int             opponentMove;
+    // The Slot that is reconnected to invalidate the player's Body totals.
+    private Slot<?>         slot;
+    // The random number generator used to level up.
+    private Random          random;
+    // The level to level up to next.
+    private int             level;
+    
+    /**
+     * Loads the fixtures.
+     *
+     * @throws java.io.IOException if the resource files cannot be read
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws java.io.IOException {
+        player = Fixtures.player(Fixtures.LEVEL);
+        opponent = Fixtures.opponent(Fixtures.SEED, Fixtures.LEVEL);
+        leveled = Fixtures.opponent(Fixtures.SEED, Fixtures.LEVEL);
+        playerAI = new AIController(AIController.STRATEGY_STRONGEST);
+        opponentAI = new AIController(AIController.STRATEGY_STRONGEST);
+        attack = Fixtures.attack();
+        modifierAbility = Fixtures.modifierAbility();
+        modifier = modifierAbility.getModifiers()[0];
+        random = new Random(Fixtures.SEED);
+        level = 1;
+        playerMove = firstMove(player);
+        opponentMove = firstMove(opponent);
+        
+        // Find a Slot with a Part connected.
+        for (Slot<?> s : player.getBody().getSlots())
+            if (s.getPart() != null)
+                slot = s;
+        if (slot == null)
+            throw new IllegalStateException(Fixtures.PLAYER_NAME
+                    + " has no Parts connected");
+    }
+    
+    /**
+     * Uses an Ability with stat modifiers.
+     *
+     * @return the script produced
+     */
+    @Benchmark
+    public String[] abilityAffect() {
+        modifierAbility.resetCurrentCooldown();
+        String[] script = modifierAbility.affect(player, opponent);
+        player.resetCurrentStats();
+        opponent.resetCurrentStats();
+        return script;
+    }
+    
+    /**
+     * Deals an Attack's damage, which includes calculating it.
+     *
+     * @return the script produced
+     */
+    @Benchmark
+    public String attackDamage() {
+        String script = attack.attack(player, opponent);
+        opponent.resetCurrentStats();
+        return script;
+    }
+    
+    /**
+     * Reads the player Body's Ability list and stat totals while they are
+     * cached.
+     *
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void bodyAggregatesCached(Blackhole blackhole) {
+        consumeAggregates(player.getBody(), blackhole);
+    }
+    
+    /**
+     * Reconnects a Part to the player's Body and then reads its Ability list
+     * and stat totals, which have to be recalculated.
+     *
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void bodyAggregatesRecalculated(Blackhole blackhole) {
+        reconnect(slot);
+        consumeAggregates(player.getBody(), blackhole);
+    }
+    
+    // Reads every aggregate of the Body.
+    private static void consumeAggregates(Body body, Blackhole blackhole) {
+        blackhole.consume(body.allAbilities());
+        blackhole.consume(body.totalBaseHealth());
+        blackhole.consume(body.totalBaseAttack());
+        blackhole.consume(body.totalBaseDefense());
+        blackhole.consume(body.totalBaseSpeed());
+    }
+    
+    // Returns the index of the Amalgamation's first Ability.
+    private static int firstMove(Amalgamation amalgamation) {
+        Ability[] abilities = amalgamation.getAbilities();
+        for (int i = 0; i < abilities.length; i++)
+            if (abilities[i] != null)
+                return i;
+        
+        throw new IllegalStateException(amalgamation.getName()
+                + " has no Abilities");
+    }
+    
+    // Connects a Slot's Part to it again.
+    private static <T extends Part> void reconnect(Slot<T> slot) {
+        slot.setPart(slot.getPart());
+    }
+    
+    /**
+     * Performs one turn's worth of moves: the player's first Ability and the
+     * opponent's first Ability.
+     *
+     * @return the Battle the moves were performed in
+     */
+    @Benchmark
+    public Battle doMove() {
+        Battle battle = Battle.createSimulation(player, opponent, playerAI,
+                opponentAI);
+        battle.doMove(player, opponent, playerMove);
+        battle.doMove(opponent, player, opponentMove);
+        player.resetCurrentStats();
+        opponent.resetCurrentStats();
+        return battle;
+    }
+    
+    /**
+     * Plays a whole Battle between two AIControllers using the strongest
+     * Attacks. The number of turns played is reported alongside the number
+     * of Battles.
+     *
+     * @param turns counts the turns played
+     * @return whether or not the player won
+     */
+    @Benchmark
+    public boolean fullBattle(TurnCounter turns) {
+        Battle battle = Battle.simulate(player, opponent, playerAI,
+                opponentAI);
+        turns.turns += battle.getTurns();
+        return battle.isPlayerWon();
+    }
+    
+    /**
+     * Levels an Amalgamation up to the next level, cycling through every
+     * level.
+     *
+     * @return the leveled Amalgamation
+     */
+    @Benchmark
+    public Amalgamation setLevel() {
+        level = level % Amalgamation.MAX_LEVEL + 1;
+        leveled.setLevel(level, random);
+        return leveled;
+    }
+    
+    /**
+     * Applies a single stat modifier.
+     *
+     * @return the script produced
+     */
+    @Benchmark
+    public String statModifier() {
+        String script = modifier.statAdjuster(player, opponent);
+        player.resetCurrentStats();
+        opponent.resetCurrentStats();
+        return script;
+    }
+    
+    /**
+     * A TurnCounter reports the number of turns played by the fullBattle
+     * benchmark, so that turn throughput is tracked along with Battle
+     * throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class TurnCounter {
+        // The number of turns played during the current iteration.
+        public long turns;
+        
+        /**
+         * Clears the count before each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void clear() {
+            turns = 0;
+        }
+    }
+}
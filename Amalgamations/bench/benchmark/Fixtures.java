@@ -0,0 +1,136 @@
+package benchmark;
+
+import amalgamation.Amalgamation;
+import amalgamation.abilities.Ability;
+import amalgamation.abilities.Attack;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Fixtures builds the objects that the benchmarks run against from the
+ * resource files that ship with the game, so that the benchmarks measure the
+ * same content the game plays with.
+ *
+ * Everything random is generated from fixed seeds, so every run of a
+ * benchmark starts from the same objects. The benchmarks must be run from the
+ * project directory (the one containing res), which the bench target does.
+ *
+ * @author Caleb Rush
+ */
+public class Fixtures {
+    // The name of the shipped Amalgamation used as the player.
+    public static final String  PLAYER_NAME     = "Snarble the Coerced";
+    // The seed used to generate everything random.
+    public static final long    SEED            = 0x416d616cL;
+    // The level the battling Amalgamations are brought to, which is high
+    // enough for a Battle to last several turns.
+    public static final int     LEVEL           = 20;
+    // The number of seeds tried when generating an opponent.
+    private static final int    MAX_ATTEMPTS    = 100;
+    
+    /**
+     * Retrieves the first Attack in the Ability resource directory, in
+     * alphabetical order.
+     *
+     * @return the Attack
+     * @throws IllegalStateException if there are no Attacks
+     */
+    public static Attack attack() {
+        for (Ability ability : abilities())
+            if (ability instanceof Attack)
+                return (Attack)ability;
+        
+        throw new IllegalStateException("There are no shipped Attacks");
+    }
+    
+    /**
+     * Retrieves the first Ability in the Ability resource directory that is
+     * not an Attack and modifies stats, in alphabetical order.
+     *
+     * @return the Ability
+     * @throws IllegalStateException if there are no such Abilities
+     */
+    public static Ability modifierAbility() {
+        for (Ability ability : abilities())
+            if (!(ability instanceof Attack)
+                    && ability.getModifiers().length != 0)
+                return ability;
+        
+        throw new IllegalStateException(
+                "There are no shipped Abilities with stat modifiers");
+    }
+    
+    /**
+     * Generates an opponent from the shipped Parts.
+     *
+     * Some Bodies have no Abilities to learn, and an opponent without any can
+     * only do nothing. So if the opponent generated from the given seed has
+     * no Abilities, the following seeds are tried in order until one does.
+     *
+     * @param seed the first seed to generate the opponent from
+     * @param level the level of the opponent
+     * @return the opponent
+     * @throws java.io.IOException if the Part or rand resource files cannot
+     *                             be read
+     */
+    public static Amalgamation opponent(long seed, int level)
+            throws java.io.IOException {
+        String[] names = util.Randoms.loadNames();
+        String[] adjectives = util.Randoms.loadAdjectives();
+        amalgamation.parts.Arm[] arms
+                = util.Parts.getArms(util.Parts.ARMS_RES_DIR);
+        amalgamation.parts.Body[] bodies
+                = util.Parts.getBodies(util.Parts.BODIES_RES_DIR);
+        amalgamation.parts.Head[] heads
+                = util.Parts.getHeads(util.Parts.HEADS_RES_DIR);
+        amalgamation.parts.Leg[] legs
+                = util.Parts.getLegs(util.Parts.LEGS_RES_DIR);
+        
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Random random = new Random(seed + attempt);
+            Amalgamation opponent = new Amalgamation(
+                    util.Randoms.randomName(names, adjectives, random),
+                    util.Parts.randomBody(arms, bodies, heads, legs, random),
+                    random);
+            opponent.setLevel(level, random);
+            
+            for (Ability ability : opponent.getAbilities())
+                if (ability != null)
+                    return opponent;
+        }
+        
+        throw new IllegalStateException("No opponent with Abilities could be "
+                + "generated from the shipped Parts");
+    }
+    
+    /**
+     * Loads the shipped player Amalgamation and brings it to the given level,
+     * so that it is an even match for an opponent of the same level.
+     *
+     * @param level the level of the player
+     * @return the player Amalgamation
+     * @throws IllegalStateException if the Amalgamation cannot be loaded
+     */
+    public static Amalgamation player(int level) {
+        Amalgamation player = util.Amalgamations.load(PLAYER_NAME);
+        if (player == null)
+            throw new IllegalStateException(PLAYER_NAME + " could not be "
+                    + "loaded. Run the benchmarks from the project directory");
+        
+        player.setLevel(level, new Random(SEED));
+        return player;
+    }
+    
+    // Loads every shipped Ability in alphabetical order.
+    private static Ability[] abilities() {
+        Ability[] abilities = util.Abilities.getAbilities();
+        if (abilities == null)
+            throw new IllegalStateException("The Abilities could not be "
+                    + "loaded. Run the benchmarks from the project directory");
+        
+        Arrays.sort(abilities, Comparator.comparing(Ability::getName));
+        return abilities;
+    }
+}
@@ -0,0 +1,162 @@
+package benchmark;
+
+import amalgamation.Amalgamation;
+import amalgamation.abilities.Ability;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import util.Abilities;
+import util.Amalgamations;
+import util.CampaignLevels;
+import util.Parts;
+import util.Randoms;
+
+/**
+ * PersistenceBenchmark measures loading and saving the game's resource files:
+ * Amalgamations, Parts, Abilities, CampaignLevels and the random names.
+ *
+ * The benchmarks use whatever resource tree is in the working directory. The
+ * bench target runs them from the project directory, and the bench-synthetic
+ * target runs them again from a SyntheticCatalog, so the two sets of results
+ * show how each operation scales with the size of the catalog.
+ *
+ * The Amalgamation that is saved and the CampaignLevel that is loaded are
+ * created by the benchmark and deleted again afterwards, so the resource tree
+ * is left as it was.
+ *
+ * @author Caleb Rush
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    // The name of the Amalgamation that is saved.
+    public static final String  SUBJECT_NAME    = "Benchmark Subject";
+    // The name of the CampaignLevel that is loaded.
+    public static final String  LEVEL_NAME      = "Benchmark Level";
+    
+    // The Amalgamation that is saved.
+    private Amalgamation    subject;
+    // Whether or not the CampaignLevel directory was created by the benchmark.
+    private boolean         createdLevelDir;
+    
+    /**
+     * Creates the Amalgamation to save and saves the CampaignLevel to load.
+     *
+     * @throws java.io.IOException if the resource files cannot be read or
+     *                             written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws java.io.IOException {
+        Amalgamation player = Fixtures.player(Fixtures.LEVEL);
+        subject = new Amalgamation(SUBJECT_NAME, player.getBody(),
+                new Random(Fixtures.SEED));
+        
+        // Build a level out of every Part in the catalog.
+        java.io.File levelDir = new java.io.File(CampaignLevels.LEVEL_RES_DIR);
+        createdLevelDir = levelDir.mkdirs();
+        CampaignLevels.saveCampaignLevel(new campaign.CampaignLevel(LEVEL_NAME,
+                10, 3, Fixtures.LEVEL, Fixtures.LEVEL, player,
+                Parts.getArms(Parts.ARMS_RES_DIR),
+                Parts.getBodies(Parts.BODIES_RES_DIR),
+                Parts.getHeads(Parts.HEADS_RES_DIR),
+                Parts.getLegs(Parts.LEGS_RES_DIR)));
+    }
+    
+    /**
+     * Deletes the saved Amalgamation and CampaignLevel.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Amalgamations.delete(SUBJECT_NAME);
+        CampaignLevels.delete(LEVEL_NAME);
+        if (createdLevelDir)
+            new java.io.File(CampaignLevels.LEVEL_RES_DIR).delete();
+    }
+    
+    /**
+     * Loads every Ability.
+     *
+     * @return the Abilities
+     */
+    @Benchmark
+    public Ability[] getAbilities() {
+        return Abilities.getAbilities();
+    }
+    
+    /**
+     * Loads every Part in each of the Part directories.
+     *
+     * @param blackhole consumes the Parts
+     * @throws java.io.IOException if a Part directory does not exist
+     */
+    @Benchmark
+    public void getParts(Blackhole blackhole) throws java.io.IOException {
+        blackhole.consume(Parts.getParts(Parts.ARMS_RES_DIR));
+        blackhole.consume(Parts.getParts(Parts.BODIES_RES_DIR));
+        blackhole.consume(Parts.getParts(Parts.HEADS_RES_DIR));
+        blackhole.consume(Parts.getParts(Parts.LEGS_RES_DIR));
+    }
+    
+    /**
+     * Loads the shipped player Amalgamation.
+     *
+     * @return the Amalgamation
+     */
+    @Benchmark
+    public Amalgamation loadAmalgamation() {
+        return Amalgamations.load(Fixtures.PLAYER_NAME);
+    }
+    
+    /**
+     * Loads a CampaignLevel built from every Part in the catalog.
+     *
+     * @return the CampaignLevel
+     * @throws java.io.IOException if the CampaignLevel file does not exist
+     */
+    @Benchmark
+    public campaign.CampaignLevel loadCampaignLevel()
+            throws java.io.IOException {
+        return CampaignLevels.loadCampaignLevel(LEVEL_NAME);
+    }
+    
+    /**
+     * Loads the random names.
+     *
+     * @return the names
+     * @throws java.io.IOException if the names file does not exist
+     */
+    @Benchmark
+    public String[] loadNames() throws java.io.IOException {
+        return Randoms.loadNames();
+    }
+    
+    /**
+     * Saves an Amalgamation, which also updates the Amalgamation index.
+     *
+     * @return the saved Amalgamation
+     */
+    @Benchmark
+    public Amalgamation saveAmalgamation() {
+        Amalgamations.save(subject);
+        return subject;
+    }
+}
@@ -0,0 +1,207 @@
+package benchmark;
+
+import amalgamation.Amalgamation;
+import amalgamation.parts.Body;
+import amalgamation.parts.Slot;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import java.util.concurrent.TimeUnit;
+
+import menus.components.AmalgamationPanel;
+import menus.components.HealthBar;
+import menus.components.PartPanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RenderBenchmark measures drawing Amalgamations and the panels that display
+ * them. Every benchmark draws one frame, so the throughput is reported in
+ * frames per second, and the gc profiler's normalized allocation rate is the
+ * number of bytes allocated per frame.
+ *
+ * Building an Amalgamation's image is measured for different numbers of
+ * connected Parts. Drawing a single Slot and painting the panels is measured
+ * for different sizes of offscreen image. The panels are painted straight
+ * into a BufferedImage, so the benchmarks run headless and do not need a
+ * display.
+ *
+ * @author Caleb Rush
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    /**
+     * Builds the full image of a Body with its Parts connected.
+     *
+     * @param composite the Body to draw
+     * @return the full image
+     */
+    @Benchmark
+    public BufferedImage bodyFullImage(Composite composite) {
+        return composite.body.fullImage();
+    }
+    
+    /**
+     * Builds the flipped image of an Amalgamation from its cached full image.
+     *
+     * @param composite the Amalgamation to draw
+     * @return the flipped image
+     */
+    @Benchmark
+    public BufferedImage fullFlippedImage(Composite composite) {
+        return composite.amal.getFullFlippedImage();
+    }
+    
+    /**
+     * Paints an AmalgamationPanel.
+     *
+     * @param canvas the image to paint on
+     * @return the painted image
+     */
+    @Benchmark
+    public BufferedImage paintAmalgamationPanel(Canvas canvas) {
+        return canvas.paint(canvas.amalgamationPanel);
+    }
+    
+    /**
+     * Paints a HealthBar, including its numbers.
+     *
+     * @param canvas the image to paint on
+     * @return the painted image
+     */
+    @Benchmark
+    public BufferedImage paintHealthBar(Canvas canvas) {
+        return canvas.paint(canvas.healthBar);
+    }
+    
+    /**
+     * Paints a PartPanel.
+     *
+     * @param canvas the image to paint on
+     * @return the painted image
+     */
+    @Benchmark
+    public BufferedImage paintPartPanel(Canvas canvas) {
+        return canvas.paint(canvas.partPanel);
+    }
+    
+    /**
+     * Draws a single Slot's Part.
+     *
+     * @param canvas the image to draw on
+     * @return the image drawn on
+     */
+    @Benchmark
+    public BufferedImage slotRender(Canvas canvas) {
+        canvas.slot.render(canvas.image);
+        return canvas.image;
+    }
+    
+    /**
+     * A Composite is an Amalgamation with a given number of Parts connected.
+     */
+    @State(Scope.Thread)
+    public static class Composite {
+        /**
+         * The number of Parts connected to the Body. The shipped player's Body
+         * has five Slots.
+         */
+        @Param({"0", "2", "5"})
+        public int parts;
+        
+        // The Amalgamation and its Body.
+        private Amalgamation    amal;
+        private Body            body;
+        
+        /**
+         * Disconnects the Parts beyond the requested number.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            amal = Fixtures.player(1);
+            body = amal.getBody();
+            
+            int connected = 0;
+            for (Slot<?> slot : body.getSlots())
+                if (slot.getPart() != null && connected++ >= parts)
+                    slot.setPart(null);
+            if (connected < parts)
+                throw new IllegalStateException(Fixtures.PLAYER_NAME
+                        + " only has " + connected + " Parts");
+            
+            // Build the cached full image ahead of time.
+            amal.getFullImage();
+        }
+    }
+    
+    /**
+     * A Canvas is an offscreen image of a given size, along with the panels
+     * painted onto it.
+     */
+    @State(Scope.Thread)
+    public static class Canvas {
+        /**
+         * The width and height of the image.
+         */
+        @Param({"100", "200", "400"})
+        public int size;
+        
+        // The image drawn on.
+        private BufferedImage       image;
+        // The panels painted onto the image, sized to fill it.
+        private AmalgamationPanel   amalgamationPanel;
+        private HealthBar           healthBar;
+        private PartPanel           partPanel;
+        // The Slot drawn onto the image.
+        private Slot<?>             slot;
+        
+        /**
+         * Creates the image and the panels.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            
+            Amalgamation player = Fixtures.player(1);
+            for (Slot<?> s : player.getBody().getSlots())
+                if (s.getPart() != null && slot == null)
+                    slot = s;
+            
+            amalgamationPanel = new AmalgamationPanel(player);
+            amalgamationPanel.setSize(size, size);
+            healthBar = new HealthBar();
+            healthBar.setSize(size, Math.max(size / 10, 20));
+            partPanel = new PartPanel(slot.getPart());
+            partPanel.setSize(size, size);
+            partPanel.doLayout();
+        }
+        
+        // Paints the component onto the image as Swing would for one frame.
+        private BufferedImage paint(javax.swing.JComponent component) {
+            Graphics2D g = image.createGraphics();
+            try {
+                component.paint(g);
+            } finally {
+                g.dispose();
+            }
+            
+            return image;
+        }
+    }
+}
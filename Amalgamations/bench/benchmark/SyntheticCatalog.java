@@ -0,0 +1,221 @@
+package benchmark;
+
+import amalgamation.Amalgamation;
+import amalgamation.parts.Arm;
+import amalgamation.parts.Body;
+import amalgamation.parts.Head;
+import amalgamation.parts.Leg;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Random;
+
+import util.Abilities;
+import util.Amalgamations;
+import util.Parts;
+import util.Randoms;
+
+/**
+ * SyntheticCatalog generates a resource tree far larger than the one that
+ * ships with the game, so that the persistence benchmarks can show how
+ * loading and saving scale.
+ *
+ * The catalog is generated into the working directory, laid out exactly like
+ * the project directory: a res directory with Part, Ability, rand and
+ * Amalgamation files, an Amalgamation index and a packed AssetArchive. The
+ * benchmarks are then simply run from that directory. The Abilities, rand
+ * files and shipped Amalgamations are copied from the project, the Parts are
+ * copies of the shipped Parts under new names, and the Amalgamations are
+ * generated from those Parts using a fixed seed.
+ *
+ * Generating a large catalog takes a while, so a catalog that was already
+ * generated with the same sizes is left alone.
+ *
+ * @author Caleb Rush
+ */
+public class SyntheticCatalog {
+    // The number of Parts and Amalgamations generated by default.
+    public static final int         DEFAULT_PARTS           = 10000;
+    public static final int         DEFAULT_AMALGAMATIONS   = 100000;
+    // The file recording the sizes of the generated catalog.
+    public static final String      MARKER_PATH             =
+            "res/catalog.properties";
+    // The Part resource directories the Parts are spread across.
+    private static final String[]   PART_DIRS               = {
+        Parts.ARMS_RES_DIR,
+        Parts.BODIES_RES_DIR,
+        Parts.HEADS_RES_DIR,
+        Parts.LEGS_RES_DIR
+    };
+    
+    /**
+     * Generates a catalog in the working directory, replacing any catalog
+     * that is already there.
+     *
+     * @param source the project directory to copy the shipped resource files
+     *               from
+     * @param parts the number of Parts to generate
+     * @param amalgamations the number of Amalgamations to generate
+     * @throws IOException if the shipped resource files cannot be read or the
+     *                     catalog cannot be written
+     */
+    public static void generate(Path source, int parts, int amalgamations)
+            throws IOException {
+        delete(Paths.get("res"));
+        
+        // Copy the files that are used as they are.
+        copy(source, Abilities.ABILITY_RES_DIR, Abilities.ABILITIES_FILE_EXT);
+        copy(source, Randoms.RAND_RES_DIR, Randoms.RAND_FILE_EXT);
+        copy(source, Amalgamations.AMAL_RES_DIR, Amalgamations.AMAL_FILE_EXT);
+        
+        // Spread the Parts evenly across the Part directories, cycling
+        // through the shipped Parts of each type.
+        for (int i = 0; i < PART_DIRS.length; i++) {
+            Path[] shipped = list(source.resolve(PART_DIRS[i]),
+                    Parts.PARTS_FILE_EXT);
+            if (shipped.length == 0)
+                throw new IOException("There are no shipped Parts in "
+                        + PART_DIRS[i]);
+            Files.createDirectories(Paths.get(PART_DIRS[i]));
+            
+            int count = parts / PART_DIRS.length
+                    + (i < parts % PART_DIRS.length? 1 : 0);
+            for (int j = 0; j < count; j++) {
+                String name = shipped[j % shipped.length].getFileName()
+                        .toString();
+                name = name.substring(0, name.lastIndexOf('.'));
+                Files.copy(shipped[j % shipped.length],
+                        Paths.get(String.format("%s%s %05d%s", PART_DIRS[i],
+                                name, j, Parts.PARTS_FILE_EXT)));
+            }
+        }
+        
+        // Generate the Amalgamations from the new Parts. They are written
+        // directly instead of with Amalgamations::save, which would rewrite
+        // the whole index after every one.
+        Arm[] arms = Parts.getArms(Parts.ARMS_RES_DIR);
+        Body[] bodies = Parts.getBodies(Parts.BODIES_RES_DIR);
+        Head[] heads = Parts.getHeads(Parts.HEADS_RES_DIR);
+        Leg[] legs = Parts.getLegs(Parts.LEGS_RES_DIR);
+        String[] names = Randoms.loadNames();
+        String[] adjectives = Randoms.loadAdjectives();
+        Random random = new Random(Fixtures.SEED);
+        for (int i = 0; i < amalgamations; i++) {
+            Amalgamation amal = new Amalgamation(
+                    Randoms.randomName(names, adjectives, random) + " "
+                            + (i + 1),
+                    Parts.randomBody(arms, bodies, heads, legs, random),
+                    random);
+            amal.setLevel(1 + random.nextInt(Amalgamation.MAX_LEVEL), random);
+            
+            Path file = Paths.get(Amalgamations.AMAL_RES_DIR + amal.getName()
+                    + Amalgamations.AMAL_FILE_EXT);
+            try (java.io.ObjectOutputStream out
+                    = new java.io.ObjectOutputStream(
+                            new java.io.BufferedOutputStream(
+                                    Files.newOutputStream(file)))) {
+                out.writeObject(amal);
+            }
+        }
+        
+        // Index every Amalgamation at once and pack the read-only files.
+        util.AmalgamationIndex.getEntries(util.AmalgamationIndex.BY_NAME);
+        util.AssetArchive.pack(util.AssetArchive.ARCHIVE_PATH);
+        
+        java.util.Properties marker = new java.util.Properties();
+        marker.setProperty("parts", Integer.toString(parts));
+        marker.setProperty("amalgamations", Integer.toString(amalgamations));
+        try (java.io.Writer out = Files.newBufferedWriter(
+                Paths.get(MARKER_PATH))) {
+            marker.store(out, "Generated by benchmark.SyntheticCatalog");
+        }
+    }
+    
+    /**
+     * Returns whether or not the catalog in the working directory was
+     * generated with the given sizes.
+     *
+     * @param parts the number of Parts
+     * @param amalgamations the number of Amalgamations
+     * @return true if the catalog does not need to be generated again
+     */
+    public static boolean isCurrent(int parts, int amalgamations) {
+        java.util.Properties marker = new java.util.Properties();
+        try (java.io.Reader in = Files.newBufferedReader(
+                Paths.get(MARKER_PATH))) {
+            marker.load(in);
+        } catch (IOException e) {
+            return false;
+        }
+        
+        return Integer.toString(parts).equals(marker.getProperty("parts"))
+                && Integer.toString(amalgamations).equals(
+                        marker.getProperty("amalgamations"));
+    }
+    
+    // Copies the files with the given extension in the given resource
+    // directory of the project into the same directory in the catalog.
+    private static void copy(Path source, String dirPath, String extension)
+            throws IOException {
+        Path target = Paths.get(dirPath);
+        Files.createDirectories(target);
+        for (Path file : list(source.resolve(dirPath), extension))
+            Files.copy(file, target.resolve(file.getFileName().toString()));
+    }
+    
+    // Deletes the given file or directory and everything in it.
+    private static void delete(Path path) throws IOException {
+        if (!Files.exists(path))
+            return;
+        
+        try (java.util.stream.Stream<Path> walk = Files.walk(path)) {
+            for (Path file : (Iterable<Path>)walk.sorted(
+                    java.util.Comparator.reverseOrder())::iterator)
+                Files.delete(file);
+        }
+    }
+    
+    // Lists the files in the given directory with the given extension, in
+    // alphabetical order.
+    private static Path[] list(Path dir, String extension)
+            throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(extension))
+                    .sorted()
+                    .toArray(Path[]::new);
+        }
+    }
+    
+    /**
+     * Generates the catalog in the working directory unless it is already
+     * current.
+     *
+     * The first argument is the project directory to copy the shipped
+     * resource files from. The optional second and third arguments are the
+     * number of Parts and Amalgamations to generate.
+     *
+     * @param args the project directory, number of Parts and number of
+     *             Amalgamations
+     * @throws IOException if the catalog cannot be generated
+     */
+    public static void main(String[] args) throws IOException {
+        Path source = Paths.get(args[0]).toAbsolutePath();
+        int parts = args.length > 1? Integer.parseInt(args[1])
+                : DEFAULT_PARTS;
+        int amalgamations = args.length > 2? Integer.parseInt(args[2])
+                : DEFAULT_AMALGAMATIONS;
+        
+        if (isCurrent(parts, amalgamations)) {
+            System.out.println("The synthetic catalog is up to date");
+            return;
+        }
+        
+        generate(source, parts, amalgamations);
+        System.out.printf("Generated %d Parts and %d Amalgamations in %s%n",
+                parts, amalgamations, Paths.get("").toAbsolutePath());
+    }
+}
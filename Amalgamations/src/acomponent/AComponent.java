@@ -34,6 +34,15 @@ public class AComponent extends JPanel {
     // The position of the center of the highlight.
     private int highlightX;
     private int highlightY;
+    // The area that has changed during the current animation frame and still
+    // needs to be repainted.
+    private java.awt.Rectangle dirtyRegion;
+    // Whether or not the component's rendering is cached in the layer.
+    private boolean layerCached;
+    // The cached rendering of the component and its children.
+    private java.awt.image.VolatileImage layer;
+    // Whether or not the layer is up to date.
+    private boolean layerValid;
     
     /**
      * Constructs a new AComponent object.
@@ -107,25 +116,16 @@ public class AComponent extends JPanel {
                 getHeight() / 100 + 10;
         
         // Check if the highlight is already covering the entire component.
-        if (highlightRadius == highlightRadius(highlightX, highlightY)) {
-            highlightX = x;
-            highlightY = y;
-            highlightRadius = highlightRadius(x, y);
-        }
+        if (highlightRadius == highlightRadius(highlightX, highlightY))
+            setHighlight(x, y, highlightRadius(x, y));
         
         // Calculate the start value of the highligh radius.
         int startRadius = highlightRadius;
         
         animations.add(Animator.animateValue(startRadius, radius, -velocity, 
-                value -> {
-                    highlightRadius = (int)value;
-                    repaint();
-                },
+                value -> setHighlight(highlightX, highlightY, (int)value),
                 // Erase the highlight completely at the end of the animation.
-                () -> {
-                    highlightRadius = 0;
-                    repaint();
-                }
+                () -> setHighlight(highlightX, highlightY, 0)
         ));
         
         return this;
@@ -189,6 +189,13 @@ public class AComponent extends JPanel {
         return background;
     }
     
+    @Override
+    public void doLayout() {
+        super.doLayout();
+        // The children may have moved.
+        layerValid = false;
+    }
+    
     /**
      * Retrieves the color of the highlight.
      * 
@@ -229,21 +236,13 @@ public class AComponent extends JPanel {
                 getWidth() / 100 + 10:
                 getHeight() / 100 + 10;
         
-        highlightX = x;
-        highlightY = y;
+        setHighlight(x, y, highlightRadius);
         
         animations.add(Animator.animateValue(radius, endRadius, velocity, 
-                value -> {
-                    highlightRadius = (int)value;
-                    repaint();
-                },
+                value -> setHighlight(highlightX, highlightY, (int)value),
                 // Set the highlight in the center at the end of the animation.
-                () -> {
-                    highlightX = getWidth() / 2;
-                    highlightY = getHeight() / 2;
-                    highlightRadius = highlightRadius(highlightX, highlightY);
-                    repaint();
-                }
+                () -> setHighlight(getWidth() / 2, getHeight() / 2, 
+                        highlightRadius(getWidth() / 2, getHeight() / 2))
 //                null
         ));
         
@@ -274,6 +273,39 @@ public class AComponent extends JPanel {
                 ).max(Double::compare).get().intValue() + 1;
     }
     
+    // Returns the bounds of the highlight's circle.
+    private java.awt.Rectangle highlightBounds() {
+        return new java.awt.Rectangle(
+                highlightX - highlightRadius, 
+                highlightY - highlightRadius, 
+                2 * highlightRadius + 1,
+                2 * highlightRadius + 1
+        );
+    }
+    
+    /**
+     * Marks the cached layer as out of date so that the component is rendered
+     * again the next time it is painted.
+     * 
+     * This should be called whenever the component's content changes while
+     * its layer is cached.
+     * 
+     * @see AComponent#setLayerCached
+     */
+    public void invalidateLayer() {
+        layerValid = false;
+        repaint();
+    }
+    
+    /**
+     * Returns whether or not the component's rendering is cached.
+     * 
+     * @return true if the rendering is cached, false if not
+     */
+    public boolean isLayerCached() {
+        return layerCached;
+    }
+    
     /**
      * Returns whether or not any image being drawn by this component should be
      * stretched to fit the size of the component.
@@ -284,6 +316,49 @@ public class AComponent extends JPanel {
         return stretchImage;
     }
     
+    @Override
+    public void paint(Graphics g) {
+        java.awt.GraphicsConfiguration config = getGraphicsConfiguration();
+        // Highlights change every frame, so there is no point caching them.
+        if (!layerCached || highlightRadius != 0 || config == null
+                || getWidth() <= 0 || getHeight() <= 0) {
+            super.paint(g);
+            return;
+        }
+        
+        do {
+            // Make sure the layer still matches the component and the
+            // display it's being shown on.
+            int status = layer == null?
+                    java.awt.image.VolatileImage.IMAGE_INCOMPATIBLE:
+                    layer.validate(config);
+            if (status == java.awt.image.VolatileImage.IMAGE_INCOMPATIBLE
+                    || layer.getWidth() != getWidth()
+                    || layer.getHeight() != getHeight()) {
+                if (layer != null)
+                    layer.flush();
+                layer = config.createCompatibleVolatileImage(getWidth(),
+                        getHeight(), java.awt.Transparency.TRANSLUCENT);
+                layerValid = false;
+            }
+            else if (status == java.awt.image.VolatileImage.IMAGE_RESTORED)
+                layerValid = false;
+            
+            // Render the component into the layer if it's out of date.
+            if (!layerValid) {
+                java.awt.Graphics2D layerGraphics = layer.createGraphics();
+                layerGraphics.setComposite(java.awt.AlphaComposite.Clear);
+                layerGraphics.fillRect(0, 0, getWidth(), getHeight());
+                layerGraphics.setComposite(java.awt.AlphaComposite.SrcOver);
+                super.paint(layerGraphics);
+                layerGraphics.dispose();
+                layerValid = true;
+            }
+            
+            g.drawImage(layer, 0, 0, null);
+        } while (layer.contentsLost());
+    }
+    
     @Override
     protected void paintComponent(Graphics g) {
         // Draw the background.
@@ -312,9 +387,74 @@ public class AComponent extends JPanel {
         super.paintComponent(g);
     }
     
+    /**
+     * Marks an area of the component as needing to be repainted.
+     * 
+     * Unlike repaint, the area is not repainted right away. Every area marked
+     * during the same animation frame is combined, and the combined area is
+     * repainted once after all of the frame's changes have been made. This
+     * should only be called on the event thread.
+     * 
+     * @param region the area of the component that has changed
+     */
+    protected void repaintRegion(java.awt.Rectangle region) {
+        // Ignore anything outside of the component.
+        region = region.intersection(
+                new java.awt.Rectangle(0, 0, getWidth(), getHeight()));
+        if (region.isEmpty())
+            return;
+        
+        if (dirtyRegion != null) {
+            // A repaint is already scheduled for this frame.
+            dirtyRegion.add(region);
+            return;
+        }
+        
+        dirtyRegion = region;
+        javax.swing.SwingUtilities.invokeLater(() -> {
+            repaint(dirtyRegion);
+            dirtyRegion = null;
+        });
+    }
+    
     @Override
     public void setBackground(Color background) {
         this.background = background;
+        layerValid = false;
+    }
+    
+    // Moves and resizes the highlight, repainting only the area it covered
+    // before or covers now.
+    private void setHighlight(int x, int y, int radius) {
+        java.awt.Rectangle changed = highlightBounds();
+        highlightX = x;
+        highlightY = y;
+        highlightRadius = radius;
+        changed.add(highlightBounds());
+        repaintRegion(changed);
+    }
+    
+    /**
+     * Sets whether or not the component's rendering should be cached.
+     * 
+     * A cached component (along with its children) is rendered once into an
+     * offscreen image, which is simply copied to the screen whenever the
+     * component is repainted, such as when it moves. This makes repainting
+     * components with expensive content cheap, but changes to that content
+     * will not appear until invalidateLayer is called. Highlights are never
+     * cached, and the cache is rendered again automatically when the
+     * component's size, layout or background changes or the display it is
+     * shown on changes.
+     * 
+     * @param layerCached true if the rendering should be cached, false if not
+     */
+    public void setLayerCached(boolean layerCached) {
+        this.layerCached = layerCached;
+        if (!layerCached && layer != null) {
+            layer.flush();
+            layer = null;
+        }
+        invalidateLayer();
     }
     
     /**
@@ -368,10 +508,9 @@ public class AComponent extends JPanel {
         animations.add(
                 Animator.animateValue(
                         getX(), getX() + deltaX, milliseconds, 
-                        newX -> {
-                            setLocation((int)newX, getY());
-                            repaint();
-                        },
+                        // Moving the component repaints the area it left and
+                        // the area it moved to.
+                        newX -> setLocation((int)newX, getY()),
                         null
                 )
         );
@@ -392,10 +531,9 @@ public class AComponent extends JPanel {
         animations.add(
                 Animator.animateValue(
                         getY(), getY() + deltaY, milliseconds, 
-                        newY -> {
-                            setLocation(getX(), (int)newY);
-                            repaint();
-                        },
+                        // Moving the component repaints the area it left and
+                        // the area it moved to.
+                        newY -> setLocation(getX(), (int)newY),
                         null
                 )
         );
@@ -12,11 +12,24 @@ import java.util.Vector;
  * the same Animator, only one thread will ever be needed to animate multiple
  * different values, regardless of their relation and when they are animated.
  * 
+ * The speed of every animation can be changed at once with setSpeed, which
+ * is useful for skipping through long sequences of animations.
+ * 
+ * How well the Animator keeps up with its frame rate is recorded by
+ * AnimatorMetrics while it is enabled.
+ * 
  * @author Caleb Rush
  */
 public class Animator {
+    /**
+     * The speed at which every animation finishes on the next frame.
+     */
+    public static final double INSTANT = Double.POSITIVE_INFINITY;
+    
     // The number of frames to be advanced in a second.
     private static int fps = 60;
+    // How many times faster than normal animations are run.
+    private static volatile double speed = 1;
     // Whether or not to wait for an animation to finish.
     private static boolean wait;
     // The universal Animator instance to be used.
@@ -62,28 +75,40 @@ public class Animator {
             // Continue running until the Animator is stopped.
             while (running) {
                 // Pause until the next frame.
+                long sleepStart = AnimatorMetrics.startTimer();
                 try {
-                    Thread.sleep(1000/fps);
+                    Thread.sleep(frameTime());
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
+                // The time the frame was due, if the metrics are recorded.
+                long due = sleepStart == 0? 0 : sleepStart 
+                        + java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(
+                                frameTime());
+                long tickStart = AnimatorMetrics.startTimer();
+                
+                // Every change made in this frame, in order. They are all
+                // delivered to the event thread together so that the frame is
+                // painted once with all of its changes instead of once for
+                // each animated value.
+                Vector<Runnable> frame = new Vector<>();
+                // The end listeners to alert once the frame has been applied.
+                Vector<Runnable> ended = new Vector<>();
                 
                 synchronized (keys) {
                     // Iterate through each value being tracked by the Animator.
                     for (int i = 0; i < values.size(); i++) {
                         incrementVelocity(i);
                         incrementValue(i);
-                        notifyFrameListener(i);
+                        notifyFrameListener(i, frame);
                         if (valueAtEnd(i)) {
                             FrameListener l = frameListeners.get(i);
                             double value = endValues.get(i);
                             // Notify the frame listener one last time.
-                            javax.swing.SwingUtilities.invokeLater(() -> {
-                                l.frameIncremented(value);
-                            });
+                            frame.add(() -> l.frameIncremented(value));
                             // Alert the end listener.
                             if (animationEndListeners.get(i) != null)
-                                javax.swing.SwingUtilities.invokeLater(
+                                ended.add(
                                         animationEndListeners.get(i)::animationEnded);
                             removeValue(i);
                             // Decrement the loop counter so that the next element
@@ -95,6 +120,20 @@ public class Animator {
                     // Check if there are any values left to animate.
                     if (values.isEmpty()) 
                         running = false;
+                    
+                    AnimatorMetrics.recordTick(tickStart, values.size());
+                }
+                
+                // Apply the frame.
+                frame.addAll(ended);
+                if (!frame.isEmpty()) {
+                    long queued = AnimatorMetrics.recordQueued();
+                    javax.swing.SwingUtilities.invokeLater(() -> {
+                        frame.forEach(Runnable::run);
+                        AnimatorMetrics.recordApplied(queued, due,
+                                java.util.concurrent.TimeUnit.SECONDS
+                                        .toNanos(1) / fps);
+                    });
                 }
             }
         }).start();
@@ -198,6 +237,17 @@ public class Animator {
     public static String animateValue(double value, double endValue, 
             double velocity, double acceleration, FrameListener frameListener,
             AnimationEndListener animationEndListener) {        
+        // Apply the speed. Multiplying the velocity by the speed and the
+        // acceleration by its square follows the same path in less time.
+        if (isInstant()) {
+            velocity = endValue - value;
+            acceleration = 0;
+        }
+        else {
+            velocity *= speed;
+            acceleration *= speed * speed;
+        }
+        
         // Check if the universal animator has been created yet.
         if (animator == null)
             animator = new Animator();
@@ -222,6 +272,22 @@ public class Animator {
         }
     }
     
+    // Returns the number of milliseconds to wait between frames. Instant
+    // animations don't wait for the frame rate.
+    private static long frameTime() {
+        return isInstant()? 1 : 1000/fps;
+    }
+    
+    /**
+     * Retrieves how many times faster than normal animations are run.
+     * 
+     * @return the speed of the animations
+     * @see Animator#setSpeed
+     */
+    public static double getSpeed() {
+        return speed;
+    }
+    
     // Increments the value at the given index.
     private void incrementValue(int i) {
         values.set(i, values.get(i) + velocities.get(i));
@@ -232,13 +298,21 @@ public class Animator {
         velocities.set(i, velocities.get(i) + accelerations.get(i));
     }
     
-    // Notifies the frame listener at the given index of a change in value.
-    private void notifyFrameListener(int i) {
+    /**
+     * Returns whether or not animations finish immediately.
+     * 
+     * @return true if the speed is INSTANT, false otherwise
+     */
+    public static boolean isInstant() {
+        return speed == INSTANT;
+    }
+    
+    // Adds the notification of the frame listener at the given index to the
+    // given frame.
+    private void notifyFrameListener(int i, Vector<Runnable> frame) {
         FrameListener l = frameListeners.get(i);
         int value = values.get(i).intValue();
-        javax.swing.SwingUtilities.invokeLater(() -> {
-            l.frameIncremented(value);
-        });
+        frame.add(() -> l.frameIncremented(value));
     }
 
     // Remove the value at the given index.
@@ -255,6 +329,37 @@ public class Animator {
         }
     }
     
+    /**
+     * Scales the given length of time by the speed.
+     * 
+     * This can be used to speed up pauses between animations along with the
+     * animations themselves.
+     * 
+     * @param milliseconds the length of time at normal speed
+     * @return the length of time at the current speed. This is 0 if the speed
+     *         is INSTANT
+     */
+    public static int scale(int milliseconds) {
+        return (int)(milliseconds / speed);
+    }
+    
+    /**
+     * Sets how many times faster than normal every animation should run.
+     * 
+     * The speed applies to the animations started after it is set. A speed of
+     * 2 makes animations take half as long, and a speed of INSTANT makes them
+     * finish on the next frame without waiting for the frame rate, so a
+     * sequence of awaited animations finishes almost immediately.
+     * 
+     * @param speed the speed of the animations. 1 is normal speed
+     * @throws IllegalArgumentException if the speed is not positive
+     */
+    public static void setSpeed(double speed) {
+        if (!(speed > 0))
+            throw new IllegalArgumentException("The speed must be positive");
+        Animator.speed = speed;
+    }
+    
     /**
      * Sets the AnimationEndListener for the specified animation.
      * 
@@ -361,7 +466,7 @@ public class Animator {
         while (wait) {
             // Sleep for the specified framerate.
             try {
-                Thread.sleep(1000/fps);
+                Thread.sleep(frameTime());
             } catch (InterruptedException e) {
                 break;
             }
@@ -0,0 +1,455 @@
+package acomponent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AnimatorMetrics records how the Animator keeps up with its frame rate: how
+ * many animations are running, how long each frame takes to compute, how long
+ * each frame waits in the event queue before it is applied, how many frames
+ * are waiting there at once and how many frames are applied late.
+ *
+ * A frame is late when it is applied more than one frame after it was due,
+ * whether because the Animator's thread overslept, the frame took too long to
+ * compute or the event thread was busy with earlier work.
+ *
+ * Recording is off by default. It is turned on by starting with
+ * -Dacomponent.animator.metrics=true or by calling setEnabled. While it is
+ * off, the Animator does not read the clock or touch any of the metrics. Once
+ * enabled, the metrics are registered with the platform MBean server as
+ * "acomponent:type=Animator".
+ *
+ * @author Caleb Rush
+ */
+public class AnimatorMetrics {
+    // The name the metrics are registered with the MBean server under.
+    public static final String  OBJECT_NAME         =
+            "acomponent:type=Animator";
+    // The system property that turns recording on.
+    public static final String  ENABLED_PROPERTY    =
+            "acomponent.animator.metrics";
+    // The number of nanoseconds in a millisecond.
+    private static final double NANOS_PER_MILLI     = 1e6;
+    
+    // The number of frames computed and the number applied late.
+    private static final LongAdder       frames       = new LongAdder();
+    private static final LongAdder       lateFrames   = new LongAdder();
+    // The distributions of frame computing times and event queue latencies.
+    private static final Histogram       tickTime     = new Histogram();
+    private static final Histogram       queueLatency = new Histogram();
+    // The number of frames waiting in the event queue, and the most there
+    // have been at once.
+    private static final AtomicInteger   backlog      = new AtomicInteger();
+    private static final LongAccumulator peakBacklog  = new LongAccumulator(
+            Math::max, 0);
+    // The most animations that have been running at once.
+    private static final LongAccumulator peakActive   = new LongAccumulator(
+            Math::max, 0);
+    
+    // Whether or not the metrics are being recorded.
+    private static volatile boolean enabled;
+    // The number of animations running after the last frame.
+    private static volatile int     active;
+    // Whether or not the metrics have been registered with the MBean server.
+    private static boolean          registered;
+    
+    static {
+        if (Boolean.getBoolean(ENABLED_PROPERTY))
+            setEnabled(true);
+    }
+    
+    /**
+     * Retrieves the number of animations that were running after the last
+     * frame.
+     *
+     * @return the number of running animations
+     */
+    public static int getActiveAnimations() {
+        return active;
+    }
+    
+    /**
+     * Retrieves the number of frames waiting in the event queue to be
+     * applied.
+     *
+     * @return the number of waiting frames
+     */
+    public static int getBacklog() {
+        return backlog.get();
+    }
+    
+    /**
+     * Retrieves the number of frames that have been computed.
+     *
+     * @return the number of frames
+     */
+    public static long getFrameCount() {
+        return frames.sum();
+    }
+    
+    /**
+     * Retrieves the number of frames that were applied more than one frame
+     * after they were due.
+     *
+     * @return the number of late frames
+     */
+    public static long getLateFrameCount() {
+        return lateFrames.sum();
+    }
+    
+    /**
+     * Retrieves the most animations that have been running at once.
+     *
+     * @return the peak number of running animations
+     */
+    public static long getPeakActiveAnimations() {
+        return peakActive.get();
+    }
+    
+    /**
+     * Retrieves the most frames that have been waiting in the event queue at
+     * once.
+     *
+     * @return the peak number of waiting frames
+     */
+    public static long getPeakBacklog() {
+        return peakBacklog.get();
+    }
+    
+    /**
+     * Retrieves the distribution of the time frames waited in the event queue
+     * in nanoseconds.
+     *
+     * @return the event queue latencies
+     */
+    public static Histogram getQueueLatency() {
+        return queueLatency;
+    }
+    
+    /**
+     * Builds a readable summary of every metric, one line each.
+     *
+     * @return the summary
+     */
+    public static String getSummary() {
+        return String.format("Animations: %d (peak %d)%n"
+                + "Frame time: %s%n"
+                + "EDT latency: %s%n"
+                + "EDT backlog: %d (peak %d)%n"
+                + "Late frames: %d of %d",
+                getActiveAnimations(), getPeakActiveAnimations(),
+                describe(tickTime), describe(queueLatency),
+                getBacklog(), getPeakBacklog(),
+                getLateFrameCount(), getFrameCount());
+    }
+    
+    /**
+     * Retrieves the distribution of the time frames took to compute in
+     * nanoseconds.
+     *
+     * @return the frame computing times
+     */
+    public static Histogram getTickTime() {
+        return tickTime;
+    }
+    
+    /**
+     * Returns whether or not the metrics are being recorded.
+     *
+     * @return true if the metrics are being recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Clears every metric. The number of running animations and waiting
+     * frames are left alone, as they describe the present.
+     */
+    public static void reset() {
+        frames.reset();
+        lateFrames.reset();
+        tickTime.reset();
+        queueLatency.reset();
+        peakBacklog.reset();
+        peakActive.reset();
+    }
+    
+    /**
+     * Starts or stops recording the metrics.
+     *
+     * The first time recording is started, the metrics are registered with
+     * the platform MBean server.
+     *
+     * @param enabled whether or not to record the metrics
+     */
+    public static synchronized void setEnabled(boolean enabled) {
+        AnimatorMetrics.enabled = enabled;
+        
+        if (enabled)
+            register();
+    }
+    
+    // Records a frame being applied on the event thread. The queued time is
+    // the value returned by recordQueued, the due time is when the frame
+    // should have started, or zero if it is unknown, and the period is the
+    // length of a frame, all in nanoseconds.
+    static void recordApplied(long queued, long due, long period) {
+        if (queued == 0)
+            return;
+        
+        long now = System.nanoTime();
+        backlog.decrementAndGet();
+        queueLatency.record(now - queued);
+        if (due != 0 && now - due > period)
+            lateFrames.increment();
+    }
+    
+    // Records a frame being put in the event queue, returning the time it was
+    // queued or zero if the metrics are not being recorded.
+    static long recordQueued() {
+        long queued = startTimer();
+        if (queued != 0)
+            peakBacklog.accumulate(backlog.incrementAndGet());
+        return queued;
+    }
+    
+    // Records a frame being computed, along with the number of animations
+    // left running afterwards. The start is the value returned by startTimer.
+    static void recordTick(long start, int running) {
+        if (start == 0)
+            return;
+        
+        tickTime.record(System.nanoTime() - start);
+        frames.increment();
+        active = running;
+        peakActive.accumulate(running);
+    }
+    
+    // Returns the current value of System::nanoTime, or zero if the metrics
+    // are not being recorded.
+    static long startTimer() {
+        if (!enabled)
+            return 0;
+        
+        // Zero means that recording is off, so never return it as a time.
+        long now = System.nanoTime();
+        return now == 0? 1 : now;
+    }
+    
+    // Describes the distribution of a Histogram of nanoseconds in
+    // milliseconds.
+    private static String describe(Histogram histogram) {
+        return String.format("mean %.2f ms, p99 %.2f ms, max %.2f ms",
+                histogram.getMean() / NANOS_PER_MILLI,
+                histogram.getPercentile(99) / NANOS_PER_MILLI,
+                histogram.getMax() / NANOS_PER_MILLI);
+    }
+    
+    // Registers the metrics with the platform MBean server.
+    private static void register() {
+        if (registered)
+            return;
+        registered = true;
+        
+        try {
+            java.lang.management.ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(new Bean(), new javax.management.ObjectName(
+                            OBJECT_NAME));
+        } catch (javax.management.JMException e) {
+            // The metrics can still be read directly.
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * A Histogram records the distribution of a set of durations in
+     * nanoseconds.
+     *
+     * Frames only matter on the scale of milliseconds, so the durations are
+     * counted in buckets a tenth of a millisecond wide, up to a second. Longer
+     * durations are counted in the last bucket, though the largest duration
+     * is still kept exactly. Recording a duration never locks.
+     */
+    public static class Histogram {
+        // The width of each bucket in nanoseconds.
+        private static final long   BUCKET_WIDTH    = 100000;
+        // The number of buckets.
+        private static final int    BUCKETS         = 10000;
+        
+        // The number of durations recorded in each bucket.
+        private final AtomicLongArray   counts  = new AtomicLongArray(BUCKETS);
+        // The number of durations recorded, their sum and the largest one.
+        private final LongAdder         count   = new LongAdder();
+        private final LongAdder         sum     = new LongAdder();
+        private final LongAccumulator   max     = new LongAccumulator(
+                Math::max, 0);
+        
+        /**
+         * Retrieves the number of durations recorded.
+         *
+         * @return the number of durations recorded
+         */
+        public long getCount() {
+            return count.sum();
+        }
+        
+        /**
+         * Retrieves the longest duration recorded.
+         *
+         * @return the longest duration, or zero if none have been recorded
+         */
+        public long getMax() {
+            return max.get();
+        }
+        
+        /**
+         * Retrieves the mean of the durations recorded.
+         *
+         * @return the mean, or zero if no durations have been recorded
+         */
+        public double getMean() {
+            long n = count.sum();
+            return n == 0? 0 : (double)sum.sum() / n;
+        }
+        
+        /**
+         * Retrieves the duration that the given percentage of the recorded
+         * durations are less than or equal to, rounded up to the end of its
+         * bucket.
+         *
+         * @param percentile the percentage, from 0 to 100
+         * @return the duration at the percentile, or zero if no durations
+         *         have been recorded
+         */
+        public long getPercentile(double percentile) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++)
+                total += snapshot[i] = counts.get(i);
+            if (total == 0)
+                return 0;
+            
+            long target = Math.max(1, (long)Math.ceil(
+                    percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= target)
+                    return Math.min((i + 1) * BUCKET_WIDTH, getMax());
+            }
+            
+            return getMax();
+        }
+        
+        /**
+         * Records a duration. Negative durations are recorded as zero.
+         *
+         * @param nanos the duration in nanoseconds
+         */
+        public void record(long nanos) {
+            nanos = Math.max(nanos, 0);
+            counts.incrementAndGet((int)Math.min(nanos / BUCKET_WIDTH,
+                    BUCKETS - 1));
+            count.increment();
+            sum.add(nanos);
+            max.accumulate(nanos);
+        }
+        
+        /**
+         * Clears every recorded duration.
+         */
+        public void reset() {
+            for (int i = 0; i < BUCKETS; i++)
+                counts.set(i, 0);
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+    }
+    
+    // Exposes the metrics to JMX.
+    private static class Bean implements AnimatorMetricsMXBean {
+        @Override
+        public int getActiveAnimations() {
+            return AnimatorMetrics.getActiveAnimations();
+        }
+        
+        @Override
+        public int getBacklog() {
+            return AnimatorMetrics.getBacklog();
+        }
+        
+        @Override
+        public long getFrameCount() {
+            return AnimatorMetrics.getFrameCount();
+        }
+        
+        @Override
+        public long getLateFrameCount() {
+            return AnimatorMetrics.getLateFrameCount();
+        }
+        
+        @Override
+        public double getMaxFrameMillis() {
+            return tickTime.getMax() / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getMaxQueueLatencyMillis() {
+            return queueLatency.getMax() / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getMeanFrameMillis() {
+            return tickTime.getMean() / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getMeanQueueLatencyMillis() {
+            return queueLatency.getMean() / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getP99FrameMillis() {
+            return tickTime.getPercentile(99) / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getP99QueueLatencyMillis() {
+            return queueLatency.getPercentile(99) / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public long getPeakActiveAnimations() {
+            return AnimatorMetrics.getPeakActiveAnimations();
+        }
+        
+        @Override
+        public long getPeakBacklog() {
+            return AnimatorMetrics.getPeakBacklog();
+        }
+        
+        @Override
+        public String getSummary() {
+            return AnimatorMetrics.getSummary();
+        }
+        
+        @Override
+        public boolean isEnabled() {
+            return AnimatorMetrics.isEnabled();
+        }
+        
+        @Override
+        public void reset() {
+            AnimatorMetrics.reset();
+        }
+        
+        @Override
+        public void setEnabled(boolean enabled) {
+            AnimatorMetrics.setEnabled(enabled);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package acomponent;
+
+/**
+ * The management interface that AnimatorMetrics registers with the platform
+ * MBean server, so that the Animator can be watched with any JMX client, such
+ * as JConsole.
+ *
+ * Every duration is reported in milliseconds.
+ *
+ * @author Caleb Rush
+ */
+public interface AnimatorMetricsMXBean {
+    /**
+     * Retrieves the number of animations that were running after the last
+     * frame.
+     *
+     * @return the number of running animations
+     */
+    int getActiveAnimations();
+    
+    /**
+     * Retrieves the number of frames waiting in the event queue to be
+     * applied.
+     *
+     * @return the number of waiting frames
+     */
+    int getBacklog();
+    
+    /**
+     * Retrieves the number of frames that have been computed.
+     *
+     * @return the number of frames
+     */
+    long getFrameCount();
+    
+    /**
+     * Retrieves the number of frames that were applied more than one frame
+     * after they were due.
+     *
+     * @return the number of late frames
+     */
+    long getLateFrameCount();
+    
+    /**
+     * Retrieves the longest time a frame took to compute.
+     *
+     * @return the longest frame time
+     */
+    double getMaxFrameMillis();
+    
+    /**
+     * Retrieves the longest time a frame waited in the event queue.
+     *
+     * @return the longest event queue latency
+     */
+    double getMaxQueueLatencyMillis();
+    
+    /**
+     * Retrieves the mean time each frame took to compute.
+     *
+     * @return the mean frame time
+     */
+    double getMeanFrameMillis();
+    
+    /**
+     * Retrieves the mean time each frame waited in the event queue.
+     *
+     * @return the mean event queue latency
+     */
+    double getMeanQueueLatencyMillis();
+    
+    /**
+     * Retrieves the 99th percentile of the time each frame took to compute.
+     *
+     * @return the 99th percentile frame time
+     */
+    double getP99FrameMillis();
+    
+    /**
+     * Retrieves the 99th percentile of the time each frame waited in the
+     * event queue.
+     *
+     * @return the 99th percentile event queue latency
+     */
+    double getP99QueueLatencyMillis();
+    
+    /**
+     * Retrieves the most animations that have been running at once.
+     *
+     * @return the peak number of running animations
+     */
+    long getPeakActiveAnimations();
+    
+    /**
+     * Retrieves the most frames that have been waiting in the event queue at
+     * once.
+     *
+     * @return the peak number of waiting frames
+     */
+    long getPeakBacklog();
+    
+    /**
+     * Retrieves a readable summary of every metric.
+     *
+     * @return the summary
+     */
+    String getSummary();
+    
+    /**
+     * Returns whether or not the metrics are being recorded.
+     *
+     * @return true if the metrics are being recorded
+     */
+    boolean isEnabled();
+    
+    /**
+     * Clears every metric.
+     */
+    void reset();
+    
+    /**
+     * Starts or stops recording the metrics.
+     *
+     * @param enabled whether or not to record the metrics
+     */
+    void setEnabled(boolean enabled);
+}
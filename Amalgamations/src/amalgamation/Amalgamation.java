@@ -1,5 +1,4 @@
 package amalgamation;
-import menus.components.AbilityReplaceDialog;
 import amalgamation.abilities.Ability;
 import amalgamation.parts.Body;
 
@@ -18,6 +17,8 @@ import java.util.Random;
  * @author Adam Meanor, Caleb Rush
  */
 public class Amalgamation implements Serializable {    
+    // Pinned so that previously saved Amalgamation files still load.
+    private static final long serialVersionUID = 7514142719742071282L;
     // The range in which the variance can be calculated.
     private static final double VARIANCE_RANGE = 0.3;
     // The highest level that can be reached (also used for calculations).
@@ -53,6 +54,11 @@ public class Amalgamation implements Serializable {
     private int             currentAttack;
     private int             currentDefense;
     private int             currentSpeed;
+    // The damage the Amalgamation takes at the end of each turn of a Battle,
+    // and the number of turns left to take it. These only last for a Battle,
+    // so they are not saved.
+    private transient int   lingeringDamage;
+    private transient int   lingeringTurns;
     
     /**
      * Constructs a new Amalgamation with the given name and Body.
@@ -63,10 +69,25 @@ public class Amalgamation implements Serializable {
      * @param body the Body of the Amlagamation
      */
     public Amalgamation(String name, Body body) {
+        this(name, body, new Random());
+    }
+    
+    /**
+     * Constructs a new Amalgamation with the given name and Body, using the
+     * given random number generator to determine its stat variances and
+     * Abilities.
+     * 
+     * Two Amalgamations constructed with generators seeded with the same
+     * value will be identical.
+     * 
+     * @param name the name of the Amalgamation.
+     * @param body the Body of the Amlagamation
+     * @param random the random number generator to use
+     */
+    public Amalgamation(String name, Body body, Random random) {
         this.name = name;
         this.body = body;
         
-        Random random   =   new Random();
         healthVariance  =   random.nextDouble() % VARIANCE_RANGE + 0.85;
         speedVariance   =   random.nextDouble() % VARIANCE_RANGE + 0.85;
         attackVariance  =   random.nextDouble() % VARIANCE_RANGE + 0.85;
@@ -75,7 +96,7 @@ public class Amalgamation implements Serializable {
         
         // Set level initially to start at Level 1.
         calculateStats();
-        setLevel(1);
+        setLevel(1, random);
     }
     
     /**
@@ -157,18 +178,27 @@ public class Amalgamation implements Serializable {
     /**
      * Increases the current Amalgamation's experience total
      * 
+     * The Amalgamation will grow as many levels as the experience allows. No
+     * dialogs are displayed; instead, everything that happened is returned as
+     * a list of ProgressionEvents for the caller to present.
+     * 
      * @param experience the amount of experience to add to the Amalgamation's total
      *            experience
+     * @return the level ups and Abilities learned, in the order they happened.
+     *         This will be empty if the Amalgamation did not level up
      */
-    public void gainExp(double experience) {
+    public ProgressionEvent[] gainExp(double experience) {
         if (experience < 0)
-            return;
+            return new ProgressionEvent[0];
         
         this.experience += experience;
+        ArrayList<ProgressionEvent> events = new ArrayList<>();
         
-        // Check if the Amalgamation can level up.
-        if (this.experience >= targetExperience)
-            levelUp();
+        // Level up until the experience is below the next target.
+        while (this.experience >= targetExperience && level < MAX_LEVEL)
+            levelUp(events);
+        
+        return events.toArray(new ProgressionEvent[0]);
     }
     
     /**
@@ -380,15 +410,20 @@ public class Amalgamation implements Serializable {
     
     /**
      * Increases the current Amalgamation's level
+     * 
+     * @return the level up and any Abilities learned at the new level
      */
-    public void levelUp() {
+    public ProgressionEvent[] levelUp() {
+        ArrayList<ProgressionEvent> events = new ArrayList<>();
+        levelUp(events);
+        return events.toArray(new ProgressionEvent[0]);
+    }
+    
+    // Increases the level and records what happened in the list of events.
+    private void levelUp(ArrayList<ProgressionEvent> events) {
         level++;
-        
-        acomponent.ADialog.createMessageDialog(
-                null, 
-                name + " grew to level " + level + "!", 
-                "Sweet!"
-        ).showDialog();
+        events.add(new ProgressionEvent(
+                ProgressionEvent.TYPE_LEVEL_UP, level, null));
         
         // Recalculate the stats since the level has changed.
         calculateStats();
@@ -397,12 +432,12 @@ public class Amalgamation implements Serializable {
         for (Ability a : newAbilities()) {
             // Try to add the Ability to the array.
             if (addAbility(a))
-                acomponent.ADialog.createMessageDialog(null, String.format(
-                        "%s learned the ability %s!", name, a.getName()),
-                        "Huzzah!").showDialog();
+                events.add(new ProgressionEvent(
+                        ProgressionEvent.TYPE_ABILITY_LEARNED, level, a));
             else
-                // Show a dialog to learn the ability.
-                AbilityReplaceDialog.showAbilityReplaceDialog(null, this, a);
+                // Leave it to the caller to decide what to replace.
+                events.add(new ProgressionEvent(
+                        ProgressionEvent.TYPE_ABILITY_AVAILABLE, level, a));
         }
     }
     
@@ -442,6 +477,8 @@ public class Amalgamation implements Serializable {
         currentAttack = attack;
         currentDefense = defense;
         currentSpeed = speed;
+        lingeringDamage = 0;
+        lingeringTurns = 0;
         // Reset Ability cooldowns.
         for (Ability a : abilities)
             if (a != null)
@@ -514,8 +551,20 @@ public class Amalgamation implements Serializable {
      * @param level the level that you want to set the Amalgamation to.
      */
     public void setLevel(int level) {
+        setLevel(level, new Random());
+    }
+    
+    /**
+     * Sets the level of an Amalgamation, calculates the new stats, 
+     * then from a list of valid abilities picks 4 random abilities to 
+     * give the Amalgamation using the given random number generator.
+     * 
+     * @param level the level that you want to set the Amalgamation to.
+     * @param randomGenerator the random number generator used to pick the
+     *                        abilities
+     */
+    public void setLevel(int level, Random randomGenerator) {
         int randomAbility;
-        Random randomGenerator = new Random();
         this.level = level;
         calculateStats();
         ArrayList<Ability> allAbilities = new ArrayList();
@@ -534,4 +583,31 @@ public class Amalgamation implements Serializable {
             }
         }
     }
+    
+    /**
+     * Leaves damage on the Amalgamation that it takes at the end of each turn
+     * of the Battle, replacing any damage already left on it.
+     * 
+     * @param damage the damage to take each turn
+     * @param turns the number of turns to take the damage for
+     */
+    public void setLingeringDamage(int damage, int turns) {
+        lingeringDamage = damage;
+        lingeringTurns = turns;
+    }
+    
+    /**
+     * Takes one turn's worth of the damage left on the Amalgamation by
+     * setLingeringDamage.
+     * 
+     * @return the damage taken, which is zero if no damage is left
+     */
+    public int takeLingeringDamage() {
+        if (lingeringTurns <= 0)
+            return 0;
+        
+        lingeringTurns--;
+        doDamage(lingeringDamage);
+        return lingeringDamage;
+    }
 }
\ No newline at end of file
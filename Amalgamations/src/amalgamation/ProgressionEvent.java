@@ -0,0 +1,76 @@
+package amalgamation;
+
+import amalgamation.abilities.Ability;
+
+/**
+ * A ProgressionEvent describes something that happened to an Amalgamation
+ * while it was gaining experience, such as growing a level or learning a new
+ * Ability.
+ *
+ * ProgressionEvents are produced by the Amalgamation itself without any user
+ * interaction. It is up to whoever requested the experience gain to decide
+ * how (or if) the events should be presented.
+ *
+ * @author Caleb Rush
+ */
+public class ProgressionEvent {
+    // Types of ProgressionEvents.
+    public static final int TYPE_LEVEL_UP           = 0;
+    public static final int TYPE_ABILITY_LEARNED    = 1;
+    public static final int TYPE_ABILITY_AVAILABLE  = 2;
+    
+    // The type of the event.
+    private final int       type;
+    // The level the Amalgamation was at when the event happened.
+    private final int       level;
+    // The Ability involved in the event (null for level ups).
+    private final Ability   ability;
+    
+    /**
+     * Constructs a new ProgressionEvent.
+     *
+     * @param type the type of the event. This should be one of the TYPE_XXXX
+     *             constants defined in this class
+     * @param level the level the Amalgamation was at when the event happened
+     * @param ability the Ability involved in the event. This should be null
+     *                for level up events
+     */
+    public ProgressionEvent(int type, int level, Ability ability) {
+        this.type = type;
+        this.level = level;
+        this.ability = ability;
+    }
+    
+    /**
+     * Retrieves the Ability involved in the event.
+     *
+     * For TYPE_ABILITY_LEARNED events this is the Ability that was added to
+     * the Amalgamation. For TYPE_ABILITY_AVAILABLE events this is the Ability
+     * that could not be added because the Amalgamation already knows four
+     * Abilities.
+     *
+     * @return the Ability involved in the event, or null for level up events
+     */
+    public Ability getAbility() {
+        return ability;
+    }
+    
+    /**
+     * Retrieves the level the Amalgamation was at when the event happened.
+     *
+     * @return the level the Amalgamation was at when the event happened
+     */
+    public int getLevel() {
+        return level;
+    }
+    
+    /**
+     * Retrieves the type of the event.
+     *
+     * @return the type of the event. This will be one of the TYPE_XXXX
+     *         constants defined in this class
+     */
+    public int getType() {
+        return type;
+    }
+}
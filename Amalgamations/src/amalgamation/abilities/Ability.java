@@ -5,9 +5,7 @@ import amalgamation.Amalgamation;
 
 import java.io.Serializable;
 
-import java.util.ArrayList;
 import java.util.Objects;
-import java.util.Random;
 
 /**
  * The Ability that an Amalgamation can use in combat
@@ -15,6 +13,9 @@ import java.util.Random;
  * @author Jordan LaRiccia, Caleb Rush
  */
 public class Ability implements Serializable {
+    // Pinned so that previously saved Ability files still load.
+    private static final long serialVersionUID = 6011044541790919250L;
+    
     private final String name;
     private final String description;
     private final int cooldown;
@@ -22,6 +23,17 @@ public class Ability implements Serializable {
     private final int accuracy;
     private final int level;
     private final StatModifier[] modifiers;
+    // The Effects done after the modifiers. This is null for Abilities saved
+    // before Effects existed.
+    private final Effect[] effects;
+    // The effects compiled when the Ability is loaded, and the result of each
+    // effect the last time it was used.
+    private transient AbilityProgram program;
+    private transient int[] results;
+    // Whether or not the Ability has been used, and whether or not it hit the
+    // last time it was used.
+    private transient boolean applied;
+    private transient boolean hit;
     
      /**
       * Constructs a new Ability object
@@ -35,11 +47,30 @@ public class Ability implements Serializable {
       */
     public Ability(String name, int cooldown, int accuracy, int level, 
             StatModifier[] modifiers, String description){
+        this(name, cooldown, accuracy, level, modifiers, new Effect[0], 
+                description);
+    }
+    
+    /**
+     * Constructs a new Ability object with Effects.
+     * 
+     * @param name the name of the ability
+     * @param cooldown the cooldown value of the ability
+     * @param accuracy the accuracy value of the ability
+     * @param level the level when this move is learned
+     * @param modifiers the list of stat modifiers for the ability
+     * @param effects the list of Effects done after the stat modifiers
+     * @param description a basic description of the Ability to be displayed
+     *                    to the user. This can use endline characters.
+     */
+    public Ability(String name, int cooldown, int accuracy, int level, 
+            StatModifier[] modifiers, Effect[] effects, String description){
         this.name = name;
         this.accuracy = accuracy;
         this.cooldown = cooldown;
         this.level = level;
         this.modifiers = modifiers;
+        this.effects = effects;
         this.description = description;
     }
     
@@ -55,6 +86,26 @@ public class Ability implements Serializable {
      */
     public String[] affect(Amalgamation player, Amalgamation opponent) throws
             IllegalStateException {
+        apply(player, opponent);
+        return getLastScript(player, opponent);
+    }
+    
+    /**
+     * Uses the Ability without creating its script.
+     * 
+     * This has the same effect as affect, but nothing is allocated, so it is
+     * meant for Battles whose script no one reads. The script can still be
+     * created afterwards with getLastScript.
+     * 
+     * @param player the current user/Amalgamation of the ability
+     * @param opponent the other Amalgamation that is opposing the current
+     *                 Amalgamation
+     * @return true if the Ability hit, false if it missed
+     * @throws IllegalStateException if the isUsable method returns false when
+     *         this method is called
+     */
+    public boolean apply(Amalgamation player, Amalgamation opponent) throws
+            IllegalStateException {
         if (!isUsable())
             throw new IllegalStateException(String.format(
                     "%s cannot be used! It must cool down for %d more turns!", 
@@ -63,23 +114,25 @@ public class Ability implements Serializable {
         // Set the currentCooldown.
         currentCooldown = cooldown;
         
-        ArrayList<String> script = new ArrayList();
-        script.add(player.getName() + " used " + name + " .");
+        // Abilities are compiled when they are loaded, so only one that was
+        // just constructed still needs compiling.
+        if (program == null)
+            compile();
         
-        // Determine if the Ability will hit or miss.
-        if (miss(player.getLuckVariance()))
-            script.add(String.format("%s missed!", player.getName()));
-        else {
-            // Perform the attack.
-            if (this instanceof Attack)
-                script.add(((Attack)this).attack(player, opponent));
+        // Determine if the Ability will hit or miss, and perform its effects
+        // if it hit.
+        applied = true;
+        hit = !miss(player.getLuckVariance());
+        if (hit)
+            program.run(player, opponent, results);
         
-            // Perform stat modifications.
-            for (StatModifier m : modifiers) 
-                script.add(m.statAdjuster(player, opponent));
-        }
-        
-        return script.toArray(new String[0]);
+        return hit;
+    }
+    
+    // Compiles the effects and makes room for their results.
+    private void compile() {
+        program = AbilityProgram.compile(this);
+        results = new int[program.size()];
     }
     
     @Override 
@@ -133,6 +186,16 @@ public class Ability implements Serializable {
         return description;
     }
     
+    /**
+     * Retrieves the array of Effects used by this Ability.
+     * 
+     * @return the array of Effects used by this Ability, which is null if the
+     *         Ability was saved before Effects existed
+     */
+    public Effect[] getEffects() {
+        return effects;
+    }
+    
     /**
      * Retrieves the array of Modifiers used by this Ability.
      * 
@@ -151,6 +214,40 @@ public class Ability implements Serializable {
         return level;
     }
     
+    /**
+     * Creates the script for the last time the Ability was used.
+     * 
+     * @param player the Amalgamation that used the Ability
+     * @param opponent the Amalgamation that opposed it
+     * @return the script for the last use, or an empty array if the Ability
+     *         has not been used. Effects that did not take effect are left
+     *         out
+     */
+    public String[] getLastScript(Amalgamation player, 
+            Amalgamation opponent) {
+        if (!applied)
+            return new String[0];
+        
+        String used = player.getName() + " used " + name + " .";
+        if (!hit)
+            return new String[] { used, 
+                    String.format("%s missed!", player.getName()) };
+        
+        // Leave out the Effects that did not take effect.
+        int lines = 1;
+        for (int i = 0; i < program.size(); i++)
+            if (results[i] != AbilityProgram.SKIPPED)
+                lines++;
+        
+        String[] script = new String[lines];
+        script[0] = used;
+        for (int i = 0, line = 1; i < program.size(); i++)
+            if (results[i] != AbilityProgram.SKIPPED)
+                script[line++] = program.describe(i, player, opponent, 
+                        results[i]);
+        return script;
+    }
+    
     /**
      * Gets the name of the ability 
      * @return name
@@ -182,7 +279,32 @@ public class Ability implements Serializable {
     
     // Generates a random value to see if the Ability missed or hit.
     private boolean miss(double luckVariance) {
-        return new Random().nextInt(100) + 1 > accuracy * luckVariance;
+        return java.util.concurrent.ThreadLocalRandom.current().nextInt(100)
+                + 1 > accuracy * luckVariance;
+    }
+    
+    /**
+     * Compiles the Ability's effects as soon as it has been loaded, including
+     * the fields of any subclass, so that using it never has to. An Ability
+     * whose Effects name a type that is not registered fails to load instead
+     * of failing in a Battle.
+     * 
+     * @return this Ability
+     * @throws java.io.InvalidObjectException if the Ability's effects cannot
+     *         be compiled
+     */
+    protected Object readResolve() throws java.io.ObjectStreamException {
+        try {
+            compile();
+        } catch (IllegalArgumentException e) {
+            java.io.InvalidObjectException invalid 
+                    = new java.io.InvalidObjectException(
+                            name + ": " + e.getMessage());
+            invalid.initCause(e);
+            throw invalid;
+        }
+        
+        return this;
     }
     
     /**
@@ -0,0 +1,365 @@
+package amalgamation.abilities;
+
+import amalgamation.Amalgamation;
+
+/**
+ * An AbilityProgram is an Ability's effects compiled into a flat array of
+ * instructions, which is run each time the Ability hits.
+ *
+ * Each instruction is a fixed number of ints: which Amalgamation it affects,
+ * which stat it affects, the amount to add or the damage to do, the number of
+ * hits or turns, and the chance and health threshold that decide whether it
+ * takes effect, along with a multiplier and the EffectType that carries it
+ * out kept alongside them. An Attack's damage comes first, followed by each
+ * of the Ability's StatModifiers and then its Effects, in order.
+ *
+ * The EffectType of each instruction is looked up when the program is
+ * compiled, so running it is only a call to each type in turn, however many
+ * types are registered.
+ *
+ * Running a program only changes the Amalgamations' current stats and fills
+ * in the result of each instruction, without allocating anything. The text of
+ * the script is only made from the results when it is asked for, so Battles
+ * that no one reads cost nothing but the arithmetic.
+ *
+ * Programs are immutable, so a program can be shared by any number of
+ * Abilities and threads.
+ *
+ * @author Caleb Rush
+ */
+public final class AbilityProgram {
+    // The result of an instruction that did not take effect.
+    public static final int SKIPPED         = Integer.MIN_VALUE;
+
+    // The Amalgamations an instruction can affect. The values are also used
+    // in the health change markers of the script.
+    public static final int TARGET_USER     = 0;
+    public static final int TARGET_OPPONENT = 1;
+
+    // The stats an instruction can affect.
+    public static final int STAT_HEALTH     = 0;
+    public static final int STAT_ATTACK     = 1;
+    public static final int STAT_DEFENSE    = 2;
+    public static final int STAT_SPEED      = 3;
+
+    // The place of each field in an instruction, and the number of fields.
+    private static final int FIELD_TARGET    = 0;
+    private static final int FIELD_STAT      = 1;
+    private static final int FIELD_AMOUNT    = 2;
+    private static final int FIELD_COUNT     = 3;
+    private static final int FIELD_CHANCE    = 4;
+    private static final int FIELD_THRESHOLD = 5;
+    private static final int WIDTH           = 6;
+    // The chance and threshold of an instruction that always takes effect.
+    private static final int ALWAYS          = 100;
+
+    // The instructions.
+    private final int[]         code;
+    // The type that carries out each instruction.
+    private final EffectType[]  types;
+    // The multiplier of each instruction.
+    private final double[]      multipliers;
+    // The text of each instruction, before the names are filled in.
+    private final String[]      texts;
+
+    // Creates a program with room for the given number of instructions.
+    private AbilityProgram(int size) {
+        code = new int[size * WIDTH];
+        types = new EffectType[size];
+        multipliers = new double[size];
+        texts = new String[size];
+    }
+
+    /**
+     * Compiles the effects of the given Ability.
+     *
+     * @param ability the Ability to compile
+     * @return the compiled program
+     * @throws IllegalArgumentException if one of the Ability's StatModifiers
+     *                                  has an invalid ID, or one of its
+     *                                  Effects names an unregistered type or
+     *                                  has a target, stat, count, chance or
+     *                                  threshold out of range
+     */
+    public static AbilityProgram compile(Ability ability) {
+        StatModifier[] modifiers = ability.getModifiers() == null
+                ? new StatModifier[0] : ability.getModifiers();
+        // Abilities saved before Effects existed have none.
+        Effect[] effects = ability.getEffects() == null
+                ? new Effect[0] : ability.getEffects();
+        boolean attack = ability instanceof Attack;
+        AbilityProgram program = new AbilityProgram(
+                modifiers.length + effects.length + (attack? 1 : 0));
+
+        int i = 0;
+        // The Attack's damage is done before anything else.
+        if (attack)
+            program.emit(i++, EffectTypes.damage, TARGET_OPPONENT,
+                    STAT_HEALTH, ((Attack)ability).getDamage(), 1, 1, ALWAYS,
+                    ALWAYS, null);
+        for (StatModifier m : modifiers)
+            program.emit(i++, EffectTypes.modify, m.getTarget(), m.getStat(),
+                    m.getAdder(), m.getMultiplier(), 1, ALWAYS, ALWAYS,
+                    m.getScript());
+        for (Effect e : effects) {
+            check(e);
+            program.emit(i++, EffectTypes.get(e.getType()), e.getTarget(),
+                    e.getStat(), e.getAmount(), e.getMultiplier(),
+                    e.getCount(), e.getChance(), e.getThreshold(),
+                    e.getScript());
+        }
+
+        return program;
+    }
+
+    // Makes sure that every parameter of an Effect is in range, so that a
+    // bad Effect fails when its Ability is compiled instead of in a Battle.
+    private static void check(Effect effect) {
+        String problem = null;
+        if (effect.getTarget() != TARGET_USER
+                && effect.getTarget() != TARGET_OPPONENT)
+            problem = "target " + effect.getTarget();
+        else if (effect.getStat() < STAT_HEALTH
+                || effect.getStat() > STAT_SPEED)
+            problem = "stat " + effect.getStat();
+        else if (effect.getCount() < 1)
+            problem = "count " + effect.getCount();
+        else if (effect.getChance() < 0 || effect.getChance() > ALWAYS)
+            problem = "chance " + effect.getChance();
+        else if (effect.getThreshold() < 0 || effect.getThreshold() > ALWAYS)
+            problem = "threshold " + effect.getThreshold();
+
+        if (problem != null)
+            throw new IllegalArgumentException("Invalid " + problem
+                    + " in " + effect.getType() + " Effect");
+    }
+
+    /**
+     * Creates the script for one of the instructions from its result.
+     *
+     * @param index the index of the instruction
+     * @param user the Amalgamation that used the Ability
+     * @param opponent the Amalgamation opposing the user
+     * @param result the result of the instruction when it was run
+     * @return the script for the instruction, or null if it did not take
+     *         effect
+     */
+    public String describe(int index, Amalgamation user,
+            Amalgamation opponent, int result) {
+        if (result == SKIPPED)
+            return null;
+
+        return types[index].describe(this, index, user, opponent, result);
+    }
+
+    /**
+     * Creates the script for damage done to an Amalgamation.
+     *
+     * @param target the Amalgamation damaged, one of the TARGET_XXXX
+     *               constants
+     * @param damage the damage done
+     * @param user the Amalgamation that used the Ability
+     * @param opponent the Amalgamation opposing the user
+     * @return the script for the damage
+     */
+    public static String describeDamage(int target, int damage,
+            Amalgamation user, Amalgamation opponent) {
+        return String.format("%s took %d damage!",
+                (target == TARGET_USER? user : opponent).getName(), damage)
+                + healthChange(target, -damage);
+    }
+
+    /**
+     * Creates the script for a modified stat.
+     *
+     * @param text the text of the StatModifier, where USER and TARGET stand
+     *             for the names of the user and opponent
+     * @param target the Amalgamation modified, one of the TARGET_XXXX
+     *               constants
+     * @param stat the stat modified, one of the STAT_XXXX constants
+     * @param change how much the stat changed
+     * @param user the Amalgamation that used the Ability
+     * @param opponent the Amalgamation opposing the user
+     * @return the script for the modifier
+     */
+    public static String describeModifier(String text, int target, int stat,
+            int change, Amalgamation user, Amalgamation opponent) {
+        // Changes to health are marked so that they can be shown.
+        if (stat == STAT_HEALTH)
+            text += healthChange(target, change);
+
+        return text.replace("USER", user.getName())
+                .replace("TARGET", opponent.getName());
+    }
+
+    // Stores an instruction at the given index.
+    private void emit(int index, EffectType type, int target, int stat,
+            int amount, double multiplier, int count, int chance,
+            int threshold, String text) {
+        int pc = index * WIDTH;
+        code[pc + FIELD_TARGET] = target;
+        code[pc + FIELD_STAT] = stat;
+        code[pc + FIELD_AMOUNT] = amount;
+        code[pc + FIELD_COUNT] = count;
+        code[pc + FIELD_CHANCE] = chance;
+        code[pc + FIELD_THRESHOLD] = threshold;
+        types[index] = type;
+        multipliers[index] = multiplier;
+        texts[index] = text;
+    }
+
+    /**
+     * Retrieves the amount to add, or the damage to do, of an instruction.
+     *
+     * @param index the index of the instruction
+     * @return the amount
+     */
+    public int getAmount(int index) {
+        return code[index * WIDTH + FIELD_AMOUNT];
+    }
+
+    /**
+     * Retrieves the number of hits or turns of an instruction.
+     *
+     * @param index the index of the instruction
+     * @return the count
+     */
+    public int getCount(int index) {
+        return code[index * WIDTH + FIELD_COUNT];
+    }
+
+    /**
+     * Retrieves the multiplier of an instruction.
+     *
+     * @param index the index of the instruction
+     * @return the multiplier
+     */
+    public double getMultiplier(int index) {
+        return multipliers[index];
+    }
+
+    /**
+     * Retrieves the stat an instruction affects.
+     *
+     * @param index the index of the instruction
+     * @return one of the STAT_XXXX constants
+     */
+    public int getStat(int index) {
+        return code[index * WIDTH + FIELD_STAT];
+    }
+
+    /**
+     * Retrieves the Amalgamation an instruction affects.
+     *
+     * @param index the index of the instruction
+     * @return one of the TARGET_XXXX constants
+     */
+    public int getTarget(int index) {
+        return code[index * WIDTH + FIELD_TARGET];
+    }
+
+    /**
+     * Retrieves the text of an instruction, before the names are filled in.
+     *
+     * @param index the index of the instruction
+     * @return the text, which may be null or empty
+     */
+    public String getText(int index) {
+        return texts[index];
+    }
+
+    // Creates the marker for a change in health in the script.
+    private static String healthChange(int target, int change) {
+        return String.format("%c%d%c%d%c", StatModifier.HEALTH_CHANGE_DELIM,
+                target, StatModifier.HEALTH_CHANGE_DELIM, change,
+                StatModifier.HEALTH_CHANGE_DELIM);
+    }
+
+    /**
+     * Adds to and then multiplies one of an Amalgamation's current stats.
+     *
+     * @param amalgamation the Amalgamation to modify
+     * @param stat the stat to modify, one of the STAT_XXXX constants
+     * @param adder the amount to add to the stat
+     * @param multiplier the amount to multiply the stat by
+     * @return how much the stat was meant to change, before it was kept
+     *         within its limits
+     */
+    static int modify(Amalgamation amalgamation, int stat, int adder,
+            double multiplier) {
+        int current, value;
+        switch (stat) {
+            case STAT_HEALTH:
+                current = amalgamation.getCurrentHealth();
+                value = (int)((current + adder) * multiplier);
+                amalgamation.setCurrentHealth(value);
+                break;
+
+            case STAT_ATTACK:
+                current = amalgamation.getCurrentAttack();
+                value = (int)((current + adder) * multiplier);
+                amalgamation.setCurrentAttack(value);
+                break;
+
+            case STAT_DEFENSE:
+                current = amalgamation.getCurrentDefense();
+                value = (int)((current + adder) * multiplier);
+                amalgamation.setCurrentDefense(value);
+                break;
+
+            case STAT_SPEED:
+                current = amalgamation.getCurrentSpeed();
+                value = (int)((current + adder) * multiplier);
+                amalgamation.setCurrentSpeed(value);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Invalid stat: " + stat);
+        }
+
+        return value - current;
+    }
+
+    /**
+     * Runs every instruction on the given Amalgamations.
+     *
+     * @param user the Amalgamation using the Ability
+     * @param opponent the Amalgamation opposing the user
+     * @param results the array to store the result of each instruction in:
+     *                whatever its type returned, such as the damage done or
+     *                how much the stat changed, or SKIPPED if it did not take
+     *                effect. It must be at least as long as the program
+     */
+    public void run(Amalgamation user, Amalgamation opponent, int[] results) {
+        for (int i = 0, pc = 0; i < types.length; i++, pc += WIDTH) {
+            Amalgamation target = code[pc + FIELD_TARGET] == TARGET_USER
+                    ? user : opponent;
+            results[i] = takesEffect(pc, user, target)
+                    ? types[i].run(this, i, user, target) : SKIPPED;
+        }
+    }
+
+    /**
+     * Retrieves the number of instructions in the program.
+     *
+     * @return the number of instructions
+     */
+    public int size() {
+        return types.length;
+    }
+
+    // Decides whether or not the instruction at the given place takes
+    // effect, from its chance scaled by the user's luck and the target's
+    // health. Nothing is rolled for instructions that always take effect.
+    private boolean takesEffect(int pc, Amalgamation user,
+            Amalgamation target) {
+        int chance = code[pc + FIELD_CHANCE];
+        if (chance < ALWAYS && java.util.concurrent.ThreadLocalRandom
+                .current().nextInt(100) + 1 > chance * user.getLuckVariance())
+            return false;
+
+        int threshold = code[pc + FIELD_THRESHOLD];
+        return threshold >= ALWAYS || target.getCurrentHealth() * 100
+                <= threshold * target.getHealth();
+    }
+}
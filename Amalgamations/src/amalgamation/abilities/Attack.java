@@ -2,13 +2,14 @@ package amalgamation.abilities;
 
 import amalgamation.Amalgamation;
 
-import java.util.Random;
-
 /**
  * A damage dealing Ability 
  * @author Jordan LaRiccia
  */
 public class Attack extends Ability {
+    // Pinned so that previously saved Ability files still load.
+    private static final long serialVersionUID = -6610890691716411259L;
+    
     private final int damage;
     private static final double VARIANCE_RANGE = 0.3;
 
@@ -25,25 +26,46 @@ public class Attack extends Ability {
      */
     public Attack(String name, int cooldown, int accuracy, int level, 
             int damage, StatModifier[] modifiers, String description) {
-        super(name, cooldown, accuracy, level, modifiers, description);
+        this(name, cooldown, accuracy, level, damage, modifiers, 
+                new Effect[0], description);
+    }
+    
+    /**
+     * Constructs a new Attack object with Effects.
+     * 
+     * @param name the name of the Attack
+     * @param cooldown the cooldown value for the Attack
+     * @param accuracy the accuracy value for the Attack
+     * @param level the level when this move is learned
+     * @param damage the damage that the Attack does to the opponent
+     * @param modifiers the list of stat modifiers for the ability
+     * @param effects the list of Effects done after the stat modifiers
+     * @param description a basic description of the Ability to be displayed
+     *                    to the user. This can use endline characters.
+     */
+    public Attack(String name, int cooldown, int accuracy, int level, 
+            int damage, StatModifier[] modifiers, Effect[] effects, 
+            String description) {
+        super(name, cooldown, accuracy, level, modifiers, effects, 
+                description);
         this.damage = damage;
     }
     
     public String attack(Amalgamation player, Amalgamation opponent) {        
         // Do damage to the opponent.
-        int damage = calculateDamage(player, opponent);
+        int damage = calculateDamage(this.damage, player, opponent);
         opponent.doDamage(damage);
-        return String.format("%s took %d damage!%c1%c%d%c", 
-                opponent.getName(), damage, StatModifier.HEALTH_CHANGE_DELIM,
-                StatModifier.HEALTH_CHANGE_DELIM, -damage, 
-                StatModifier.HEALTH_CHANGE_DELIM);
+        return AbilityProgram.describeDamage(AbilityProgram.TARGET_OPPONENT,
+                damage, player, opponent);
     }
     
-    // Calculates the damage done to the opponent.
-    private int calculateDamage(Amalgamation user, Amalgamation target) {
+    // Calculates the damage done to the target by an Attack with the given
+    // base damage.
+    static int calculateDamage(int damage, Amalgamation user, 
+            Amalgamation target) {
         // Calculate damage variance.
-        Random random = new Random();
-        double damageVariance = random.nextDouble() % VARIANCE_RANGE + 0.85;
+        double damageVariance = java.util.concurrent.ThreadLocalRandom
+                .current().nextDouble() % VARIANCE_RANGE + 0.85;
         
         int dmg = (int)(damageVariance * damage * 
                 user.getCurrentAttack() / target.getCurrentDefense());
@@ -0,0 +1,159 @@
+package amalgamation.abilities;
+
+import java.io.Serializable;
+
+/**
+ * An Effect is one thing an Ability does when it hits, described entirely by
+ * data so that it can be saved in the Ability's file and authored in the
+ * AbilityEditor.
+ *
+ * What the Effect does is decided by its type, which is the name of an
+ * EffectType registered with EffectTypes. The rest of the fields are the
+ * type's parameters, and each type uses only the ones it needs. Any Effect
+ * can also be made to depend on luck, with a chance of taking effect, or on
+ * the state of the Battle, with a health threshold its target must be at or
+ * below.
+ *
+ * @author Caleb Rush
+ */
+public class Effect implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    // The name of the EffectType that carries out the Effect.
+    private final String    type;
+    // The Amalgamation affected, one of the AbilityProgram.TARGET_XXXX
+    // constants.
+    private final int       target;
+    // The stat affected, one of the AbilityProgram.STAT_XXXX constants.
+    private final int       stat;
+    // The amount to add, or the base damage to do.
+    private final int       amount;
+    // The amount to multiply by.
+    private final double    multiplier;
+    // The number of hits or turns.
+    private final int       count;
+    // The percent chance of taking effect, before the user's luck.
+    private final int       chance;
+    // The percent of its health the target must be at or below, or 100 to
+    // always take effect.
+    private final int       threshold;
+    // The text displayed when the Effect takes effect.
+    private final String    script;
+    
+    /**
+     * Creates a new Effect.
+     *
+     * @param type the name of the EffectType that carries out the Effect
+     * @param target the Amalgamation affected, one of the
+     *               AbilityProgram.TARGET_XXXX constants
+     * @param stat the stat affected, one of the AbilityProgram.STAT_XXXX
+     *             constants
+     * @param amount the amount to add, or the base damage to do
+     * @param multiplier the amount to multiply by
+     * @param count the number of hits or turns
+     * @param chance the percent chance of taking effect, which is scaled by
+     *               the user's luck
+     * @param threshold the percent of its health the target must be at or
+     *                  below for the Effect to take effect. 100 means that the
+     *                  Effect always takes effect
+     * @param script the text displayed when the Effect takes effect, where
+     *               USER and TARGET stand for the names of the user and
+     *               opponent. This can be empty to use the type's own text
+     */
+    public Effect(String type, int target, int stat, int amount,
+            double multiplier, int count, int chance, int threshold,
+            String script) {
+        this.type = type;
+        this.target = target;
+        this.stat = stat;
+        this.amount = amount;
+        this.multiplier = multiplier;
+        this.count = count;
+        this.chance = chance;
+        this.threshold = threshold;
+        this.script = script;
+    }
+    
+    /**
+     * Retrieves the amount to add, or the base damage to do.
+     *
+     * @return the amount
+     */
+    public int getAmount() {
+        return amount;
+    }
+    
+    /**
+     * Retrieves the percent chance of the Effect taking effect, before the
+     * user's luck.
+     *
+     * @return the chance, out of 100
+     */
+    public int getChance() {
+        return chance;
+    }
+    
+    /**
+     * Retrieves the number of hits or turns.
+     *
+     * @return the count
+     */
+    public int getCount() {
+        return count;
+    }
+    
+    /**
+     * Retrieves the amount to multiply by.
+     *
+     * @return the multiplier
+     */
+    public double getMultiplier() {
+        return multiplier;
+    }
+    
+    /**
+     * Retrieves the text displayed when the Effect takes effect.
+     *
+     * @return the script, which may be empty
+     */
+    public String getScript() {
+        return script;
+    }
+    
+    /**
+     * Retrieves the stat affected.
+     *
+     * @return one of the AbilityProgram.STAT_XXXX constants
+     */
+    public int getStat() {
+        return stat;
+    }
+    
+    /**
+     * Retrieves the Amalgamation affected.
+     *
+     * @return one of the AbilityProgram.TARGET_XXXX constants
+     */
+    public int getTarget() {
+        return target;
+    }
+    
+    /**
+     * Retrieves the percent of its health the target must be at or below for
+     * the Effect to take effect.
+     *
+     * @return the threshold, out of 100
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+    
+    /**
+     * Retrieves the name of the EffectType that carries out the Effect.
+     *
+     * @return the name of the type
+     */
+    public String getType() {
+        return type;
+    }
+}
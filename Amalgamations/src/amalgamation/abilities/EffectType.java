@@ -0,0 +1,57 @@
+package amalgamation.abilities;
+
+import amalgamation.Amalgamation;
+
+/**
+ * An EffectType carries out one kind of Effect, such as damage or a stat
+ * modification. Types are registered with EffectTypes under their names, and
+ * an Ability's Effects name the type that carries each of them out.
+ *
+ * The type of each Effect is looked up once, when its Ability is compiled
+ * into an AbilityProgram as it is loaded. Running the program then calls the type directly
+ * with the Effect's parameters, which it reads from the program, so adding a
+ * type costs nothing when Abilities are used.
+ *
+ * run is called every time an Ability hits, including in simulated Battles,
+ * so it should not allocate anything. describe is only called when someone
+ * reads the script.
+ *
+ * @author Caleb Rush
+ */
+public interface EffectType {
+    /**
+     * Creates the script for one of a program's instructions from its result.
+     *
+     * @param program the program holding the instruction
+     * @param index the index of the instruction
+     * @param user the Amalgamation that used the Ability
+     * @param opponent the Amalgamation opposing the user
+     * @param result the result returned by run
+     * @return the script for the instruction. Changes to health should be
+     *         marked as AbilityProgram.describeDamage and describeModifier
+     *         mark them
+     */
+    String describe(AbilityProgram program, int index, Amalgamation user,
+            Amalgamation opponent, int result);
+    
+    /**
+     * Retrieves the name the type is registered and saved under.
+     *
+     * @return the name of the type
+     */
+    String getName();
+    
+    /**
+     * Carries out one of a program's instructions.
+     *
+     * @param program the program holding the instruction
+     * @param index the index of the instruction
+     * @param user the Amalgamation that used the Ability
+     * @param target the Amalgamation the instruction affects, which is either
+     *               the user or its opponent
+     * @return the result of the instruction, which is handed back to
+     *         describe. It must not be AbilityProgram.SKIPPED
+     */
+    int run(AbilityProgram program, int index, Amalgamation user,
+            Amalgamation target);
+}
@@ -0,0 +1,235 @@
+package amalgamation.abilities;
+
+import amalgamation.Amalgamation;
+
+/**
+ * EffectTypes is the registry of every EffectType that an Ability's Effects
+ * can name, along with the types that are built into the game.
+ *
+ * New types must be added with register before any Ability that uses them is
+ * loaded, since a deserialized Ability is compiled, and looks up its types,
+ * as it is read. Every method in this class is a class function.
+ *
+ * @author Caleb Rush
+ */
+public class EffectTypes {
+    // The names of the built-in types.
+    public static final String  DAMAGE              = "Damage";
+    public static final String  DAMAGE_OVER_TIME    = "Damage Over Time";
+    public static final String  MODIFY              = "Modify Stat";
+    public static final String  MULTI_HIT           = "Multi-Hit";
+    
+    // The names of the stats, in the order of the AbilityProgram.STAT_XXXX
+    // constants.
+    private static final String[] STAT_NAMES
+            = { "Health", "Attack", "Defense", "Speed" };
+    
+    // Every registered type, by name, in the order they were registered.
+    private static final java.util.Map<String, EffectType> types
+            = new java.util.LinkedHashMap<>();
+    
+    // The built-in types that Attacks and StatModifiers are compiled to.
+    static final EffectType damage = new DamageType();
+    static final EffectType modify = new ModifyType();
+    
+    static {
+        register(damage);
+        register(new DamageOverTimeType());
+        register(modify);
+        register(new MultiHitType());
+    }
+    
+    /**
+     * Retrieves the type registered under the given name.
+     *
+     * @param name the name of the type
+     * @return the registered type
+     * @throws IllegalArgumentException if no type is registered under the
+     *                                  name
+     */
+    public static synchronized EffectType get(String name)
+            throws IllegalArgumentException {
+        EffectType type = types.get(name);
+        if (type == null)
+            throw new IllegalArgumentException("Unknown effect type: " + name);
+        
+        return type;
+    }
+    
+    /**
+     * Retrieves the names of every registered type, in the order they were
+     * registered.
+     *
+     * @return the names of the registered types
+     */
+    public static synchronized String[] getNames() {
+        return types.keySet().toArray(new String[types.size()]);
+    }
+    
+    /**
+     * Retrieves the name of one of the stats.
+     *
+     * @param stat one of the AbilityProgram.STAT_XXXX constants
+     * @return the name of the stat
+     */
+    public static String getStatName(int stat) {
+        return STAT_NAMES[stat];
+    }
+    
+    /**
+     * Registers a type under its name, replacing any type already registered
+     * under that name. Abilities that have already been loaded keep the type
+     * they were compiled with, and loading an Ability that names a type that
+     * has not been registered yet fails.
+     *
+     * @param type the type to register
+     */
+    public static synchronized void register(EffectType type) {
+        types.put(type.getName(), type);
+    }
+    
+    // Fills in the names in an Effect's text, or returns null if it has none.
+    private static String fill(String text, Amalgamation user,
+            Amalgamation opponent) {
+        if (text == null || text.isEmpty())
+            return null;
+        
+        return text.replace("USER", user.getName())
+                .replace("TARGET", opponent.getName());
+    }
+    
+    // Retrieves the Amalgamation an instruction affects.
+    private static Amalgamation target(AbilityProgram program, int index,
+            Amalgamation user, Amalgamation opponent) {
+        return program.getTarget(index) == AbilityProgram.TARGET_USER
+                ? user : opponent;
+    }
+    
+    // Damages the target once.
+    private static class DamageType implements EffectType {
+        @Override
+        public String describe(AbilityProgram program, int index,
+                Amalgamation user, Amalgamation opponent, int result) {
+            String text = program.getText(index);
+            if (text == null || text.isEmpty())
+                return AbilityProgram.describeDamage(program.getTarget(index),
+                        result, user, opponent);
+            
+            return AbilityProgram.describeModifier(text,
+                    program.getTarget(index), AbilityProgram.STAT_HEALTH,
+                    -result, user, opponent);
+        }
+        
+        @Override
+        public String getName() {
+            return DAMAGE;
+        }
+        
+        @Override
+        public int run(AbilityProgram program, int index, Amalgamation user,
+                Amalgamation target) {
+            int damage = Attack.calculateDamage(program.getAmount(index),
+                    user, target);
+            target.doDamage(damage);
+            return damage;
+        }
+    }
+    
+    // Leaves damage on the target that it takes at the end of each turn.
+    private static class DamageOverTimeType implements EffectType {
+        @Override
+        public String describe(AbilityProgram program, int index,
+                Amalgamation user, Amalgamation opponent, int result) {
+            String text = fill(program.getText(index), user, opponent);
+            if (text != null)
+                return text;
+            
+            return String.format("%s will take %d damage for %d turns!",
+                    target(program, index, user, opponent).getName(), result,
+                    program.getCount(index));
+        }
+        
+        @Override
+        public String getName() {
+            return DAMAGE_OVER_TIME;
+        }
+        
+        @Override
+        public int run(AbilityProgram program, int index, Amalgamation user,
+                Amalgamation target) {
+            // The damage is calculated now, so it does not change with the
+            // stats later on.
+            int damage = Attack.calculateDamage(program.getAmount(index),
+                    user, target);
+            target.setLingeringDamage(damage, program.getCount(index));
+            return damage;
+        }
+    }
+    
+    // Adds to and then multiplies one of the target's current stats.
+    private static class ModifyType implements EffectType {
+        @Override
+        public String describe(AbilityProgram program, int index,
+                Amalgamation user, Amalgamation opponent, int result) {
+            int stat = program.getStat(index);
+            String text = program.getText(index);
+            if (text == null || text.isEmpty())
+                text = String.format("%s's %s changed by %d!",
+                        program.getTarget(index) == AbilityProgram.TARGET_USER
+                                ? "USER" : "TARGET",
+                        getStatName(stat), result);
+            
+            return AbilityProgram.describeModifier(text,
+                    program.getTarget(index), stat, result, user, opponent);
+        }
+        
+        @Override
+        public String getName() {
+            return MODIFY;
+        }
+        
+        @Override
+        public int run(AbilityProgram program, int index, Amalgamation user,
+                Amalgamation target) {
+            return AbilityProgram.modify(target, program.getStat(index),
+                    program.getAmount(index), program.getMultiplier(index));
+        }
+    }
+    
+    // Damages the target a number of times in a row.
+    private static class MultiHitType implements EffectType {
+        @Override
+        public String describe(AbilityProgram program, int index,
+                Amalgamation user, Amalgamation opponent, int result) {
+            String text = program.getText(index);
+            if (text == null || text.isEmpty())
+                text = String.format("%s was hit %d times for %d damage!",
+                        program.getTarget(index) == AbilityProgram.TARGET_USER
+                                ? "USER" : "TARGET",
+                        program.getCount(index), result);
+            
+            return AbilityProgram.describeModifier(text,
+                    program.getTarget(index), AbilityProgram.STAT_HEALTH,
+                    -result, user, opponent);
+        }
+        
+        @Override
+        public String getName() {
+            return MULTI_HIT;
+        }
+        
+        @Override
+        public int run(AbilityProgram program, int index, Amalgamation user,
+                Amalgamation target) {
+            // Each hit's damage varies on its own.
+            int total = 0;
+            for (int hit = 0; hit < program.getCount(index); hit++) {
+                int damage = Attack.calculateDamage(program.getAmount(index),
+                        user, target);
+                target.doDamage(damage);
+                total += damage;
+            }
+            return total;
+        }
+    }
+}
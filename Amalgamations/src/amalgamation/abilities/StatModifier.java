@@ -9,6 +9,9 @@ import java.io.Serializable;
  * @author Jordan LaRiccia, Adam Meanor
  */
 public class StatModifier implements Serializable {
+    // Pinned so that previously saved Ability files still load.
+    private static final long serialVersionUID = -7122794902911954294L;
+    
     public static final int     MODIFIER_USER_HEALTH       = 0;
     public static final int     MODIFIER_USER_ATTACK       = 1;
     public static final int     MODIFIER_USER_DEFENSE      = 2;
@@ -76,6 +79,45 @@ public class StatModifier implements Serializable {
         }
     }
     
+    /**
+     * Returns the stat that is modified.
+     * 
+     * @return one of the AbilityProgram.STAT_XXXX constants
+     * @throws IllegalArgumentException if the ability_id is invalid
+     */
+    public int getStat() {
+        switch (ability_id) {
+            case MODIFIER_USER_HEALTH:
+                return AbilityProgram.STAT_HEALTH;
+            case MODIFIER_USER_ATTACK:
+            case MODIFIER_OPPONENT_ATTACK:
+                return AbilityProgram.STAT_ATTACK;
+            case MODIFIER_USER_DEFENSE:
+            case MODIFIER_OPPONENT_DEFENSE:
+                return AbilityProgram.STAT_DEFENSE;
+            case MODIFIER_USER_SPEED:
+            case MODIFIER_OPPONENT_SPEED:
+                return AbilityProgram.STAT_SPEED;
+            default:
+                throw new IllegalArgumentException(
+                        "Invalid Ability ID: " + ability_id);
+        }
+    }
+    
+    /**
+     * Returns the Amalgamation whose stat is modified.
+     * 
+     * @return one of the AbilityProgram.TARGET_XXXX constants
+     * @throws IllegalArgumentException if the ability_id is invalid
+     */
+    public int getTarget() {
+        // Ensure the ID is valid.
+        getStat();
+        
+        return ability_id >= MODIFIER_OPPONENT_ATTACK 
+                ? AbilityProgram.TARGET_OPPONENT : AbilityProgram.TARGET_USER;
+    }
+    
     /**
      * Returns the amount to multiply the modified stat by.
      * 
@@ -108,65 +150,11 @@ public class StatModifier implements Serializable {
      * @return the script of the flavor text
      */
     public String statAdjuster(Amalgamation player, Amalgamation opponent) {
-        int calculatedModifier;
-        String string = script.substring(0);
-        
-        switch(ability_id)
-        {
-            case MODIFIER_USER_HEALTH:
-                calculatedModifier = (int)((player.getCurrentHealth() 
-                        + adder) * multiplier);
-                // Add a health change indicator for the user in the script.
-                string += String.format("%c0%c%d%c", HEALTH_CHANGE_DELIM, 
-                        HEALTH_CHANGE_DELIM, 
-                        (calculatedModifier - player.getCurrentHealth()), 
-                        HEALTH_CHANGE_DELIM);
-                player.setCurrentHealth(calculatedModifier);
-                break;
-            
-            case MODIFIER_USER_ATTACK:
-                calculatedModifier = (int)((player.getCurrentAttack() 
-                        + adder) * multiplier);
-                player.setCurrentAttack(calculatedModifier);
-                break;
-                
-            case MODIFIER_USER_DEFENSE:
-                calculatedModifier = (int)((player.getCurrentDefense() 
-                        + adder) * multiplier);
-                player.setCurrentDefense(calculatedModifier);
-                break;
-                
-            case MODIFIER_USER_SPEED:
-                calculatedModifier = (int)((player.getCurrentSpeed() 
-                        + adder) * multiplier);
-                player.setCurrentSpeed(calculatedModifier);
-                break;
-                
-            case MODIFIER_OPPONENT_ATTACK:
-                calculatedModifier = (int)((opponent.getCurrentAttack() 
-                        + adder) * multiplier);
-                opponent.setCurrentAttack(calculatedModifier);
-                break;
-                
-            case MODIFIER_OPPONENT_DEFENSE:
-                calculatedModifier = (int)((opponent.getCurrentDefense() 
-                        + adder) * multiplier);
-                opponent.setCurrentDefense(calculatedModifier);
-                break;
-                
-            case MODIFIER_OPPONENT_SPEED:
-                calculatedModifier = (int)((opponent.getCurrentSpeed() 
-                        + adder) * multiplier);
-                opponent.setCurrentSpeed(calculatedModifier);
-                break;
-                
-            default:
-                throw new IllegalArgumentException(
-                        "Invalid Ability ID: " + ability_id);
-     
-        }
-            
-        return string.replace("USER", player.getName())
-                .replace("TARGET", opponent.getName());
+        int target = getTarget();
+        int change = AbilityProgram.modify(
+                target == AbilityProgram.TARGET_USER? player : opponent,
+                getStat(), adder, multiplier);
+        return AbilityProgram.describeModifier(script, target, getStat(), 
+                change, player, opponent);
     }
 }
@@ -1,6 +1,8 @@
 package amalgamation.battle;
 
 import amalgamation.Amalgamation;
+import amalgamation.ProgressionEvent;
+import amalgamation.abilities.Attack;
 
 import java.util.ArrayList;
 import java.util.Random;
@@ -9,11 +11,43 @@ import java.util.Random;
  * An AIController is a Controller that determines the move to make
  * programmatically without displaying any of the given information.
  * 
+ * How the move is chosen depends on the AIController's strategy, which is one
+ * of the STRATEGY_XXXX constants.
+ * 
  * @author Caleb Rush
  */
 public class AIController implements Controller {
+    /**
+     * Chooses a random usable Ability.
+     */
+    public static final int STRATEGY_RANDOM     = 0;
+    /**
+     * Chooses the usable Attack with the most expected damage, or a random
+     * usable Ability if no Attacks are usable.
+     */
+    public static final int STRATEGY_STRONGEST  = 1;
+    
+    // The strategy used to choose moves.
+    private final int       strategy;
     // Whether or not the AIController won its most recent battle.
-    private boolean battleWon;
+    private boolean         battleWon;
+    
+    /**
+     * Creates a new AIController that chooses random moves.
+     */
+    public AIController() {
+        this(STRATEGY_RANDOM);
+    }
+    
+    /**
+     * Creates a new AIController that chooses moves with the given strategy.
+     * 
+     * @param strategy the strategy to use. This should be one of the
+     *                 STRATEGY_XXXX constants defined in this class
+     */
+    public AIController(int strategy) {
+        this.strategy = strategy;
+    }
     
     @Override
     public void endBattle(Amalgamation player, Amalgamation opponent, 
@@ -41,6 +75,26 @@ public class AIController implements Controller {
         if (indices.isEmpty())
             return MOVE_DO_NOTHING;
         
+        // Look for the strongest Attack.
+        if (strategy == STRATEGY_STRONGEST) {
+            int strongest = -1;
+            double strongestDamage = 0;
+            for (int i : indices) {
+                if (!(player.getAbilities()[i] instanceof Attack))
+                    continue;
+                
+                Attack attack = (Attack)player.getAbilities()[i];
+                double damage = attack.getDamage() * attack.getAccuracy();
+                if (damage > strongestDamage) {
+                    strongest = i;
+                    strongestDamage = damage;
+                }
+            }
+            
+            if (strongest != -1)
+                return strongest;
+        }
+        
         // Choose a random index.
         return indices.get(new Random().nextInt(indices.size()));
     }
@@ -57,10 +111,28 @@ public class AIController implements Controller {
         return battleWon;
     }
     
+    /**
+     * Retrieves the strategy the AIController uses to choose moves.
+     * 
+     * @return one of the STRATEGY_XXXX constants defined in this class
+     */
+    public int getStrategy() {
+        return strategy;
+    }
+    
+    @Override
+    public void gainedExperience(Amalgamation player, 
+            ProgressionEvent[] events) {}
+    
     @Override
     public void readScript(Amalgamation player, Amalgamation opponent,
             String[] script) {}
     
+    @Override
+    public boolean readsScript() {
+        return false;
+    }
+    
     @Override
     public void startBattle(Amalgamation player, Amalgamation opponent) {}
 }
@@ -1,6 +1,7 @@
 package amalgamation.battle;
 
 import amalgamation.abilities.Ability;
+import amalgamation.abilities.AbilityProgram;
 import amalgamation.Amalgamation;
 
 import java.util.ArrayList;
@@ -12,6 +13,11 @@ import java.util.ArrayList;
  * @author Adam Meanor, Caleb Rush
  */
 public class Battle {
+    // The most turns a simulated Battle can last before the player loses.
+    private static final int MAX_SIMULATED_TURNS = 1000;
+    // The script handed to the Controllers when nothing happened.
+    private static final String[] NO_SCRIPT = new String[0];
+    
     // The battling Amalgamations.
     private final Amalgamation playerAmalgamation;
     private final Amalgamation opponentAmalgamation;
@@ -24,6 +30,15 @@ public class Battle {
     private boolean playerWon;
     // Whether or not the opponent won.
     private boolean opponentWon;
+    // Whether or not the Battle was given up on after too many turns.
+    private boolean timedOut;
+    // Whether or not the Battle is being simulated without anyone watching.
+    private final boolean simulated;
+    // Whether or not the script of each turn is written. Simulated Battles
+    // skip it when neither Controller reads it.
+    private final boolean scripted;
+    // The number of turns that have been played.
+    private int turns;
     
     /**
      * Constructs a new Battle between the specified Amalgamations with the 
@@ -37,14 +52,25 @@ public class Battle {
     public Battle(Amalgamation playerAmalgamation, 
             Amalgamation opponentAmalgamation, Controller player, 
             Controller opponent) {
+        this(playerAmalgamation, opponentAmalgamation, player, opponent, 
+                false);
+        
+        // Start the battle on  new thread.
+        new Thread(this::startBattle).start();
+    }
+    
+    // Constructs a new Battle without starting it.
+    private Battle(Amalgamation playerAmalgamation, 
+            Amalgamation opponentAmalgamation, Controller player, 
+            Controller opponent, boolean simulated) {
         this.playerAmalgamation = playerAmalgamation;
         this.opponentAmalgamation = opponentAmalgamation;
         this.player = player;
         this.opponent = opponent;
+        this.simulated = simulated;
+        scripted = !simulated || player.readsScript() 
+                || opponent.readsScript();
         script = new ArrayList<>();
-        
-        // Start the battle on  new thread.
-        new Thread(this::startBattle).start();
     }
     
     /**
@@ -73,13 +99,15 @@ public class Battle {
         if (move == Controller.MOVE_FORFEIT) {
             // Check if the player or opponent forfeited.
             if (user == playerAmalgamation) {
-                script.add(String.format("%s forfeited the match!", 
-                        playerAmalgamation.getName()));
+                if (scripted)
+                    script.add(String.format("%s forfeited the match!", 
+                            playerAmalgamation.getName()));
                 opponentWon = true;
                 return;
             }
             
-            script.add(String.format("%s forfeited the match!", 
+            if (scripted)
+                script.add(String.format("%s forfeited the match!", 
                         opponentAmalgamation.getName()));
             playerWon = true;
             return;
@@ -91,30 +119,55 @@ public class Battle {
                 || move < 0
                 || move >= user.getAbilities().length
                 || !user.getAbilities()[move].isUsable()) {
-            script.add(String.format("%s did nothing.", user.getName()));
+            if (scripted)
+                script.add(String.format("%s did nothing.", user.getName()));
             return;
         }
         
-        // If the Ability is valid, have the user perform the Ability.
-        script.addAll(java.util.Arrays.asList(
-                user.getAbilities()[move].affect(user, target)));
+        // If the Ability is valid, have the user perform the Ability. Its
+        // script is only created if someone reads it.
+        if (scripted)
+            script.addAll(java.util.Arrays.asList(
+                    user.getAbilities()[move].affect(user, target)));
+        else
+            user.getAbilities()[move].apply(user, target);
     }
     
     /**
      * Retrieves the moves from the Controllers and enacts the moves.
      */
     public void doTurn() {
+        long turnStart = BattleMetrics.startTimer();
+        util.GameEvents.BattleTurn turnEvent = 
+                util.GameEvents.BattleTurn.start();
+        turns++;
+        
         // Send the script to each controller on separate threads to allow
-        // them to display it concurrently.
-        new Thread(() -> player.readScript(playerAmalgamation, 
-                opponentAmalgamation, script.toArray(new String[0]))).start();
-        new Thread(() -> opponent.readScript(opponentAmalgamation, 
-                playerAmalgamation, script.toArray(new String[0]))).start();
+        // them to display it concurrently. Simulated Battles have nothing to
+        // display, so the script is just handed over.
+        if (simulated) {
+            player.readScript(playerAmalgamation, opponentAmalgamation, 
+                    script.toArray(NO_SCRIPT));
+            opponent.readScript(opponentAmalgamation, playerAmalgamation, 
+                    script.toArray(NO_SCRIPT));
+        }
+        else {
+            new Thread(() -> player.readScript(playerAmalgamation, 
+                    opponentAmalgamation, script.toArray(NO_SCRIPT)))
+                    .start();
+            new Thread(() -> opponent.readScript(opponentAmalgamation, 
+                    playerAmalgamation, script.toArray(NO_SCRIPT)))
+                    .start();
+        }
         // Retrieve the moves from the controllers.
+        long moveStart = BattleMetrics.startTimer();
         int playerMove = player.chooseMove(playerAmalgamation, 
-                opponentAmalgamation, script.toArray(new String[0]));
+                opponentAmalgamation, script.toArray(NO_SCRIPT));
+        BattleMetrics.recordChooseMove(player, moveStart);
+        moveStart = BattleMetrics.startTimer();
         int opponentMove = opponent.chooseMove(opponentAmalgamation, 
-                playerAmalgamation, script.toArray(new String[0]));
+                playerAmalgamation, script.toArray(NO_SCRIPT));
+        BattleMetrics.recordChooseMove(opponent, moveStart);
         
         // Clear the script.
         script.clear();
@@ -128,6 +181,7 @@ public class Battle {
             // Check the end condition
             if (checkEndCondition()) {
                 // End the battle.
+                endTurn(turnStart, turnEvent);
                 endBattle();
                 return;
             }
@@ -142,6 +196,7 @@ public class Battle {
             // Check the end condition
             if (checkEndCondition()) {
                 // End the battle.
+                endTurn(turnStart, turnEvent);
                 endBattle();
                 return;
             }
@@ -150,6 +205,10 @@ public class Battle {
             doMove(playerAmalgamation, opponentAmalgamation, playerMove);
         }
         
+        // Deal the damage left on the amalgamations by earlier moves.
+        takeLingeringDamage(playerAmalgamation, opponentAmalgamation);
+        takeLingeringDamage(opponentAmalgamation, playerAmalgamation);
+        
         // Cool down the amalgamations' moves.
         for (int i = 0; i < playerAmalgamation.getAbilities().length; i++)
             // Check if the Ability was just used.
@@ -160,6 +219,17 @@ public class Battle {
             if (i != opponentMove && opponentAmalgamation.getAbilities()[i] != null)
                 opponentAmalgamation.getAbilities()[i].iterateCooldown();
         
+        // Give up on simulated Battles that neither Amalgamation can win.
+        if (simulated && turns >= MAX_SIMULATED_TURNS 
+                && !checkEndCondition()) {
+            script.add(String.format("%s ran out of time!", 
+                    playerAmalgamation.getName()));
+            opponentWon = true;
+            timedOut = true;
+        }
+        
+        endTurn(turnStart, turnEvent);
+        
         // Check the win condition.
         if (checkEndCondition())
             // End the Battle.
@@ -198,16 +268,29 @@ public class Battle {
                     opponentAmalgamation.getName(), 
                     playerAmalgamation.getDefeatedExperience()));
         }
-        new Thread(() -> opponent.endBattle(opponentAmalgamation, playerAmalgamation, 
-                script.toArray(new String[0]))).start();
         // Alert the controllers that the Battle has ended.
+        if (simulated)
+            opponent.endBattle(opponentAmalgamation, playerAmalgamation, 
+                    script.toArray(new String[0]));
+        else
+            new Thread(() -> opponent.endBattle(opponentAmalgamation, playerAmalgamation, 
+                    script.toArray(new String[0]))).start();
         player.endBattle(playerAmalgamation, opponentAmalgamation, 
                 script.toArray(new String[0]));
         
+        // Simulated Battles leave the rewards to whoever ran them.
+        if (simulated) {
+            playerAmalgamation.resetCurrentStats();
+            opponentAmalgamation.resetCurrentStats();
+            return;
+        }
+        
         if (playerWon){
-            // Raise the player's experience.
-            playerAmalgamation.gainExp(
-                    opponentAmalgamation.getDefeatedExperience());
+            // Raise the player's experience and let the Controller present
+            // any level ups.
+            player.gainedExperience(playerAmalgamation, 
+                    playerAmalgamation.gainExp(
+                            opponentAmalgamation.getDefeatedExperience()));
         }   
         
         // Reset the amalgamations current stats.
@@ -215,19 +298,138 @@ public class Battle {
         opponentAmalgamation.resetCurrentStats();
         
         // Save the player Amalgamation.
-        util.Amalgamations.save(playerAmalgamation);
+        util.Amalgamations.saveAsync(playerAmalgamation);
+    }
+    
+    // Records the end of a turn in the BattleMetrics and the flight recorder.
+    // This must be called before the next turn starts, as the turns recurse.
+    private void endTurn(long turnStart, util.GameEvents.BattleTurn event) {
+        BattleMetrics.recordTurn(turnStart);
+        event.finish(turns, playerAmalgamation.getName(), 
+                opponentAmalgamation.getName(), simulated);
+    }
+    
+    /**
+     * Constructs a Battle between the specified Amalgamations that is played
+     * on the calling thread, without starting it.
+     * 
+     * Moves can then be performed one at a time with doMove, or the whole
+     * Battle can be played with startBattle. Like the Battles played by
+     * simulate, it does not award any experience or save the player
+     * Amalgamation.
+     * 
+     * @param playerAmalgamation the player Amalgamation
+     * @param opponentAmalgamation the opponent Amalgamation
+     * @param player the Controller for the player
+     * @param opponent the Controller for the opponent
+     * @return the new Battle
+     * @see Battle#simulate
+     */
+    public static Battle createSimulation(Amalgamation playerAmalgamation, 
+            Amalgamation opponentAmalgamation, Controller player, 
+            Controller opponent) {
+        return new Battle(playerAmalgamation, opponentAmalgamation, player, 
+                opponent, true);
+    }
+    
+    /**
+     * Retrieves the number of turns that have been played.
+     * 
+     * @return the number of turns played so far
+     */
+    public int getTurns() {
+        return turns;
+    }
+    
+    /**
+     * Returns whether or not the player won the Battle.
+     * 
+     * @return true if the player won, false if the player lost, tied or the
+     *         Battle hasn't ended yet
+     */
+    public boolean isPlayerWon() {
+        return playerWon && !opponentWon;
+    }
+    
+    /**
+     * Returns whether or not the Battle ended in a tie, with both
+     * Amalgamations defeated on the same turn.
+     * 
+     * @return true if the Battle was a tie, false otherwise
+     */
+    public boolean isTie() {
+        return playerWon && opponentWon;
+    }
+    
+    /**
+     * Returns whether or not the simulated Battle was given up on because it
+     * lasted too many turns. The player is counted as the loser of such a
+     * Battle, so callers that rank Amalgamations should treat it as a
+     * stalemate instead.
+     * 
+     * @return true if the Battle ran out of turns, false otherwise
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+    
+    /**
+     * Plays an entire Battle between the specified Amalgamations on the
+     * calling thread and returns once it is over.
+     * 
+     * Nothing is displayed, so this is meant for Controllers that don't
+     * need a user, such as AIControllers. Since every move is made on the
+     * calling thread, separate Battles with separate Amalgamations can be
+     * simulated in parallel.
+     * 
+     * Unlike a regular Battle, a simulated Battle does not award any
+     * experience or save the player Amalgamation. Both Amalgamations' current
+     * stats are reset when it ends. A simulated Battle that lasts too many
+     * turns is lost by the player, which isTimedOut reports.
+     * 
+     * @param playerAmalgamation the player Amalgamation
+     * @param opponentAmalgamation the opponent Amalgamation
+     * @param player the Controller for the player
+     * @param opponent the Controller for the opponent
+     * @return the finished Battle
+     */
+    public static Battle simulate(Amalgamation playerAmalgamation, 
+            Amalgamation opponentAmalgamation, Controller player, 
+            Controller opponent) {
+        Battle battle = createSimulation(playerAmalgamation, 
+                opponentAmalgamation, player, opponent);
+        battle.startBattle();
+        return battle;
     }
     
     /**
      * Starts the Battle.
      */
     public void startBattle() {
+        long start = BattleMetrics.startTimer();
+        
         // Alert the controllers that the Battle has started.
-        new Thread(() -> opponent.startBattle(opponentAmalgamation, 
-                playerAmalgamation)).start();
+        if (simulated)
+            opponent.startBattle(opponentAmalgamation, playerAmalgamation);
+        else
+            new Thread(() -> opponent.startBattle(opponentAmalgamation, 
+                    playerAmalgamation)).start();
         player.startBattle(playerAmalgamation, opponentAmalgamation);
         
-        // Enact the first turn.
+        // Enact the first turn. The turns follow one after another until the
+        // Battle ends.
         doTurn();
+        
+        BattleMetrics.recordBattle(start, turns);
+    }
+    
+    // Deals the damage left on an Amalgamation at the end of a turn.
+    private void takeLingeringDamage(Amalgamation amalgamation, 
+            Amalgamation opponent) {
+        int damage = amalgamation.takeLingeringDamage();
+        if (damage > 0 && scripted)
+            script.add(AbilityProgram.describeDamage(
+                    AbilityProgram.TARGET_USER, damage, amalgamation, 
+                    opponent));
     }
 }
@@ -0,0 +1,510 @@
+package amalgamation.battle;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BattleMetrics records how Battles perform: how many turns they last, how
+ * long each turn takes, how long each Controller takes to choose its moves,
+ * the network round trip time of NetworkControllers and how long whole
+ * Battles take from start to end.
+ *
+ * Recording is off by default. It is turned on by starting the game with
+ * -Damalgamations.metrics=true or by calling setEnabled. While it is off,
+ * every recording method returns immediately without reading the clock, so
+ * leaving the calls in the Battle code costs next to nothing. Timing works by
+ * passing the value returned by startTimer to one of the record methods;
+ * startTimer returns zero while recording is off, and the record methods
+ * ignore zero.
+ *
+ * Counts are kept in LongAdders and durations in Histograms, neither of which
+ * makes the Battles running in parallel wait on each other. Once enabled, the
+ * metrics are registered with the platform MBean server as
+ * "amalgamations:type=BattleMetrics", and a summary is logged every minute.
+ * The interval can be changed (in seconds) with
+ * -Damalgamations.metrics.interval, where 0 turns the logging off.
+ *
+ * @author Caleb Rush
+ */
+public class BattleMetrics {
+    // The name the metrics are registered with the MBean server under.
+    public static final String  OBJECT_NAME         =
+            "amalgamations:type=BattleMetrics";
+    // The system properties that turn recording on and set the log interval.
+    public static final String  ENABLED_PROPERTY    = "amalgamations.metrics";
+    public static final String  INTERVAL_PROPERTY   =
+            "amalgamations.metrics.interval";
+    // The number of nanoseconds in a millisecond.
+    private static final double NANOS_PER_MILLI     = 1e6;
+    
+    // The number of Battles ended and turns played.
+    private static final LongAdder      battles         = new LongAdder();
+    private static final LongAdder      turns           = new LongAdder();
+    // The distributions of turns per Battle and of each duration.
+    private static final Histogram      turnsPerBattle  = new Histogram();
+    private static final Histogram      turnTime        = new Histogram();
+    private static final Histogram      battleTime      = new Histogram();
+    private static final Histogram      roundTripTime   = new Histogram();
+    // The time taken to choose moves, by the name of the Controller's class.
+    private static final ConcurrentHashMap<String, Histogram> chooseMoveTime
+            = new ConcurrentHashMap<>();
+    // The logger the summaries are written to.
+    private static final java.util.logging.Logger log =
+            java.util.logging.Logger.getLogger(BattleMetrics.class.getName());
+    
+    // Whether or not the metrics are being recorded.
+    private static volatile boolean enabled;
+    // Whether or not the metrics have been registered with the MBean server.
+    private static boolean          registered;
+    // The thread that logs the summaries, and its scheduled task.
+    private static java.util.concurrent.ScheduledExecutorService    logger;
+    private static java.util.concurrent.ScheduledFuture<?>          logTask;
+    
+    static {
+        if (Boolean.getBoolean(ENABLED_PROPERTY))
+            setEnabled(true);
+    }
+    
+    /**
+     * Retrieves the distribution of Battle latencies in nanoseconds.
+     *
+     * @return the Battle latencies
+     */
+    public static Histogram getBattleTime() {
+        return battleTime;
+    }
+    
+    /**
+     * Retrieves the distribution of the time each Controller took to choose
+     * its moves in nanoseconds, by the name of the Controller's class.
+     *
+     * @return the move choosing times, sorted by Controller
+     */
+    public static Map<String, Histogram> getChooseMoveTime() {
+        return new TreeMap<>(chooseMoveTime);
+    }
+    
+    /**
+     * Retrieves the distribution of network round trip times in nanoseconds.
+     *
+     * @return the round trip times
+     */
+    public static Histogram getRoundTripTime() {
+        return roundTripTime;
+    }
+    
+    /**
+     * Builds a readable summary of every metric.
+     *
+     * @return the summary
+     */
+    public static String getSummary() {
+        StringBuilder summary = new StringBuilder(String.format(
+                "Battles: %d, turns: %d%n", battles.sum(), turns.sum()));
+        summary.append(String.format("Turns per battle: %s%n",
+                turnsPerBattle.describe(1, "")));
+        summary.append(String.format("Turn time: %s%n",
+                turnTime.describe(NANOS_PER_MILLI, " ms")));
+        summary.append(String.format("Battle latency: %s%n",
+                battleTime.describe(NANOS_PER_MILLI, " ms")));
+        summary.append(String.format("Network round trip: %s",
+                roundTripTime.describe(NANOS_PER_MILLI, " ms")));
+        getChooseMoveTime().forEach((controller, histogram) ->
+                summary.append(String.format("%n%s.chooseMove: %s",
+                        controller,
+                        histogram.describe(NANOS_PER_MILLI, " ms"))));
+        
+        return summary.toString();
+    }
+    
+    /**
+     * Retrieves the distribution of turn times in nanoseconds.
+     *
+     * @return the turn times
+     */
+    public static Histogram getTurnTime() {
+        return turnTime;
+    }
+    
+    /**
+     * Retrieves the distribution of the number of turns Battles lasted.
+     *
+     * @return the turns per Battle
+     */
+    public static Histogram getTurnsPerBattle() {
+        return turnsPerBattle;
+    }
+    
+    /**
+     * Returns whether or not the metrics are being recorded.
+     *
+     * @return true if the metrics are being recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Records the end of a Battle.
+     *
+     * @param start the value returned by startTimer when the Battle started
+     * @param battleTurns the number of turns the Battle lasted
+     */
+    public static void recordBattle(long start, int battleTurns) {
+        if (start == 0)
+            return;
+        
+        battleTime.record(System.nanoTime() - start);
+        turnsPerBattle.record(battleTurns);
+        battles.increment();
+    }
+    
+    /**
+     * Records a Controller choosing a move.
+     *
+     * @param controller the Controller that chose the move
+     * @param start the value returned by startTimer before the move was
+     *              requested
+     */
+    public static void recordChooseMove(Controller controller, long start) {
+        if (start == 0)
+            return;
+        
+        long elapsed = System.nanoTime() - start;
+        chooseMoveTime.computeIfAbsent(controller.getClass().getSimpleName(),
+                name -> new Histogram()).record(elapsed);
+    }
+    
+    /**
+     * Records a network round trip.
+     *
+     * @param start the value returned by startTimer when the request was sent
+     */
+    public static void recordRoundTrip(long start) {
+        if (start == 0)
+            return;
+        
+        roundTripTime.record(System.nanoTime() - start);
+    }
+    
+    /**
+     * Records the end of a turn.
+     *
+     * @param start the value returned by startTimer when the turn started
+     */
+    public static void recordTurn(long start) {
+        if (start == 0)
+            return;
+        
+        turnTime.record(System.nanoTime() - start);
+        turns.increment();
+    }
+    
+    /**
+     * Clears every metric.
+     */
+    public static void reset() {
+        battles.reset();
+        turns.reset();
+        turnsPerBattle.reset();
+        turnTime.reset();
+        battleTime.reset();
+        roundTripTime.reset();
+        chooseMoveTime.clear();
+    }
+    
+    /**
+     * Starts or stops recording the metrics.
+     *
+     * The first time recording is started, the metrics are registered with
+     * the platform MBean server. The summary is logged periodically while
+     * recording.
+     *
+     * @param enabled whether or not to record the metrics
+     */
+    public static synchronized void setEnabled(boolean enabled) {
+        BattleMetrics.enabled = enabled;
+        
+        if (enabled) {
+            register();
+            scheduleLog();
+        }
+        else if (logTask != null) {
+            logTask.cancel(false);
+            logTask = null;
+        }
+    }
+    
+    /**
+     * Starts timing something if the metrics are being recorded.
+     *
+     * @return the current value of System::nanoTime, or zero if the metrics
+     *         are not being recorded
+     */
+    public static long startTimer() {
+        if (!enabled)
+            return 0;
+        
+        // Zero means that recording is off, so never return it as a time.
+        long now = System.nanoTime();
+        return now == 0? 1 : now;
+    }
+    
+    // Registers the metrics with the platform MBean server.
+    private static void register() {
+        if (registered)
+            return;
+        registered = true;
+        
+        try {
+            java.lang.management.ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(new Bean(), new javax.management.ObjectName(
+                            OBJECT_NAME));
+        } catch (javax.management.JMException e) {
+            // The metrics are still logged.
+            e.printStackTrace();
+        }
+    }
+    
+    // Starts logging the summary periodically, unless it is turned off.
+    private static void scheduleLog() {
+        long interval = Long.getLong(INTERVAL_PROPERTY, 60);
+        if (logTask != null || interval <= 0)
+            return;
+        
+        if (logger == null)
+            logger = java.util.concurrent.Executors
+                    .newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "Battle Metrics");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        
+        logTask = logger.scheduleAtFixedRate(() -> log.info(getSummary()),
+                interval, interval, java.util.concurrent.TimeUnit.SECONDS);
+    }
+    
+    /**
+     * A Histogram records the distribution of a set of non-negative values,
+     * such as durations in nanoseconds.
+     *
+     * Like an HDR histogram, the values are counted in buckets that grow
+     * exponentially: every power of two is split into 32 equal buckets. So
+     * every value up to Long.MAX_VALUE can be recorded in a fixed amount of
+     * memory, and every percentile is accurate to within about 3%. Recording
+     * a value never locks.
+     */
+    public static class Histogram {
+        // The number of bits of each value that are kept exactly.
+        private static final int    SUB_BITS    = 5;
+        // The number of buckets each power of two is split into.
+        private static final int    SUB_COUNT   = 1 << SUB_BITS;
+        
+        // The number of values recorded in each bucket.
+        private final AtomicLongArray   counts  = new AtomicLongArray(
+                (64 - SUB_BITS) * SUB_COUNT);
+        // The number of values recorded, their sum and the largest one.
+        private final LongAdder         count   = new LongAdder();
+        private final LongAdder         sum     = new LongAdder();
+        private final LongAccumulator   max     = new LongAccumulator(
+                Math::max, 0);
+        
+        /**
+         * Retrieves the number of values recorded.
+         *
+         * @return the number of values recorded
+         */
+        public long getCount() {
+            return count.sum();
+        }
+        
+        /**
+         * Retrieves the largest value recorded.
+         *
+         * @return the largest value, or zero if none have been recorded
+         */
+        public long getMax() {
+            return max.get();
+        }
+        
+        /**
+         * Retrieves the mean of the values recorded.
+         *
+         * @return the mean, or zero if no values have been recorded
+         */
+        public double getMean() {
+            long n = count.sum();
+            return n == 0? 0 : (double)sum.sum() / n;
+        }
+        
+        /**
+         * Retrieves the value that the given percentage of the recorded
+         * values are less than or equal to.
+         *
+         * @param percentile the percentage, from 0 to 100
+         * @return the value at the percentile, or zero if no values have been
+         *         recorded
+         */
+        public long getPercentile(double percentile) {
+            long[] snapshot = new long[counts.length()];
+            long total = 0;
+            for (int i = 0; i < snapshot.length; i++)
+                total += snapshot[i] = counts.get(i);
+            if (total == 0)
+                return 0;
+            
+            // Find the bucket holding the value at the percentile.
+            long target = Math.max(1, (long)Math.ceil(
+                    percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < snapshot.length; i++) {
+                seen += snapshot[i];
+                if (seen >= target)
+                    return Math.min(highestValue(i), getMax());
+            }
+            
+            return getMax();
+        }
+        
+        /**
+         * Records a value. Negative values are recorded as zero.
+         *
+         * @param value the value to record
+         */
+        public void record(long value) {
+            value = Math.max(value, 0);
+            counts.incrementAndGet(index(value));
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+        
+        /**
+         * Clears every recorded value.
+         */
+        public void reset() {
+            for (int i = 0; i < counts.length(); i++)
+                counts.set(i, 0);
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+        
+        // Describes the distribution, dividing each value by the given scale.
+        private String describe(double scale, String unit) {
+            return String.format("n=%d mean=%.3f%s p50=%.3f%s p99=%.3f%s "
+                    + "max=%.3f%s", getCount(), getMean() / scale, unit,
+                    getPercentile(50) / scale, unit,
+                    getPercentile(99) / scale, unit, getMax() / scale, unit);
+        }
+        
+        // Returns the largest value that is counted in the given bucket.
+        private static long highestValue(int index) {
+            if (index < 2 * SUB_COUNT)
+                return index;
+            
+            int shift = index / SUB_COUNT - 1;
+            long lowest = (long)(index - shift * SUB_COUNT) << shift;
+            return lowest + (1L << shift) - 1;
+        }
+        
+        // Returns the bucket the given value is counted in. Values below
+        // 2 * SUB_COUNT each get their own bucket, and larger values are
+        // shifted down until only their top SUB_BITS + 1 bits are left.
+        private static int index(long value) {
+            int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value)
+                    - (SUB_BITS + 1));
+            return shift * SUB_COUNT + (int)(value >>> shift);
+        }
+    }
+    
+    // Exposes the metrics to JMX.
+    private static class Bean implements BattleMetricsMXBean {
+        @Override
+        public long getBattleCount() {
+            return battles.sum();
+        }
+        
+        @Override
+        public Map<String, Double> getMeanChooseMoveMillis() {
+            Map<String, Double> means = new TreeMap<>();
+            chooseMoveTime.forEach((controller, histogram) ->
+                    means.put(controller,
+                            histogram.getMean() / NANOS_PER_MILLI));
+            return means;
+        }
+        
+        @Override
+        public double getMeanBattleMillis() {
+            return battleTime.getMean() / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getMeanNetworkRoundTripMillis() {
+            return roundTripTime.getMean() / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getMeanTurnMillis() {
+            return turnTime.getMean() / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getMeanTurnsPerBattle() {
+            return turnsPerBattle.getMean();
+        }
+        
+        @Override
+        public Map<String, Double> getP99ChooseMoveMillis() {
+            Map<String, Double> percentiles = new TreeMap<>();
+            chooseMoveTime.forEach((controller, histogram) ->
+                    percentiles.put(controller,
+                            histogram.getPercentile(99) / NANOS_PER_MILLI));
+            return percentiles;
+        }
+        
+        @Override
+        public double getP99BattleMillis() {
+            return battleTime.getPercentile(99) / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getP99NetworkRoundTripMillis() {
+            return roundTripTime.getPercentile(99) / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public double getP99TurnMillis() {
+            return turnTime.getPercentile(99) / NANOS_PER_MILLI;
+        }
+        
+        @Override
+        public String getSummary() {
+            return BattleMetrics.getSummary();
+        }
+        
+        @Override
+        public long getTurnCount() {
+            return turns.sum();
+        }
+        
+        @Override
+        public boolean isEnabled() {
+            return BattleMetrics.isEnabled();
+        }
+        
+        @Override
+        public void reset() {
+            BattleMetrics.reset();
+        }
+        
+        @Override
+        public void setEnabled(boolean enabled) {
+            BattleMetrics.setEnabled(enabled);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package amalgamation.battle;
+
+/**
+ * The management interface that BattleMetrics registers with the platform
+ * MBean server, so that the metrics can be watched with any JMX client, such
+ * as JConsole.
+ *
+ * Every duration is reported in milliseconds.
+ *
+ * @author Caleb Rush
+ */
+public interface BattleMetricsMXBean {
+    /**
+     * Retrieves the number of Battles that have ended.
+     *
+     * @return the number of Battles
+     */
+    long getBattleCount();
+    
+    /**
+     * Retrieves the mean time each Controller took to choose a move, by the
+     * name of the Controller's class.
+     *
+     * @return the mean time to choose a move for each Controller
+     */
+    java.util.Map<String, Double> getMeanChooseMoveMillis();
+    
+    /**
+     * Retrieves the mean time from a Battle starting to it ending.
+     *
+     * @return the mean Battle latency
+     */
+    double getMeanBattleMillis();
+    
+    /**
+     * Retrieves the mean network round trip time.
+     *
+     * @return the mean round trip time
+     */
+    double getMeanNetworkRoundTripMillis();
+    
+    /**
+     * Retrieves the mean time each turn took.
+     *
+     * @return the mean turn time
+     */
+    double getMeanTurnMillis();
+    
+    /**
+     * Retrieves the mean number of turns each Battle lasted.
+     *
+     * @return the mean turns per Battle
+     */
+    double getMeanTurnsPerBattle();
+    
+    /**
+     * Retrieves the 99th percentile of the time each Controller took to
+     * choose a move, by the name of the Controller's class.
+     *
+     * @return the 99th percentile time to choose a move for each Controller
+     */
+    java.util.Map<String, Double> getP99ChooseMoveMillis();
+    
+    /**
+     * Retrieves the 99th percentile of the time from a Battle starting to it
+     * ending.
+     *
+     * @return the 99th percentile Battle latency
+     */
+    double getP99BattleMillis();
+    
+    /**
+     * Retrieves the 99th percentile network round trip time.
+     *
+     * @return the 99th percentile round trip time
+     */
+    double getP99NetworkRoundTripMillis();
+    
+    /**
+     * Retrieves the 99th percentile of the time each turn took.
+     *
+     * @return the 99th percentile turn time
+     */
+    double getP99TurnMillis();
+    
+    /**
+     * Retrieves a readable summary of every metric, as written to the log.
+     *
+     * @return the summary
+     */
+    String getSummary();
+    
+    /**
+     * Retrieves the number of turns that have been played.
+     *
+     * @return the number of turns
+     */
+    long getTurnCount();
+    
+    /**
+     * Returns whether or not the metrics are being recorded.
+     *
+     * @return true if the metrics are being recorded
+     */
+    boolean isEnabled();
+    
+    /**
+     * Clears every metric.
+     */
+    void reset();
+    
+    /**
+     * Starts or stops recording the metrics.
+     *
+     * @param enabled whether or not to record the metrics
+     */
+    void setEnabled(boolean enabled);
+}
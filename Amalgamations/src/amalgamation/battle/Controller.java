@@ -1,6 +1,7 @@
 package amalgamation.battle;
 
 import amalgamation.Amalgamation;
+import amalgamation.ProgressionEvent;
 
 /**
  * A Controller is used to determine the Ability that is performed by an
@@ -41,6 +42,20 @@ public interface Controller {
      */
     void endBattle(Amalgamation player, Amalgamation opponent, String[] script);
     
+    /**
+     * Called after endBattle if the player gained experience from the Battle.
+     * 
+     * The experience has already been applied by the time this is called. If
+     * the Controller interacts with the end user, this is the opportunity to
+     * announce level ups and let the user choose which Ability to replace
+     * when a new one is available.
+     * 
+     * @param player the Amalgamation being controlled by the Controller
+     * @param events the level ups and Abilities learned, in the order they
+     *               happened
+     */
+    void gainedExperience(Amalgamation player, ProgressionEvent[] events);
+    
     /**
      * Called just before chooseMove each turn.
      * 
@@ -57,6 +72,20 @@ public interface Controller {
      */
     void readScript(Amalgamation player, Amalgamation opponent, String[] script);
     
+    /**
+     * Returns whether or not the Controller reads the script of each turn.
+     * 
+     * A simulated Battle only writes the script of each turn when one of its
+     * Controllers reads it, so a Controller that ignores it should return
+     * false to save the Battle the work. The script given to endBattle
+     * always holds how the Battle ended. By default, this returns true.
+     * 
+     * @return true if the Controller reads the script of each turn
+     */
+    default boolean readsScript() {
+        return true;
+    }
+    
     /**
      * Called at the start of the Battle. This is used to make any preparations
      * for the Battle that must be made at the start.
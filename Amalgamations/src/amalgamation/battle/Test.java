@@ -1,6 +1,7 @@
 package amalgamation.battle;
 
 import amalgamation.Amalgamation;
+import amalgamation.ProgressionEvent;
 import menus.components.AbilityPanel;
 import menus.components.AmalgamationPanel;
 
@@ -342,6 +343,13 @@ public class Test extends javax.swing.JFrame implements Controller {
         return moveSelected;
     }
     
+    @Override
+    public void gainedExperience(Amalgamation player, 
+            ProgressionEvent[] events) {
+        menus.components.LevelUpDialogs.showLevelUpDialogs(
+                this, player, events);
+    }
+    
     @Override
     public void endBattle(Amalgamation player, Amalgamation opponent, 
             String[] script) {
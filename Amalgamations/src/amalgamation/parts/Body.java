@@ -6,6 +6,7 @@ import java.awt.image.BufferedImage;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 
 /**
  * It is an extension of Part class. It is itself a collection of parts and its
@@ -17,6 +18,8 @@ public class Body extends Part {
     // The size of the full image.
     public static final int FULL_IMAGE_WIDTH = 350;
     public static final int FULL_IMAGE_HEIGHT = 350;
+    // Pinned so that previously saved Part and Amalgamation files still load.
+    private static final long serialVersionUID = -6928614772718171433L;
     
     // The list of arm slots on the body.
     private final Slot<Arm>[] arms;
@@ -24,6 +27,17 @@ public class Body extends Part {
     private final Slot<Head>[] heads;
     // The list of Leg slots on the body.
     private final Slot<Leg>[] legs;
+    // The combined list of every Slot, built once since the arrays are final.
+    private transient Slot[] slots;
+    // The aggregate stats of the Body and all connected Parts.
+    private transient int totalBaseHealth;
+    private transient int totalBaseAttack;
+    private transient int totalBaseDefense;
+    private transient int totalBaseSpeed;
+    // The deduplicated Abilities of the Body and all connected Parts.
+    private transient Ability[] allAbilities;
+    // Whether or not the aggregates above reflect the current composition.
+    private transient boolean aggregatesValid;
     
     /**
      * Constructs a Body object.
@@ -59,28 +73,69 @@ public class Body extends Part {
     }
     
     /**
-     * Constructs a list of all Abilities contained in the Body and all of its
+     * Retrieves the list of all Abilities contained in the Body and all of its
      * contained Parts.
      * 
+     * The list is only rebuilt after a Part has been connected to or
+     * disconnected from one of the Body's Slots. The returned array is shared
+     * between calls, so it must not be modified.
+     * 
      * @return all Abilities contained in the Body and all of its contained 
      *         Parts
      */
     public Ability[] allAbilities() {
-        ArrayList<Ability> abilities = new ArrayList<>(
+        validateAggregates();
+        return allAbilities;
+    }
+    
+    /**
+     * Marks the cached stat totals and Abilities as out of date.
+     * 
+     * This is called by the Body's Slots whenever their Part changes, so it
+     * should not normally need to be called directly.
+     */
+    void invalidateAggregates() {
+        aggregatesValid = false;
+    }
+    
+    // Recalculates the stat totals and Abilities if the composition changed.
+    private void validateAggregates() {
+        if (aggregatesValid)
+            return;
+        
+        // Start with the Body's own stats.
+        int health = getBaseHealth();
+        int attack = getBaseAttack();
+        int defense = getBaseDefense();
+        int speed = getBaseSpeed();
+        // Use a LinkedHashSet to remove duplicates while keeping the order.
+        LinkedHashSet<Ability> abilities = new LinkedHashSet<>(
                 Arrays.asList(getAbilities()));
         
-        // Iterate through all of the Parts.
-        for (Slot s : getSlots())
+        // Iterate through all of the Slots.
+        for (Slot s : slots()) {
+            // Ensure the Slot reports changes to this Body.
+            s.setOwner(this);
+            
             // Ensure the Slot has a Part connected.
-            if (s.getPart() != null)
-                // Iterate through all of the Part's Abilities.
-                for (Ability a : s.getPart().getAbilities()) 
-                    // Ensure the Ability is not already in the list.
-                    if (!abilities.contains(a))
-                        // Add the Ability to the list.
-                        abilities.add(a);
+            Part part = s.getPart();
+            if (part == null)
+                continue;
+            
+            // Add the Part's stats and Abilities to the totals.
+            health += part.getBaseHealth();
+            attack += part.getBaseAttack();
+            defense += part.getBaseDefense();
+            speed += part.getBaseSpeed();
+            abilities.addAll(Arrays.asList(part.getAbilities()));
+        }
         
-        return abilities.toArray(new Ability[0]);
+        totalBaseHealth = health;
+        totalBaseAttack = attack;
+        totalBaseDefense = defense;
+        totalBaseSpeed = speed;
+        allAbilities = abilities.toArray(new Ability[0]);
+        aggregatesValid = true;
     }
     
     /**
@@ -97,6 +152,9 @@ public class Body extends Part {
      *         parts
      */
     public BufferedImage fullImage() {
+        util.GameEvents.CompositeRender event = 
+                util.GameEvents.CompositeRender.start();
+        
         // Create the full sized image.
         final BufferedImage fullImage = new BufferedImage(FULL_IMAGE_WIDTH, 
                 FULL_IMAGE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
@@ -119,6 +177,7 @@ public class Body extends Part {
                 // Draw each slot's body part to the image.
                 .forEach(s -> s.render(fullImage));
         
+        event.finish(this);
         return fullImage;
     }
     
@@ -172,18 +231,27 @@ public class Body extends Part {
      * @return the list of all the Slots of all types on the body.
      */
     public Slot[] getSlots() {
-        // Create an ArrayList to store every slot.
-        ArrayList<Slot> slots = new ArrayList<>();
-        
-        // Add all arm slots to the ArrayList.
-        slots.addAll(Arrays.asList(arms));
-        // Add all head slots to the ArrayList.
-        slots.addAll(Arrays.asList(heads));
-        // Add all leg slots to the ArrayList.
-        slots.addAll(Arrays.asList(legs));
+        return slots().clone();
+    }
+    
+    // Retrieves the shared combined list of Slots, building it if necessary.
+    private Slot[] slots() {
+        if (slots == null) {
+            // Create an ArrayList to store every slot.
+            ArrayList<Slot> all = new ArrayList<>();
+
+            // Add all arm slots to the ArrayList.
+            all.addAll(Arrays.asList(arms));
+            // Add all head slots to the ArrayList.
+            all.addAll(Arrays.asList(heads));
+            // Add all leg slots to the ArrayList.
+            all.addAll(Arrays.asList(legs));
+
+            // Convert the ArrayList to an array.
+            slots = all.toArray(new Slot[0]);
+        }
         
-        // Convert the ArrayList to an array.
-        return slots.toArray(new Slot[0]);
+        return slots;
     }
     
     @Override
@@ -198,17 +266,8 @@ public class Body extends Part {
      * @return the total Base Attack of the body an all connected parts
      */
     public int totalBaseAttack() {
-        // Retrieve the Body's base health.
-        int baseAttack = getBaseAttack();
-        
-        // Sum up the the base attack of each connected part.
-        for (Slot s : getSlots())
-            // Check if the slot contains a part.
-            if (s.getPart() != null)
-                // Add the part's base attack to the total.
-                baseAttack += s.getPart().getBaseAttack();
-
-        return baseAttack;
+        validateAggregates();
+        return totalBaseAttack;
     }
     
     /**
@@ -218,17 +277,8 @@ public class Body extends Part {
      * @return the total Base Attack of the body an all connected parts
      */
     public int totalBaseDefense() {
-        // Retrieve the Body's base defense.
-        int baseDefense = getBaseDefense();
-        
-        // Sum up the the base defense of each connected part.
-        for (Slot s : getSlots())
-            // Check if the slot contains a part.
-            if (s.getPart() != null)
-                // Add the part's base defense to the total.
-                baseDefense += s.getPart().getBaseDefense();
-
-        return baseDefense;
+        validateAggregates();
+        return totalBaseDefense;
     }
     
     /**
@@ -238,17 +288,8 @@ public class Body extends Part {
      * @return the total Base Health of the body an all connected parts
      */
     public int totalBaseHealth() {
-        // Retrieve the Body's base health.
-        int baseHealth = getBaseHealth();
-        
-        // Sum up the the base health of each connected part.
-        for (Slot s : getSlots())
-            // Check if the slot contains a part.
-            if (s.getPart() != null)
-                // Add the part's base health to the total.
-                baseHealth += s.getPart().getBaseHealth();
-
-        return baseHealth;
+        validateAggregates();
+        return totalBaseHealth;
     }
     
     /**
@@ -258,16 +299,7 @@ public class Body extends Part {
      * @return the total Base Speed of the body an all connected parts
      */
     public int totalBaseSpeed() {
-        // Retrieve the Body's base speed.
-        int baseSpeed = getBaseSpeed();
-        
-        // Sum up the the base speed of each connected part.
-        for (Slot s : getSlots())
-            // Check if the slot contains a part.
-            if (s.getPart() != null)
-                // Add the part's base speed to the total.
-                baseSpeed += s.getPart().getBaseSpeed();
-
-        return baseSpeed;
+        validateAggregates();
+        return totalBaseSpeed;
     }
 }
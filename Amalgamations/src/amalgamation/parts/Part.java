@@ -214,7 +214,30 @@ public abstract class Part implements Serializable {
      *                     permissions for the current user
      */
     public BufferedImage loadImage(String fileName) throws IOException {
-        return ImageIO.read(new File(imageDirectory() + fileName));
+        util.GameEvents.ImageDecode event = util.GameEvents.ImageDecode.start(
+                imageDirectory() + fileName);
+        
+        // Use the image from the sprite atlas if there is one.
+        BufferedImage sprite = util.SpriteAtlas.getSprite(
+                imageDirectory() + fileName);
+        if (sprite != null)
+            return event.finish(util.GameEvents.ImageDecode.SOURCE_ATLAS, 
+                    sprite);
+        
+        // Otherwise, use the preloaded image if there is one.
+        BufferedImage preloaded = util.AssetRegistry.getImage(
+                imageDirectory() + fileName);
+        if (preloaded != null)
+            return event.finish(util.GameEvents.ImageDecode.SOURCE_PRELOADED, 
+                    preloaded);
+        
+        try (java.io.InputStream in = event.measure(
+                util.AssetArchive.openAsset(imageDirectory() + fileName))) {
+            // Cache in memory rather than in a temporary file.
+            return event.finish(util.GameEvents.ImageDecode.SOURCE_FILE, 
+                    ImageIO.read(new javax.imageio.stream
+                            .MemoryCacheImageInputStream(in)));
+        }
     }
 }
 
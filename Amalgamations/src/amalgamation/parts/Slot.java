@@ -26,6 +26,9 @@ import java.io.Serializable;
  * @author Caleb Rush
  */
 public class Slot<T extends Part> implements Serializable {
+    // Pinned so that previously saved Part and Amalgamation files still load.
+    private static final long serialVersionUID = 7588282177631395311L;
+    
     // The x position of the slot on the body.
     private final int x;
     // The y position of the slot on the body.
@@ -38,6 +41,8 @@ public class Slot<T extends Part> implements Serializable {
     private boolean flip;
     // The body part connected to the slot.
     private T part;
+    // The Body this Slot belongs to, which is notified when the Part changes.
+    private transient Body owner;
     
     /**
      * Constructs a new Slot object positioned at the Body's origin point (0, 0)
@@ -254,6 +259,20 @@ public class Slot<T extends Part> implements Serializable {
      */
     public void setPart(T part) {
         this.part = part;
+        
+        // Let the owning Body know its cached totals are out of date.
+        if (owner != null)
+            owner.invalidateAggregates();
+    }
+    
+    /**
+     * Sets the Body that should be notified whenever the connected Part
+     * changes.
+     * 
+     * @param owner the Body this Slot belongs to
+     */
+    void setOwner(Body owner) {
+        this.owner = owner;
     }
     
     /**
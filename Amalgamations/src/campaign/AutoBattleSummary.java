@@ -0,0 +1,99 @@
+package campaign;
+
+import amalgamation.Amalgamation;
+import amalgamation.ProgressionEvent;
+
+/**
+ * An AutoBattleSummary describes the outcome of auto-battling a group of
+ * Amalgamations in a CampaignLevel.
+ *
+ * @author Caleb Rush
+ */
+public class AutoBattleSummary {
+    // The Amalgamation that did the battling.
+    private final Amalgamation          player;
+    // The number of Battles won and lost.
+    private final int                   wins;
+    private final int                   losses;
+    // The total experience the player gained.
+    private final int                   experience;
+    // The level ups and Abilities learned from the experience.
+    private final ProgressionEvent[]    events;
+    
+    /**
+     * Constructs a new AutoBattleSummary.
+     *
+     * @param player the Amalgamation that did the battling
+     * @param wins the number of Battles the player won
+     * @param losses the number of Battles the player lost
+     * @param experience the total experience the player gained
+     * @param events the events returned when the experience was gained
+     */
+    public AutoBattleSummary(Amalgamation player, int wins, int losses,
+            int experience, ProgressionEvent[] events) {
+        this.player = player;
+        this.wins = wins;
+        this.losses = losses;
+        this.experience = experience;
+        this.events = events;
+    }
+    
+    /**
+     * Retrieves the level ups and Abilities learned from the experience the
+     * player gained.
+     *
+     * @return the events returned by Amalgamation::gainExp
+     */
+    public ProgressionEvent[] getEvents() {
+        return events;
+    }
+    
+    /**
+     * Retrieves the total experience the player gained.
+     *
+     * @return the total experience gained
+     */
+    public int getExperience() {
+        return experience;
+    }
+    
+    /**
+     * Retrieves the number of Battles the player lost.
+     *
+     * @return the number of Battles lost
+     */
+    public int getLosses() {
+        return losses;
+    }
+    
+    /**
+     * Builds a short message describing the outcome to be shown to the user.
+     *
+     * @return the message describing the outcome
+     */
+    public String getMessage() {
+        if (wins + losses == 0)
+            return "There was no one left to battle.";
+        
+        return String.format("%s won %d of %d battles and gained %d EXP!",
+                player.getName(), wins, wins + losses, experience);
+    }
+    
+    /**
+     * Retrieves the Amalgamation that did the battling.
+     *
+     * @return the player Amalgamation
+     */
+    public Amalgamation getPlayer() {
+        return player;
+    }
+    
+    /**
+     * Retrieves the number of Battles the player won.
+     *
+     * @return the number of Battles won
+     */
+    public int getWins() {
+        return wins;
+    }
+}
@@ -1,15 +1,19 @@
 package campaign;
 
 import amalgamation.Amalgamation;
+import amalgamation.ProgressionEvent;
 import amalgamation.battle.AIController;
+import amalgamation.battle.Battle;
 import amalgamation.parts.Arm;
 import amalgamation.parts.Body;
 import amalgamation.parts.Head;
 import amalgamation.parts.Leg;
 
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 
 import menus.components.BattleDialog;
+import menus.components.LevelUpDialogs;
 
 /**
  * A CampaignLevel is a list of opponents that can be battled as a way of
@@ -29,17 +33,43 @@ import menus.components.BattleDialog;
  * Both Amalgamations of this type will be randomly generated using a specific
  * list of parts.
  * 
+ * Only a random seed is stored for each minion and guard. The Amalgamations
+ * are generated from their seeds when they are first needed, so a level always
+ * has the same minions and guards for as long as its levels and parts (and the
+ * rand resource files) stay the same, without having to save them.
+ * 
  * The boss Amalgamation will be statically defined and never change.
  * 
  * @author Caleb Rush
  */
 public class CampaignLevel implements Serializable {
+    private static final long serialVersionUID = 6880275091178833445L;
+    
+    // The threads that run auto-battles.
+    private static final java.util.concurrent.ExecutorService autoBattlers
+            = java.util.concurrent.Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(), r -> {
+                        Thread thread = new Thread(r, "Auto Battler");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+    // The threads that generate opponents in the background.
+    private static final java.util.concurrent.ExecutorService generators
+            = java.util.concurrent.Executors.newFixedThreadPool(2, r -> {
+                Thread thread = new Thread(r, "Opponent Generator");
+                thread.setDaemon(true);
+                return thread;
+            });
+    
     // The name of the level.
     private String              name;
-    // The minion Amalgamations.
-    private Amalgamation[]      minions;
-    // The guard Amalgamations.
-    private Amalgamation[]      guards;
+    // The minion Amalgamations, once they're generated.
+    private transient Amalgamation[] minions;
+    // The guard Amalgamations, once they're generated.
+    private transient Amalgamation[] guards;
+    // The seeds the minions and guards are generated from.
+    private long[]              minionSeeds;
+    private long[]              guardSeeds;
     // The boss Amalgamation.
     private Amalgamation        boss;
     // Whether or not each Amalgamation was defeated.
@@ -54,6 +84,10 @@ public class CampaignLevel implements Serializable {
     private Body[]              bodies;
     private Head[]              heads;
     private Leg[]               legs;
+    // The generation of the minions and guards. These are null if generation
+    // hasn't been started or was cancelled.
+    private transient CompletableFuture<Amalgamation[]> minionsFuture;
+    private transient CompletableFuture<Amalgamation[]> guardsFuture;
     
     /**
      * Creates a new CampaignLevel with the specified characteristics.
@@ -120,6 +154,8 @@ public class CampaignLevel implements Serializable {
         this.name = name;
         minions = new Amalgamation[numMinions];
         guards = new Amalgamation[numGuards];
+        minionSeeds = newSeeds(numMinions);
+        guardSeeds = newSeeds(numGuards);
         minionsDefeated = new boolean[numMinions];
         guardsDefeated = new boolean[numGuards];
         this.minionsLevel = minionsLevel;
@@ -131,6 +167,163 @@ public class CampaignLevel implements Serializable {
         this.legs = legs;
     }
     
+    /**
+     * Battles every undefeated guard without displaying anything.
+     * 
+     * @param playerAmalgamation the Amalgamation that will battle the guards
+     * @param strategy the strategy the player Amalgamation will battle with.
+     *                 This should be one of the AIController.STRATEGY_XXXX
+     *                 constants
+     * @return the outcome of the Battles
+     * @throws IllegalStateException if the guards could not be generated
+     * @see CampaignLevel#autoBattleMinions
+     */
+    public AutoBattleSummary autoBattleGuards(Amalgamation playerAmalgamation,
+            int strategy) throws IllegalStateException {
+        return autoBattle(getGuards(), guardsDefeated, playerAmalgamation, 
+                strategy);
+    }
+    
+    /**
+     * Battles every undefeated minion without displaying anything.
+     * 
+     * The player Amalgamation is controlled by an AIController using the
+     * given strategy. Every Battle is fought by a separate copy of the player
+     * Amalgamation, so the Battles are independent of each other and are
+     * simulated in parallel. This blocks until they have all finished.
+     * 
+     * Once every Battle is over, the defeated minions are marked as defeated,
+     * and the experience from all of them is given to the player Amalgamation
+     * at once before it is saved.
+     * 
+     * @param playerAmalgamation the Amalgamation that will battle the minions
+     * @param strategy the strategy the player Amalgamation will battle with.
+     *                 This should be one of the AIController.STRATEGY_XXXX
+     *                 constants
+     * @return the outcome of the Battles, including any level ups, which are
+     *         up to the caller to present
+     * @throws IllegalStateException if the minions could not be generated
+     * @see CampaignLevel#battleAllMinions
+     */
+    public AutoBattleSummary autoBattleMinions(Amalgamation playerAmalgamation,
+            int strategy) throws IllegalStateException {
+        return autoBattle(getMinions(), minionsDefeated, playerAmalgamation, 
+                strategy);
+    }
+    
+    // Battles each of the given opponents that is not marked as defeated and
+    // rewards the player for the ones it defeats.
+    private AutoBattleSummary autoBattle(Amalgamation[] opponents, 
+            boolean[] defeated, Amalgamation playerAmalgamation, 
+            int strategy) {
+        // Serialize the player once so that each Battle can have its own copy.
+        byte[] player;
+        try {
+            java.io.ByteArrayOutputStream bytes 
+                    = new java.io.ByteArrayOutputStream();
+            try (java.io.ObjectOutputStream out 
+                    = new java.io.ObjectOutputStream(bytes)) {
+                out.writeObject(playerAmalgamation);
+            }
+            player = bytes.toByteArray();
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(
+                    "The player Amalgamation could not be copied", e);
+        }
+        
+        // Start a Battle for each undefeated opponent.
+        java.util.ArrayList<Integer> indices = new java.util.ArrayList<>();
+        java.util.ArrayList<java.util.concurrent.Future<Boolean>> results 
+                = new java.util.ArrayList<>();
+        for (int i = 0; i < opponents.length; i++) {
+            if (defeated[i] || opponents[i] == null)
+                continue;
+            
+            Amalgamation opponent = opponents[i];
+            indices.add(i);
+            results.add(autoBattlers.submit(() -> Battle.simulate(
+                    copy(player), opponent, new AIController(strategy), 
+                    new AIController()).isPlayerWon()));
+        }
+        
+        // Record the outcome of each Battle.
+        int wins = 0, experience = 0;
+        for (int i = 0; i < indices.size(); i++) {
+            boolean won;
+            try {
+                won = results.get(i).get();
+            } catch (InterruptedException 
+                    | java.util.concurrent.ExecutionException e) {
+                // Count Battles that couldn't finish as losses.
+                e.printStackTrace();
+                won = false;
+            }
+            
+            if (won) {
+                wins++;
+                experience += opponents[indices.get(i)]
+                        .getDefeatedExperience();
+                defeated[indices.get(i)] = true;
+            }
+        }
+        
+        // Reward the player all at once.
+        ProgressionEvent[] events = playerAmalgamation.gainExp(experience);
+        playerAmalgamation.resetCurrentStats();
+        util.Amalgamations.saveAsync(playerAmalgamation);
+        
+        return new AutoBattleSummary(playerAmalgamation, wins, 
+                indices.size() - wins, experience, events);
+    }
+    
+    /**
+     * Auto-battles every undefeated guard and then displays the outcome.
+     * 
+     * This blocks until the user has dismissed the summary and any level ups.
+     * 
+     * @param playerAmalgamation the Amalgamation that will battle the guards
+     * @param strategy the strategy the player Amalgamation will battle with.
+     *                 This should be one of the AIController.STRATEGY_XXXX
+     *                 constants
+     * @see CampaignLevel#autoBattleGuards
+     */
+    public void battleAllGuards(Amalgamation playerAmalgamation, 
+            int strategy) {
+        AutoBattleSummary summary;
+        try {
+            summary = autoBattleGuards(playerAmalgamation, strategy);
+        } catch (IllegalStateException e) {
+            // There is no one to battle.
+            e.printStackTrace();
+            return;
+        }
+        LevelUpDialogs.showAutoBattleSummary(null, summary);
+    }
+    
+    /**
+     * Auto-battles every undefeated minion and then displays the outcome.
+     * 
+     * This blocks until the user has dismissed the summary and any level ups.
+     * 
+     * @param playerAmalgamation the Amalgamation that will battle the minions
+     * @param strategy the strategy the player Amalgamation will battle with.
+     *                 This should be one of the AIController.STRATEGY_XXXX
+     *                 constants
+     * @see CampaignLevel#autoBattleMinions
+     */
+    public void battleAllMinions(Amalgamation playerAmalgamation, 
+            int strategy) {
+        AutoBattleSummary summary;
+        try {
+            summary = autoBattleMinions(playerAmalgamation, strategy);
+        } catch (IllegalStateException e) {
+            // There is no one to battle.
+            e.printStackTrace();
+            return;
+        }
+        LevelUpDialogs.showAutoBattleSummary(null, summary);
+    }
+    
     /**
      * Battles the guards at the specified index.
      * 
@@ -144,8 +337,16 @@ public class CampaignLevel implements Serializable {
         
         // Set up a new Battle with the minion being controlled by an AI and the
         // player controlling their Amalgamation.
+        Amalgamation guard;
+        try {
+            guard = getGuards()[index];
+        } catch (IllegalStateException e) {
+            // There is no one to battle.
+            e.printStackTrace();
+            return;
+        }
         AIController ai = new AIController();
-        BattleDialog.startBattle(ai, playerAmalgamation, guards[index]);
+        BattleDialog.startBattle(ai, playerAmalgamation, guard);
     }
     
     /**
@@ -161,8 +362,132 @@ public class CampaignLevel implements Serializable {
         
         // Set up a new Battle with the minion being controlled by an AI and the
         // player controlling their Amalgamation.
+        Amalgamation minion;
+        try {
+            minion = getMinions()[index];
+        } catch (IllegalStateException e) {
+            // There is no one to battle.
+            e.printStackTrace();
+            return;
+        }
         AIController ai = new AIController();
-        BattleDialog.startBattle(ai, playerAmalgamation, minions[index]);
+        BattleDialog.startBattle(ai, playerAmalgamation, minion);
+    }
+    
+    /**
+     * Stops generating the minions and guards if they are being generated in
+     * the background.
+     * 
+     * Opponents that have already been generated are kept.
+     */
+    public synchronized void cancelGeneration() {
+        if (minionsFuture != null)
+            minionsFuture.cancel(false);
+        if (guardsFuture != null)
+            guardsFuture.cancel(false);
+        minionsFuture = null;
+        guardsFuture = null;
+    }
+    
+    // Starts generating an opponent from each of the given seeds at the given
+    // level on a background thread. Unless the generation is cancelled, the
+    // opponents are stored with the given action before the returned future
+    // completes. If the random names can't be loaded, nothing is stored and
+    // the future completes exceptionally, so that the next call tries again.
+    private CompletableFuture<Amalgamation[]> generate(long[] seeds, int level,
+            java.util.function.Consumer<Amalgamation[]> store) {
+        // Use the Parts the level has right now.
+        Arm[] arms = this.arms;
+        Body[] bodies = this.bodies;
+        Head[] heads = this.heads;
+        Leg[] legs = this.legs;
+        
+        CompletableFuture<Amalgamation[]> future = new CompletableFuture<>();
+        generators.execute(() -> {
+            try {
+                Amalgamation[] generated = new Amalgamation[seeds.length];
+                // Load the names once for every opponent.
+                String[] names = util.Randoms.loadNames();
+                String[] adjectives = util.Randoms.loadAdjectives();
+                
+                // Generate each opponent, stopping early if the generation is
+                // cancelled.
+                for (int i = 0; i < seeds.length && !future.isDone(); i++) {
+                    // Every random choice comes from the opponent's seed.
+                    java.util.Random random = new java.util.Random(seeds[i]);
+                    generated[i] = new Amalgamation(
+                            util.Randoms.randomName(names, adjectives, 
+                                    random),
+                            util.Parts.randomBody(arms, bodies, heads, legs, 
+                                    random), 
+                            random);
+                    generated[i].setLevel(level, random);
+                }
+                
+                synchronized (this) {
+                    if (!future.isDone())
+                        store.accept(generated);
+                }
+                future.complete(generated);
+            } catch (java.io.IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        
+        return future;
+    }
+    
+    /**
+     * Starts generating the guards on a background thread if they have not
+     * been generated and are not being generated already.
+     * 
+     * The guards are kept until the level is reset.
+     * 
+     * @return a future that completes with the guards once they have been
+     *         generated. It is cancelled if the level is reset first, and
+     *         completes exceptionally if they could not be generated
+     */
+    public synchronized CompletableFuture<Amalgamation[]> generateGuards() {
+        if (guardsFuture == null 
+                || guardsFuture.isDone() && guards[0] == null)
+            guardsFuture = guards[0] != null?
+                    CompletableFuture.completedFuture(guards):
+                    generate(guardSeeds, guardsLevel, generated -> 
+                            System.arraycopy(generated, 0, guards, 0, 
+                                    guards.length));
+        
+        return guardsFuture;
+    }
+    
+    /**
+     * Starts generating the minions on a background thread if they have not
+     * been generated and are not being generated already.
+     * 
+     * The minions are kept until the level is reset.
+     * 
+     * @return a future that completes with the minions once they have been
+     *         generated. It is cancelled if the level is reset first, and
+     *         completes exceptionally if they could not be generated
+     */
+    public synchronized CompletableFuture<Amalgamation[]> generateMinions() {
+        if (minionsFuture == null 
+                || minionsFuture.isDone() && minions[0] == null)
+            minionsFuture = minions[0] != null?
+                    CompletableFuture.completedFuture(minions):
+                    generate(minionSeeds, minionsLevel, generated -> 
+                            System.arraycopy(generated, 0, minions, 0, 
+                                    minions.length));
+        
+        return minionsFuture;
+    }
+    
+    // Deserializes a copy of an Amalgamation.
+    private static Amalgamation copy(byte[] amalgamation) throws 
+            java.io.IOException, ClassNotFoundException {
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                new java.io.ByteArrayInputStream(amalgamation))) {
+            return (Amalgamation)in.readObject();
+        }
     }
     
     /**
@@ -178,56 +503,44 @@ public class CampaignLevel implements Serializable {
      * Retrieves the guards in the level.
      * 
      * If the guards have not been generated yet, this method will generate
-     * them.
+     * them, or wait for them to finish generating in the background.
      * 
      * @return the guards in the level
+     * @throws IllegalStateException if the guards could not be generated
      */
-    public Amalgamation[] getGuards() {
-        // Check if the minions have been generated yet.
-        if (guards[0] == null) {
-            // Generate the minions.
-            for (int i = 0; i < guards.length; i++) {
-                try {
-                    // Generate the minion using the given lists of parts.
-                    guards[i] = util.Amalgamations.randomAmalgamation(arms, 
-                            bodies, heads, legs);
-                    // Set the level of the minion.
-                    guards[i].setLevel(guardsLevel);
-                } catch (java.io.IOException e) {
-                    e.printStackTrace();
-                }
+    public Amalgamation[] getGuards() throws IllegalStateException {
+        while (true) {
+            try {
+                return generateGuards().join();
+            } catch (java.util.concurrent.CancellationException e) {
+                // The level was reset, so generate the new guards.
+            } catch (java.util.concurrent.CompletionException e) {
+                throw new IllegalStateException(
+                        "The guards could not be generated", e.getCause());
             }
         }
-        
-        return guards;
     }
     
     /**
      * Retrieves the minions in the level.
      * 
      * If the minions have not been generated yet, this method will generate
-     * them.
+     * them, or wait for them to finish generating in the background.
      * 
      * @return the minions in the level
+     * @throws IllegalStateException if the minions could not be generated
      */
-    public Amalgamation[] getMinions() {
-        // Check if the minions have been generated yet.
-        if (minions[0] == null) {
-            // Generate the minions.
-            for (int i = 0; i < minions.length; i++) {
-                try {
-                    // Generate the minion using the given lists of parts.
-                    minions[i] = util.Amalgamations.randomAmalgamation(arms, 
-                            bodies, heads, legs);
-                    // Set the level of the minion.
-                    minions[i].setLevel(minionsLevel);
-                } catch (java.io.IOException e) {
-                    e.printStackTrace();
-                }
+    public Amalgamation[] getMinions() throws IllegalStateException {
+        while (true) {
+            try {
+                return generateMinions().join();
+            } catch (java.util.concurrent.CancellationException e) {
+                // The level was reset, so generate the new minions.
+            } catch (java.util.concurrent.CompletionException e) {
+                throw new IllegalStateException(
+                        "The minions could not be generated", e.getCause());
             }
         }
-        
-        return minions;
     }
     
     /**
@@ -274,11 +587,52 @@ public class CampaignLevel implements Serializable {
                 && minionsDefeated[index];
     }
     
+    // Creates the given number of random seeds.
+    private static long[] newSeeds(int count) {
+        java.util.Random random = new java.util.Random();
+        long[] seeds = new long[count];
+        for (int i = 0; i < count; i++)
+            seeds[i] = random.nextLong();
+        
+        return seeds;
+    }
+    
+    /**
+     * Starts generating the minions and guards on background threads so that
+     * they are ready by the time they are battled.
+     * 
+     * This should be called as soon as the level is selected.
+     */
+    public void pregenerate() {
+        generateMinions();
+        generateGuards();
+    }
+    
+    // Reads the level, making room for the minions and guards to be generated.
+    private void readObject(java.io.ObjectInputStream in) 
+            throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        
+        // Levels saved before seeds were stored get new opponents.
+        if (minionSeeds == null)
+            minionSeeds = newSeeds(minionsDefeated.length);
+        if (guardSeeds == null)
+            guardSeeds = newSeeds(guardsDefeated.length);
+        
+        minions = new Amalgamation[minionSeeds.length];
+        guards = new Amalgamation[guardSeeds.length];
+    }
+    
     /**
      * Resets the all of the generated Amalgamations and sets them all as
      * undefeated.
+     * 
+     * Any generation in progress is cancelled. The same Amalgamations will
+     * be generated from their seeds the next time they are needed.
      */
-    public void reset() {
+    public synchronized void reset() {
+        cancelGeneration();
+        
         // Set all the defeated enemies as false and remove the generated
         // Amalgamations.
         for (int i = 0; i < minionsDefeated.length; i++) {
@@ -384,9 +738,13 @@ public class CampaignLevel implements Serializable {
      * 
      * @param numGuards the number of guards to have in the level
      */
-    public void setNumGuards(int numGuards) {
+    public synchronized void setNumGuards(int numGuards) {
         if (numGuards > 0) {
+            if (guardsFuture != null)
+                guardsFuture.cancel(false);
+            guardsFuture = null;
             guards = new Amalgamation[numGuards];
+            guardSeeds = newSeeds(numGuards);
             guardsDefeated = new boolean[numGuards];
         }
     }
@@ -396,9 +754,13 @@ public class CampaignLevel implements Serializable {
      * 
      * @param numMinions the number of minions to have in the level
      */
-    public void setNumMinions(int numMinions) {
+    public synchronized void setNumMinions(int numMinions) {
         if (numMinions > 0) {
+            if (minionsFuture != null)
+                minionsFuture.cancel(false);
+            minionsFuture = null;
             minions = new Amalgamation[numMinions];
+            minionSeeds = newSeeds(numMinions);
             minionsDefeated = new boolean[numMinions];
         }
     }
@@ -367,6 +367,16 @@ public class MainMenu extends javax.swing.JPanel {
         javax.swing.JFrame window = new javax.swing.JFrame();
         window.setDefaultCloseOperation(javax.swing.JFrame.EXIT_ON_CLOSE);
         
+        // Load the assets in the background while the logo is displayed.
+        // The progress is shown in the window's title.
+        util.AssetRegistry.preload((loaded, total) ->
+                javax.swing.SwingUtilities.invokeLater(() ->
+                        window.setTitle(String.format(
+                                "Amalgamations (Loading %d/%d)",
+                                loaded, total))))
+                .thenRun(() -> javax.swing.SwingUtilities.invokeLater(() ->
+                        window.setTitle("Amalgamations")));
+        
         MainMenu menu = new MainMenu();
         window.add(menu);
         
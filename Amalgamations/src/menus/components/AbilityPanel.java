@@ -261,6 +261,9 @@ public class AbilityPanel extends acomponent.AComponent {
                 PowerAccuracyLabel.setForeground(TEXT_DISABLED);
                 CooldownLabel.setForeground(TEXT_DISABLED);
             }
+            
+            // Render the new content if it's cached.
+            invalidateLayer();
         }
     }
     
@@ -47,50 +47,32 @@ public class AmalgamationDialog extends acomponent.ADialog {
                 javax.swing.SwingConstants.CENTER);
         add(instructionsLabel, java.awt.BorderLayout.NORTH);
         
-        // Create the panel containing all of the panels displaying the
-        // Amalgamations.
-        javax.swing.JPanel selectPanel = new javax.swing.JPanel();
-        selectPanel.setBackground(java.awt.Color.WHITE);
-        selectPanel.setLayout(new java.awt.GridBagLayout());
+        // Make sure there is a directory to select Amalgamations from.
+        if (!new java.io.File(util.Amalgamations.AMAL_RES_DIR).isDirectory())
+            throw new java.io.IOException("The directory " 
+                    + util.Amalgamations.AMAL_RES_DIR + " does not exist");
         
-        // Create the scroll pane for the select panel.
+        // Create the grid displaying all of the Amalgamations. Only the names
+        // and levels are read from the index up front; the Amalgamations
+        // themselves are loaded as they are scrolled into view.
+        AmalgamationGrid selectGrid = new AmalgamationGrid(
+                util.AmalgamationIndex.getEntries(
+                        util.AmalgamationIndex.BY_NAME), COLUMNS);
+        selectGrid.setSelectAction(selected -> {
+            // Set the amalgamation to the chosen amalgamation.
+            amal = selected;
+            // Return control to the caller.
+            hideDialog();
+        });
+        
+        // Create the scroll pane for the select grid.
         javax.swing.JScrollPane selectScrollPane = 
-                new javax.swing.JScrollPane(selectPanel);
+                new javax.swing.JScrollPane(selectGrid);
         selectScrollPane.setBorder(
                 javax.swing.BorderFactory.createEmptyBorder());
         selectScrollPane.getVerticalScrollBar().setUnitIncrement(10);
         add(selectScrollPane);
         
-        // Fill the selectPanel with AmalgamationNamePanels.
-        Amalgamation[] amals = util.Amalgamations.getAmalgamations(
-                util.Amalgamations.AMAL_RES_DIR);
-        for (int i = 0; i < amals.length; i++) {
-            // Create an AmalgamationNamePanel for each Amalgamation.
-            AmalgamationNamePanel panel = new AmalgamationNamePanel(amals[i]);
-            panel.setPreferredSize(new java.awt.Dimension(
-                    selectPanel.getWidth() / COLUMNS, 
-                    150));
-            
-            // Set the clickAction for the panel.
-            final int index = i;
-            panel.setClickAction(() -> {
-                // Set the amalgamation to the chosen amalgamation.
-                amal = amals[index];
-                // Return control to the caller.
-                hideDialog();
-            });
-            
-            // Create constraints for the panel.
-            java.awt.GridBagConstraints constraints 
-                    = new java.awt.GridBagConstraints();
-            constraints.gridx = i % COLUMNS;
-            constraints.gridy = i / COLUMNS;
-            constraints.fill = java.awt.GridBagConstraints.BOTH;
-            constraints.weightx = 1.0;
-            
-            // Add the panel to the select panel.
-            selectPanel.add(panel, constraints);
-        }
         // Add a cancel button.
         addButton("Cancel", e -> hideDialog());
     }
@@ -0,0 +1,290 @@
+package menus.components;
+
+import amalgamation.Amalgamation;
+import util.AmalgamationIndex;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+/**
+ * An AmalgamationGrid displays a grid of AmalgamationNamePanels for a list of
+ * saved Amalgamations inside of a JScrollPane.
+ *
+ * The grid is virtualized: only the rows that are visible in the scroll pane
+ * (plus one row above and below) have panels, and panels that scroll out of
+ * view are reused for the rows that scroll into view. Each panel shows the
+ * Amalgamation's name and level from the AmalgamationIndex right away, while
+ * the Amalgamation itself is loaded and its image is rendered on a background
+ * thread. Only the Amalgamations that are actually scrolled to are ever
+ * loaded, and only the most recently displayed ones are kept in memory.
+ *
+ * @author Caleb Rush
+ */
+public class AmalgamationGrid extends javax.swing.JPanel
+        implements javax.swing.Scrollable {
+    private static final long serialVersionUID = 1L;
+    
+    // The height of each row of panels.
+    public static final int ROW_HEIGHT = 150;
+    // The number of rows of loaded Amalgamations kept in memory, which is a
+    // few screens' worth.
+    private static final int LOADED_ROWS = 16;
+    
+    // The thread that loads and renders the Amalgamations in the background.
+    private static final java.util.concurrent.ExecutorService loader
+            = java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "Amalgamation Grid Loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+    
+    // The index Entries of the Amalgamations displayed in the grid.
+    private final AmalgamationIndex.Entry[]                 entries;
+    // The number of columns of panels.
+    private final int                                       columns;
+    // The panels currently in the grid, by the index of their Amalgamation.
+    private final HashMap<Integer, AmalgamationNamePanel>   cells;
+    // Panels that have scrolled out of view and can be reused.
+    private final ArrayDeque<AmalgamationNamePanel>         spareCells;
+    // The most recently displayed Amalgamations that have finished loading,
+    // by name, from the least to the most recently displayed.
+    private final LinkedHashMap<String, Amalgamation>       loaded;
+    // The names of the Amalgamations that are waiting to be loaded. Requests
+    // for Amalgamations that scroll out of view before they are loaded are
+    // dropped.
+    private final Set<String>                               requested;
+    // The action performed when an Amalgamation is selected.
+    private java.util.function.Consumer<Amalgamation>       selectAction;
+    // Updates the panels whenever the grid is scrolled, and the viewport it
+    // is listening to.
+    private final javax.swing.event.ChangeListener          scrollListener
+            = e -> updateCells();
+    private javax.swing.JViewport                           viewport;
+    
+    /**
+     * Creates a new AmalgamationGrid that displays the Amalgamations with the
+     * given index Entries.
+     *
+     * The grid should be placed directly inside a JScrollPane.
+     *
+     * @param entries the index Entries of the saved Amalgamations to display,
+     *                in the order to display them
+     * @param columns the number of columns of panels to display
+     */
+    public AmalgamationGrid(AmalgamationIndex.Entry[] entries, int columns) {
+        this.entries = entries;
+        this.columns = columns;
+        cells = new HashMap<>();
+        spareCells = new ArrayDeque<>();
+        int capacity = columns * LOADED_ROWS;
+        loaded = new LinkedHashMap<String, Amalgamation>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(
+                    java.util.Map.Entry<String, Amalgamation> eldest) {
+                return size() > capacity;
+            }
+        };
+        requested = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        
+        // The panels are positioned manually.
+        setLayout(null);
+        setBackground(java.awt.Color.WHITE);
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        // Update the panels whenever the grid is scrolled.
+        if (viewport == null && getParent() instanceof javax.swing.JViewport) {
+            viewport = (javax.swing.JViewport)getParent();
+            viewport.addChangeListener(scrollListener);
+        }
+    }
+    
+    @Override
+    public void removeNotify() {
+        // Stop listening until the grid is added again.
+        if (viewport != null) {
+            viewport.removeChangeListener(scrollListener);
+            viewport = null;
+        }
+        super.removeNotify();
+    }
+    
+    @Override
+    public void doLayout() {
+        updateCells();
+    }
+    
+    @Override
+    public java.awt.Dimension getPreferredSize() {
+        int rows = (entries.length + columns - 1) / columns;
+        return new java.awt.Dimension(
+                getParent() == null? 0 : getParent().getWidth(),
+                rows * ROW_HEIGHT);
+    }
+    
+    @Override
+    public java.awt.Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+    
+    @Override
+    public int getScrollableBlockIncrement(java.awt.Rectangle visibleRect,
+            int orientation, int direction) {
+        return visibleRect.height;
+    }
+    
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+    
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+    
+    @Override
+    public int getScrollableUnitIncrement(java.awt.Rectangle visibleRect,
+            int orientation, int direction) {
+        return 10;
+    }
+    
+    /**
+     * Sets the action to be performed when the user clicks one of the
+     * Amalgamations in the grid.
+     *
+     * If the clicked Amalgamation has not finished loading yet, it is loaded
+     * before the action is performed. Amalgamations that cannot be loaded
+     * cannot be selected.
+     *
+     * @param selectAction the action to perform with the selected Amalgamation
+     */
+    public void setSelectAction(
+            java.util.function.Consumer<Amalgamation> selectAction) {
+        this.selectAction = selectAction;
+    }
+    
+    // Makes sure that exactly the visible rows have panels.
+    private void updateCells() {
+        if (entries.length == 0 || getWidth() == 0)
+            return;
+        
+        // Determine which Amalgamations are visible, with an extra row above
+        // and below so that panels are ready before they scroll into view.
+        java.awt.Rectangle visible = getVisibleRect();
+        int rows = (entries.length + columns - 1) / columns;
+        int firstRow = Math.max(0, visible.y / ROW_HEIGHT - 1);
+        int lastRow = Math.min(rows - 1,
+                (visible.y + visible.height) / ROW_HEIGHT + 1);
+        int first = firstRow * columns;
+        int last = Math.min(entries.length - 1, (lastRow + 1) * columns - 1);
+        
+        // Recycle the panels that are no longer visible.
+        java.util.Iterator<java.util.Map.Entry<Integer, AmalgamationNamePanel>>
+                it = cells.entrySet().iterator();
+        while (it.hasNext()) {
+            java.util.Map.Entry<Integer, AmalgamationNamePanel> cell
+                    = it.next();
+            if (cell.getKey() < first || cell.getKey() > last) {
+                requested.remove(entries[cell.getKey()].getName());
+                remove(cell.getValue());
+                spareCells.push(cell.getValue());
+                it.remove();
+            }
+        }
+        
+        // Give each visible Amalgamation a panel.
+        int cellWidth = getWidth() / columns;
+        for (int i = first; i <= last; i++) {
+            AmalgamationNamePanel cell = cells.get(i);
+            if (cell == null) {
+                cell = bindCell(i);
+                cells.put(i, cell);
+                add(cell);
+            }
+            
+            cell.setBounds((i % columns) * cellWidth,
+                    (i / columns) * ROW_HEIGHT, cellWidth, ROW_HEIGHT);
+        }
+        
+        repaint();
+    }
+    
+    // Prepares a panel to display the Amalgamation at the given index.
+    private AmalgamationNamePanel bindCell(int index) {
+        String name = entries[index].getName();
+        
+        // Reuse a spare panel if there is one.
+        AmalgamationNamePanel cell = spareCells.poll();
+        if (cell == null)
+            cell = new AmalgamationNamePanel(name);
+        else
+            cell.setAmalgamationName(name);
+        cell.setLevel(entries[index].getLevel());
+        
+        cell.setAmalgamation(loaded.get(name));
+        cell.setClickAction(() -> select(name));
+        
+        // Load the Amalgamation in the background if it hasn't been loaded.
+        if (!loaded.containsKey(name) && requested.add(name))
+            loader.execute(() -> load(name));
+        
+        return cell;
+    }
+    
+    // Loads and renders the Amalgamation with the given name on the loader
+    // thread, then hands it to its panel.
+    private void load(String name) {
+        // Skip Amalgamations that have scrolled out of view.
+        if (!requested.contains(name))
+            return;
+        
+        Amalgamation amal;
+        try {
+            amal = util.Amalgamations.load(name);
+            // Render the full image here so the panel only has to draw it.
+            if (amal != null)
+                amal.getFullImage();
+        } catch (IllegalArgumentException e) {
+            // The file could not be read, so the panel keeps just the name.
+            amal = null;
+        }
+        
+        final Amalgamation result = amal;
+        javax.swing.SwingUtilities.invokeLater(() -> {
+            requested.remove(name);
+            loaded.put(name, result);
+            
+            // Update the panel if it's still displaying this Amalgamation.
+            cells.forEach((index, cell) -> {
+                if (entries[index].getName().equals(name))
+                    cell.setAmalgamation(result);
+            });
+        });
+    }
+    
+    // Performs the select action with the Amalgamation with the given name.
+    private void select(String name) {
+        if (selectAction == null)
+            return;
+        
+        // Load the Amalgamation now if it hasn't been loaded yet.
+        Amalgamation amal = loaded.get(name);
+        if (amal == null && !loaded.containsKey(name)) {
+            try {
+                amal = util.Amalgamations.load(name);
+            } catch (IllegalArgumentException e) {
+                amal = null;
+            }
+        }
+        
+        if (amal != null)
+            selectAction.accept(amal);
+    }
+}
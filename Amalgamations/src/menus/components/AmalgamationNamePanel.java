@@ -5,7 +5,7 @@ import java.awt.Color;
 
 /**
  * An AmalgamationNamePanel is a GUI element that can be used to display the
- * name and image of an Amalgamation.
+ * name, level and image of an Amalgamation.
  * 
  * @author Caleb Rush
  */
@@ -13,6 +13,8 @@ public class AmalgamationNamePanel extends acomponent.AComponent {
     // The panel that displays the image.
     private final AmalgamationPanel amalPanel;
     private javax.swing.JLabel nameLabel;
+    // The label that displays the level, which is empty until it is known.
+    private javax.swing.JLabel levelLabel;
     
     /**
      * Creates an AmalgamationNamePanel that displays the name and full image
@@ -21,10 +23,24 @@ public class AmalgamationNamePanel extends acomponent.AComponent {
      * @param amal the Amalgamation to display in the created panel.
      */
     public AmalgamationNamePanel(Amalgamation amal) {
+        this(amal.getName());
+        setAmalgamation(amal);
+    }
+    
+    /**
+     * Creates an AmalgamationNamePanel that only displays the given name
+     * until an Amalgamation is set with setAmalgamation.
+     * 
+     * This allows the panel to be shown while the Amalgamation itself is still
+     * being loaded.
+     * 
+     * @param name the name to display in the created panel
+     */
+    public AmalgamationNamePanel(String name) {
         // Set the layout.
         setLayout(new javax.swing.BoxLayout(this, javax.swing.BoxLayout.Y_AXIS));
-        // Create an AmalgamationPanel with the given Amalgamation.
-        amalPanel = new AmalgamationPanel(amal);
+        // Create an empty AmalgamationPanel.
+        amalPanel = new AmalgamationPanel();
         add(amalPanel);
         // Get rid of the border on the amalPanel.
         amalPanel.setBorder(javax.swing.BorderFactory.createEmptyBorder());
@@ -33,14 +49,24 @@ public class AmalgamationNamePanel extends acomponent.AComponent {
                 Color.LIGHT_GRAY));
         // Set the background.
         setBackground(new java.awt.Color(244, 67, 54));
-        // Initialize the JLabel.
-        initNameLabel();
+        // Initialize the JLabels.
+        initNameLabel(name);
+        initLevelLabel();
+    }
+    
+    // Initialize the level label.
+    private void initLevelLabel() {
+        levelLabel = new javax.swing.JLabel();
+        levelLabel.setFont(new java.awt.Font("Berlin Sans FB Demi", 
+                java.awt.Font.PLAIN, 14));
+        levelLabel.setForeground(Color.WHITE);
+        levelLabel.setAlignmentX(CENTER_ALIGNMENT);
+        add(levelLabel);
     }
     
     // Initialize the name label.
-    private void initNameLabel() {
-        nameLabel = new javax.swing.JLabel(
-                amalPanel.getAmalgamation().getName());
+    private void initNameLabel(String name) {
+        nameLabel = new javax.swing.JLabel(name);
         nameLabel.setFont(new java.awt.Font("Berlin Sans FB Demi", 
                 java.awt.Font.BOLD, 18));
         nameLabel.setForeground(Color.WHITE);
@@ -53,6 +79,50 @@ public class AmalgamationNamePanel extends acomponent.AComponent {
         super.paintComponent(g);
     }
     
+    /**
+     * Retrieves the Amalgamation being displayed by this panel.
+     * 
+     * @return the Amalgamation being displayed by this panel, or null if only
+     *         a name is being displayed
+     */
+    public Amalgamation getAmalgamation() {
+        return amalPanel.getAmalgamation();
+    }
+    
+    /**
+     * Sets the Amalgamation displayed by this panel.
+     * 
+     * @param amal the Amalgamation to be displayed by this panel. This can be
+     *             null to only display the name
+     */
+    public void setAmalgamation(Amalgamation amal) {
+        amalPanel.setAmalgamation(amal);
+        amalPanel.repaint();
+        if (amal != null) {
+            nameLabel.setText(amal.getName());
+            setLevel(amal.getLevel());
+        }
+    }
+    
+    /**
+     * Sets the name displayed by this panel.
+     * 
+     * @param name the name to be displayed by this panel
+     */
+    public void setAmalgamationName(String name) {
+        nameLabel.setText(name);
+    }
+    
+    /**
+     * Sets the level displayed by this panel, such as from the
+     * AmalgamationIndex before the Amalgamation itself has been loaded.
+     * 
+     * @param level the level to be displayed by this panel
+     */
+    public void setLevel(int level) {
+        levelLabel.setText("LV: " + level);
+    }
+    
     /**
      * Sets the Runnable to be run when this panel is clicked.
      * 
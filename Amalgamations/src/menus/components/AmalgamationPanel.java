@@ -111,23 +111,28 @@ public class AmalgamationPanel extends acomponent.AComponent {
         super.paintComponent(g);
         // Draw the image scaled to the size of the panel.
         if (amal != null) {
+            java.awt.image.BufferedImage image = amal.getFullImage();
             int width, height;
             if (getWidth() <= getHeight()) {
                 width = getWidth();
-                height = amal.getFullImage().getHeight() 
-                        * width / amal.getFullImage().getWidth();
+                height = image.getHeight() * width / image.getWidth();
             }
             else {
                 height = getHeight();
-                width = amal.getFullImage().getWidth() 
-                        * height / amal.getFullImage().getHeight();
+                width = image.getWidth() * height / image.getHeight();
             }
-            g.drawImage(flipped? amal.getFullFlippedImage() : amal.getFullImage(), 
-                    getWidth() / 2 - width / 2, 
-                    getHeight() / 2 - height / 2,
-                    width,
-                    height,
-                    null);
+            // Use a pre-scaled thumbnail so that repainting is a plain copy,
+            // unless the panel is still being resized. Flipping it is done
+            // while drawing instead of creating a new flipped image every
+            // time.
+            java.awt.image.BufferedImage thumbnail = util.Thumbnails
+                    .getSettledThumbnail(this, image, width, height);
+            int x = getWidth() / 2 - width / 2;
+            int y = getHeight() / 2 - height / 2;
+            if (flipped)
+                g.drawImage(thumbnail, x + width, y, -width, height, null);
+            else
+                g.drawImage(thumbnail, x, y, width, height, null);
         }
     }
     
@@ -138,6 +143,7 @@ public class AmalgamationPanel extends acomponent.AComponent {
      */
     public void setAmalgamation(Amalgamation amal) {
         this.amal = amal;
+        invalidateLayer();
     }
     
     /**
@@ -156,6 +162,7 @@ public class AmalgamationPanel extends acomponent.AComponent {
      */
     public void setFlipped(boolean flipped) {
         this.flipped = flipped;
+        invalidateLayer();
     }
 
     // <editor-fold desc="GUI Variables" defaultstate="collapsed">
@@ -1,6 +1,7 @@
 package menus.components;
 
 import amalgamation.Amalgamation;
+import amalgamation.ProgressionEvent;
 import amalgamation.battle.Battle;
 import amalgamation.battle.Controller;
 import java.awt.Color;
@@ -15,6 +16,18 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
     private static final int    ANIMATION_TIME = 400;
     // The amount of time a line of script stays on the screen.
     private static final int    SCRIPT_PAUSE = 2500;
+    // The speeds the player can switch between by pressing F, in order.
+    private static final double[] BATTLE_SPEEDS = 
+            {1, 2, 4, acomponent.Animator.INSTANT};
+    // The key that shows and hides the animation metrics overlay.
+    private static final int    METRICS_KEY = java.awt.event.KeyEvent.VK_F3;
+    // How often the animation metrics overlay is refreshed in milliseconds.
+    private static final int    METRICS_REFRESH = 250;
+    // The speed battles are animated at. It is changed on the event dispatch
+    // thread and read by the thread playing the battle.
+    private static volatile double battleSpeed = 1;
+    // The animation speed to return to once the battle is over.
+    private double              previousSpeed;
     // The move chosen to be returned by the chooseMove method.
     private int                 moveChosen;
     // Whether or not the player is ready to advance the script.
@@ -35,6 +48,8 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
     private java.awt.Rectangle  forfeitBounds;
     // A cover to cover the screen when animating in.
     private acomponent.AComponent cover;
+    // The animation metrics overlay, while it is shown.
+    private MetricsOverlay      metricsOverlay;
     
     // Animates all of the components into place.
     private void animateComponents() {
@@ -200,6 +215,18 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
         return moveChosen;
     }
     
+    // Switches to the next battle speed, going back to normal speed after the
+    // fastest one.
+    private void cycleBattleSpeed() {
+        int next = 0;
+        for (int i = 0; i < BATTLE_SPEEDS.length - 1; i++)
+            if (BATTLE_SPEEDS[i] == battleSpeed)
+                next = i + 1;
+        
+        setBattleSpeed(BATTLE_SPEEDS[next]);
+        acomponent.Animator.setSpeed(battleSpeed);
+    }
+    
     // Covers the screen with a white panel.
     private void coverScreen() {
         cover = new acomponent.AComponent(getWidth(), getHeight());
@@ -251,11 +278,16 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
             if (o != 0)
                 changeHealth(o, true);
             
-            // Pause until the user presses a key.
+            // Pause until the user presses a key. When the battle is sped up,
+            // the script also advances on its own after a shortened pause.
             scriptAdvance = false;
-            while (!scriptAdvance)
+            long shown = System.currentTimeMillis();
+            while (!scriptAdvance && !(battleSpeed > 1 
+                    && System.currentTimeMillis() - shown 
+                            >= acomponent.Animator.scale(SCRIPT_PAUSE)))
                 try {
-                    Thread.sleep(200);
+                    Thread.sleep(Math.max(1, Math.min(200, 
+                            acomponent.Animator.scale(SCRIPT_PAUSE))));
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
@@ -278,8 +310,42 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
             String[] script) {
         // Enact the script so the user can see how the battle ended.
         enactScript(script, player.getName(), opponent.getName());
+        // Stop refreshing the metrics once the dialog is gone.
+        javax.swing.SwingUtilities.invokeLater(this::hideMetricsOverlay);
         // Close the dialog.
         hideDialog();
+        // Return the rest of the game to its own speed.
+        acomponent.Animator.setSpeed(previousSpeed);
+    }
+    
+    @Override
+    public void gainedExperience(Amalgamation player, 
+            ProgressionEvent[] events) {
+        // The dialog has already closed, so present the events on their own.
+        LevelUpDialogs.showLevelUpDialogs(null, player, events);
+    }
+    
+    /**
+     * Retrieves the speed battles are animated at.
+     * 
+     * @return how many times faster than normal battles are animated
+     * @see BattleDialog#setBattleSpeed
+     */
+    public static double getBattleSpeed() {
+        return battleSpeed;
+    }
+    
+    // Removes the animation metrics overlay if it is shown, and stops
+    // recording the metrics unless they were already being recorded.
+    private void hideMetricsOverlay() {
+        if (metricsOverlay == null)
+            return;
+        
+        metricsOverlay.refresher.stop();
+        getLayeredPane().remove(metricsOverlay);
+        getLayeredPane().repaint();
+        acomponent.AnimatorMetrics.setEnabled(metricsOverlay.wasEnabled);
+        metricsOverlay = null;
     }
     
     // Prepares all components to be animated in for the first time.
@@ -341,6 +407,29 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
         animateIn(player);
     }
     
+    /**
+     * Sets the speed battles are animated at.
+     * 
+     * The speed is used for every animation while a BattleDialog is open.
+     * When it is faster than normal, each line of the script advances on its
+     * own once it has been shown for a proportionally shorter time, so sped
+     * up battles play out without any input. At Animator.INSTANT, every
+     * animation finishes immediately and the script advances without
+     * pausing, so lines may not be painted before they are replaced.
+     * 
+     * The player can also cycle through the speeds by pressing F during a
+     * battle. The speed is kept for later battles.
+     * 
+     * @param speed how many times faster than normal battles should be
+     *              animated, such as 2 or Animator.INSTANT
+     * @throws IllegalArgumentException if the speed is not positive
+     */
+    public static void setBattleSpeed(double speed) {
+        if (!(speed > 0))
+            throw new IllegalArgumentException("The speed must be positive");
+        battleSpeed = speed;
+    }
+    
     // Sets the information for Amalgamation dependent panels.
     private void setAmalgamations(Amalgamation player, Amalgamation opponent) {
         // Set the Amalgamations.
@@ -394,6 +483,9 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
             }
         }
         
+        // Animate the battle at the battle speed.
+        previousSpeed = acomponent.Animator.getSpeed();
+        acomponent.Animator.setSpeed(battleSpeed);
         // Set the Amalgamations for components that depend on them.
         setAmalgamations(player, opponent);
         // Set the last script to a default message until a real script is
@@ -452,6 +544,20 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
         repaint();
     }
     
+    // Shows the animation metrics overlay in the top left corner, recording
+    // the metrics while it is shown.
+    private void showMetricsOverlay() {
+        if (metricsOverlay != null)
+            return;
+        
+        metricsOverlay = new MetricsOverlay();
+        acomponent.AnimatorMetrics.setEnabled(true);
+        getLayeredPane().add(metricsOverlay, 
+                javax.swing.JLayeredPane.POPUP_LAYER);
+        metricsOverlay.refresh();
+        metricsOverlay.refresher.start();
+    }
+    
     // Updates the AbilityPanels.
     private void updateAmalgamation(Amalgamation player) {
         // Set the player's Abilities.
@@ -476,6 +582,58 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
             AbilPanel4.setVisible(false);        
     }
     
+    // A MetricsOverlay shows a summary of the AnimatorMetrics over the top of
+    // the dialog, refreshed a few times a second, to help diagnose stuttering
+    // animations.
+    private static class MetricsOverlay extends javax.swing.JComponent {
+        private static final long serialVersionUID = 1L;
+        
+        // The space between the edge of the overlay and the text.
+        private static final int        PADDING = 6;
+        // Whether or not the metrics were recorded before the overlay was
+        // shown.
+        private final boolean           wasEnabled = 
+                acomponent.AnimatorMetrics.isEnabled();
+        // The timer that refreshes the overlay.
+        private final javax.swing.Timer refresher = new javax.swing.Timer(
+                METRICS_REFRESH, e -> refresh());
+        // The lines of the summary being shown.
+        private String[]                lines = {};
+        
+        // Creates an overlay in the top left corner.
+        private MetricsOverlay() {
+            setFont(new java.awt.Font(java.awt.Font.MONOSPACED, 
+                    java.awt.Font.PLAIN, 12));
+            setLocation(PADDING, PADDING);
+        }
+        
+        @Override
+        protected void paintComponent(java.awt.Graphics g) {
+            java.awt.FontMetrics metrics = g.getFontMetrics(getFont());
+            g.setColor(new Color(0, 0, 0, 180));
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setColor(Color.WHITE);
+            g.setFont(getFont());
+            for (int i = 0; i < lines.length; i++)
+                g.drawString(lines[i], PADDING, 
+                        PADDING + metrics.getAscent() 
+                                + i * metrics.getHeight());
+        }
+        
+        // Reads the latest summary and resizes the overlay to fit it.
+        private void refresh() {
+            lines = acomponent.AnimatorMetrics.getSummary().split("\\R");
+            
+            java.awt.FontMetrics metrics = getFontMetrics(getFont());
+            int width = 0;
+            for (String line : lines)
+                width = Math.max(width, metrics.stringWidth(line));
+            setSize(width + 2 * PADDING, 
+                    lines.length * metrics.getHeight() + 2 * PADDING);
+            repaint();
+        }
+    }
+    
     // <editor-fold desc="GUI Code" defaultstate="collapsed" >
     /**
      * Creates new form BattleDialog
@@ -483,8 +641,22 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
     public BattleDialog() {
         super(null, true);
         initComponents();
+        initLayerCaches();
         setLocationRelativeTo(null);
     }
+    
+    // Caches the rendering of the components that only change between turns,
+    // so that animating the rest of the dialog only has to copy them to the
+    // screen. The health bars, script labels and buttons change every frame
+    // while they animate, so they are still rendered directly.
+    private void initLayerCaches() {
+        PlayerPanel.setLayerCached(true);
+        OpponentPanel.setLayerCached(true);
+        AbilPanel1.setLayerCached(true);
+        AbilPanel2.setLayerCached(true);
+        AbilPanel3.setLayerCached(true);
+        AbilPanel4.setLayerCached(true);
+    }
 
     /**
      * This method is called from within the constructor to initialize the form.
@@ -687,7 +859,18 @@ public class BattleDialog extends acomponent.ADialog implements Controller {
     }// </editor-fold>//GEN-END:initComponents
 
     private void formKeyPressed(java.awt.event.KeyEvent evt) {//GEN-FIRST:event_formKeyPressed
-        scriptAdvance = true;
+        // F changes the battle speed and F3 shows or hides the animation
+        // metrics instead of advancing the script.
+        if (evt.getKeyCode() == java.awt.event.KeyEvent.VK_F)
+            cycleBattleSpeed();
+        else if (evt.getKeyCode() == METRICS_KEY) {
+            if (metricsOverlay == null)
+                showMetricsOverlay();
+            else
+                hideMetricsOverlay();
+        }
+        else
+            scriptAdvance = true;
     }//GEN-LAST:event_formKeyPressed
 
     private void formMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_formMouseClicked
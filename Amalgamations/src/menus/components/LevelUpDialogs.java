@@ -0,0 +1,71 @@
+package menus.components;
+
+import amalgamation.Amalgamation;
+import amalgamation.ProgressionEvent;
+
+/**
+ * LevelUpDialogs is a utility class that presents the ProgressionEvents
+ * produced when an Amalgamation gains experience, along with the outcome of
+ * the Battles the experience came from when they were not displayed.
+ *
+ * @author Caleb Rush
+ */
+public class LevelUpDialogs {
+    /**
+     * Displays a dialog for each of the given ProgressionEvents in order.
+     *
+     * Level ups and learned Abilities are simply announced. If an Ability
+     * could not be learned because the Amalgamation already knows four
+     * Abilities, the user is given the choice of replacing one of them.
+     *
+     * This blocks until the user has dismissed every dialog.
+     *
+     * @param parent the JFrame to display the dialogs in
+     * @param amalgamation the Amalgamation that gained experience
+     * @param events the events returned by Amalgamation::gainExp
+     */
+    public static void showLevelUpDialogs(javax.swing.JFrame parent,
+            Amalgamation amalgamation, ProgressionEvent[] events) {
+        for (ProgressionEvent e : events) {
+            switch (e.getType()) {
+                case ProgressionEvent.TYPE_LEVEL_UP:
+                    acomponent.ADialog.createMessageDialog(parent,
+                            amalgamation.getName() + " grew to level "
+                                    + e.getLevel() + "!",
+                            "Sweet!").showDialog();
+                    break;
+                
+                case ProgressionEvent.TYPE_ABILITY_LEARNED:
+                    acomponent.ADialog.createMessageDialog(parent,
+                            String.format("%s learned the ability %s!",
+                                    amalgamation.getName(),
+                                    e.getAbility().getName()),
+                            "Huzzah!").showDialog();
+                    break;
+                
+                case ProgressionEvent.TYPE_ABILITY_AVAILABLE:
+                    // Show a dialog to learn the ability.
+                    AbilityReplaceDialog.showAbilityReplaceDialog(parent,
+                            amalgamation, e.getAbility());
+                    break;
+            }
+        }
+    }
+    
+    /**
+     * Displays the outcome of an auto-battle followed by a dialog for each
+     * of the ProgressionEvents it produced.
+     *
+     * This blocks until the user has dismissed every dialog.
+     *
+     * @param parent the JFrame to display the dialogs in
+     * @param summary the summary returned by CampaignLevel::autoBattleMinions
+     *                or CampaignLevel::autoBattleGuards
+     */
+    public static void showAutoBattleSummary(javax.swing.JFrame parent,
+            campaign.AutoBattleSummary summary) {
+        acomponent.ADialog.createMessageDialog(parent, summary.getMessage(),
+                "Nice!").showDialog();
+        showLevelUpDialogs(parent, summary.getPlayer(), summary.getEvents());
+    }
+}
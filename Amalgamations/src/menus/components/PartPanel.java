@@ -126,22 +126,23 @@ public class PartPanel extends acomponent.AComponent {
     protected void paintComponent(java.awt.Graphics g) {
         super.paintComponent(g);
         // Draw the image scaled to the size of the panel.
+        java.awt.image.BufferedImage image = part.getImage();
         int width, height;
-        if (part.getImage().getWidth() >= part.getImage().getHeight()) {
+        if (image.getWidth() >= image.getHeight()) {
             width = getWidth();
-            height = part.getImage().getHeight() 
-                    * width / part.getImage().getWidth();
+            height = image.getHeight() * width / image.getWidth();
         }
         else {
             height = getHeight();
-            width = part.getImage().getWidth() 
-                    * height / part.getImage().getHeight();
+            width = image.getWidth() * height / image.getHeight();
         }
-        g.drawImage(part.getImage(), 
+        // Use a pre-scaled thumbnail so that repainting is a plain copy,
+        // unless the panel is still being resized.
+        g.drawImage(util.Thumbnails.getSettledThumbnail(this, image, width, 
+                        height), 
                 getWidth() / 2 - width / 2, 
                 getHeight() / 2 - height / 2,
-                width,
-                height,
+                width, height,
                 null);
     }
 }
@@ -51,20 +51,32 @@ public class NetworkAdapter implements AutoCloseable {
     public void connectController(Controller controller, Amalgamation amal) {
         new Thread(() -> {
             // Create a new ObjectInputStream to read the Amalgamations sent over
-            // the connection.
-            try (ObjectOutputStream out
-                    = new ObjectOutputStream(
+            // the connection. The bytes are counted for the flight recorder.
+            try (util.GameEvents.CountingOutputStream sent
+                    = new util.GameEvents.CountingOutputStream(
                             socket.getOutputStream());
+                ObjectOutputStream out
+                    = new ObjectOutputStream(sent);
+                util.GameEvents.CountingInputStream received
+                    = new util.GameEvents.CountingInputStream(
+                            socket.getInputStream());
                 ObjectInputStream in 
-                    = new ObjectInputStream(
-                            socket.getInputStream())) {
+                    = new ObjectInputStream(received)) {
                 // Send the amalgamation.
+                util.GameEvents.NetworkSend sendEvent = 
+                        util.GameEvents.NetworkSend.start("amalgamation", 
+                                sent);
                 out.writeObject(amal);
                 out.flush();
+                sendEvent.finish();
 
                 // Begin the battle by receiving the Amalgamations.
+                util.GameEvents.NetworkReceive receiveEvent = 
+                        util.GameEvents.NetworkReceive.start("start", 
+                                received);
                 Amalgamation player = (Amalgamation)in.readObject();
                 Amalgamation opponent = (Amalgamation)in.readObject();
+                receiveEvent.finish();
                 controller.startBattle(player, opponent);
 
                 // Continue reading in Amalgamations and scripts until a signal
@@ -73,6 +85,8 @@ public class NetworkAdapter implements AutoCloseable {
                 String[] script;
 
                 do {
+                    receiveEvent = util.GameEvents.NetworkReceive.start(
+                            "script", received);
                     // Read the endBattle signal.
                     endBattle = in.readBoolean();
                     // Read in the Amalgamations.
@@ -80,6 +94,7 @@ public class NetworkAdapter implements AutoCloseable {
                     opponent = (Amalgamation)in.readObject();
                     // Read in the script.
                     script = (String[])in.readObject();
+                    receiveEvent.finish();
 
                     // Check if the Controller should end the battle or choose a 
                     // move.
@@ -89,16 +104,22 @@ public class NetworkAdapter implements AutoCloseable {
                         if(script[script.length - 1].equals(opponent.getName() 
                                 + "was defeated!"))
                         {
-                            player.gainExp(opponent.getDefeatedExperience());
-                            util.Amalgamations.save(player);
+                            controller.gainedExperience(player, player.gainExp(
+                                    opponent.getDefeatedExperience()));
+                            util.Amalgamations.saveAsync(player);
                         }
                     }
                     else {
                         // Have the controller read the script.
                         controller.readScript(player, opponent, script);
                         // Send the controller's move across the network.
-                        out.write(controller.chooseMove(player, opponent, script));
+                        int move = controller.chooseMove(player, opponent, 
+                                script);
+                        sendEvent = util.GameEvents.NetworkSend.start("move", 
+                                sent);
+                        out.write(move);
                         out.flush();
+                        sendEvent.finish();
                     }
                 } while (!endBattle);   
             } catch (IOException | ClassNotFoundException e) {
@@ -1,6 +1,7 @@
 package network;
 
 import amalgamation.Amalgamation;
+import amalgamation.ProgressionEvent;
 import amalgamation.battle.Controller;
 
 import java.io.IOException;
@@ -27,6 +28,12 @@ public class NetworkController implements AutoCloseable, Controller {
     private ObjectInputStream       in;
     // The output stream to send objects through the socket connection.
     private ObjectOutputStream      out;
+    // The bytes received and sent through the connection, for the flight
+    // recorder.
+    private util.GameEvents.CountingInputStream     received;
+    private util.GameEvents.CountingOutputStream    sent;
+    // When the most recent script was sent, for the BattleMetrics.
+    private volatile long           scriptSent;
     
     /**
      * Constructs a new NetworkController which constructs a new ServerSocket.
@@ -43,8 +50,15 @@ public class NetworkController implements AutoCloseable, Controller {
     public int chooseMove(Amalgamation player, Amalgamation opponent, 
             String[] script) {
         try {
-            // Retrieve the move from the network.
-            return in.read();
+            // Retrieve the move from the network. The round trip runs from
+            // the script being sent to the move coming back, so it includes
+            // the time the remote player takes to choose.
+            util.GameEvents.NetworkReceive event = 
+                    util.GameEvents.NetworkReceive.start("move", received);
+            int move = in.read();
+            event.finish();
+            amalgamation.battle.BattleMetrics.recordRoundTrip(scriptSent);
+            return move;
         } catch (IOException e) {
             // Assume the opponent forfeited.
             return MOVE_FORFEIT;
@@ -61,8 +75,12 @@ public class NetworkController implements AutoCloseable, Controller {
      */
     public void connect() throws IOException {
         socket = server.accept();
-        out = new ObjectOutputStream(socket.getOutputStream());
-        in = new ObjectInputStream(socket.getInputStream());
+        sent = new util.GameEvents.CountingOutputStream(
+                socket.getOutputStream());
+        out = new ObjectOutputStream(sent);
+        received = new util.GameEvents.CountingInputStream(
+                socket.getInputStream());
+        in = new ObjectInputStream(received);
     }
     
     @Override
@@ -77,6 +95,8 @@ public class NetworkController implements AutoCloseable, Controller {
             String[] script) {
         // Send the player, opponent, and script across the connection.
         try {
+            util.GameEvents.NetworkSend event = 
+                    util.GameEvents.NetworkSend.start("end", sent);
             // Send a signal that this is the end of the battle.
             out.writeBoolean(true);
             out.flush();
@@ -86,11 +106,19 @@ public class NetworkController implements AutoCloseable, Controller {
             out.flush();
             out.writeObject(script);
             out.flush();
+            event.finish();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
     
+    @Override
+    public void gainedExperience(Amalgamation player, 
+            ProgressionEvent[] events) {
+        // The NetworkAdapter applies the experience on the remote machine, so
+        // there is nothing to send.
+    }
+    
     /**
      * Retrieves the Amalgamation that the connected Controller wishes to
      * control.
@@ -109,7 +137,12 @@ public class NetworkController implements AutoCloseable, Controller {
      */
     public Amalgamation retrieveAmalgamation() {
         try {
-            return (Amalgamation)in.readObject();
+            util.GameEvents.NetworkReceive event = 
+                    util.GameEvents.NetworkReceive.start("amalgamation", 
+                            received);
+            Amalgamation amal = (Amalgamation)in.readObject();
+            event.finish();
+            return amal;
         } catch (ClassNotFoundException | IOException e) {
             return null;
         }
@@ -150,6 +183,10 @@ public class NetworkController implements AutoCloseable, Controller {
             String[] script) {
         // Send the player, opponent, and script across the connection.
         try {
+            scriptSent = amalgamation.battle.BattleMetrics.startTimer();
+            util.GameEvents.NetworkSend event = 
+                    util.GameEvents.NetworkSend.start("script", sent);
+            
             // Reset the OutputStream, the sent Amalgamations will simply be
             // references to the older versions sent earlier.
             out.reset();
@@ -163,6 +200,7 @@ public class NetworkController implements AutoCloseable, Controller {
             out.flush();
             out.writeObject(script);
             out.flush();
+            event.finish();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -172,10 +210,13 @@ public class NetworkController implements AutoCloseable, Controller {
     public void startBattle(Amalgamation player, Amalgamation opponent) {
         // Send the player and opponent across the connection.
         try {
+            util.GameEvents.NetworkSend event = 
+                    util.GameEvents.NetworkSend.start("start", sent);
             out.writeObject(player);
             out.flush();
             out.writeObject(opponent);
             out.flush();
+            event.finish();
         } catch (IOException e) {
             e.printStackTrace();
         }
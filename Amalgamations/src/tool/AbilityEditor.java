@@ -2,7 +2,10 @@ package tool;
 
 import util.Abilities;
 import amalgamation.abilities.Ability;
+import amalgamation.abilities.AbilityProgram;
 import amalgamation.abilities.Attack;
+import amalgamation.abilities.Effect;
+import amalgamation.abilities.EffectTypes;
 import amalgamation.abilities.StatModifier;
 
 /**
@@ -13,7 +16,22 @@ import amalgamation.abilities.StatModifier;
  */
 public class AbilityEditor extends javax.swing.JFrame {
     // <editor-fold desc="Instance Variables" defaultstate="collapsed">
-    
+    // The names of the Amalgamations an Effect can target, in the order of
+    // the AbilityProgram.TARGET_XXXX constants.
+    private static final String[] TARGETS = { "User", "Target" };
+    // The names of the stats an Effect can affect, in the order of the
+    // AbilityProgram.STAT_XXXX constants.
+    private static final String[] STATS = {
+        EffectTypes.getStatName(AbilityProgram.STAT_HEALTH),
+        EffectTypes.getStatName(AbilityProgram.STAT_ATTACK),
+        EffectTypes.getStatName(AbilityProgram.STAT_DEFENSE),
+        EffectTypes.getStatName(AbilityProgram.STAT_SPEED)
+    };
+    // The table of Effects and the button that adds a row to it.
+    private final javax.swing.JTable effectTable = new javax.swing.JTable(
+            new EffectTableModel());
+    private final javax.swing.JButton addEffectButton
+            = new javax.swing.JButton("Add Effect");
     // </editor-fold>
     
     // <editor-fold desc="Constructor" defaultstate="collapsed">
@@ -23,6 +41,7 @@ public class AbilityEditor extends javax.swing.JFrame {
     public AbilityEditor() {
         initComponents();
         initTable();
+        initEffectPanel();
         updateAbilityList();
         disableFields();
         setLocationRelativeTo(null);
@@ -518,6 +537,13 @@ public class AbilityEditor extends javax.swing.JFrame {
         enableFields();
     }
     
+    // Adds a new row to the Effect table.
+    private void addEffect() {
+        ((javax.swing.table.DefaultTableModel)effectTable.getModel()).addRow(
+                new Object[] { EffectTypes.DAMAGE, TARGETS[1], STATS[0], 0,
+                    1.0, 1, 100, 100, "" } );
+    }
+    
     // Adds a new row to the Modifier table.
     private void addModifier() {
         // Create a new row in the table.
@@ -594,6 +620,24 @@ public class AbilityEditor extends javax.swing.JFrame {
                 return false;
             }
         }
+        // Check the Effects.
+        for (int r = 0; r < effectTable.getRowCount(); r++) {
+            int count = (int)effectTable.getValueAt(r, 5);
+            int chance = (int)effectTable.getValueAt(r, 6);
+            int threshold = (int)effectTable.getValueAt(r, 7);
+            if (count < 1 || chance < 0 || chance > 100 || threshold < 0 
+                    || threshold > 100) {
+                javax.swing.JOptionPane.showMessageDialog(
+                        this,
+                        "Effect " + (r + 1) + " must have a positive Count "
+                                + "and a Chance and Threshold between 0 and "
+                                + "100.",
+                        "Invalid Effect",
+                        javax.swing.JOptionPane.ERROR_MESSAGE
+                );
+                return false;
+            }
+        }
         // Check description field.
         if ("".equals(DescriptionField.getText())) {
             javax.swing.JOptionPane.showMessageDialog(this,
@@ -625,6 +669,18 @@ public class AbilityEditor extends javax.swing.JFrame {
         
     }
     
+    // Deletes the currently selected rows in the Effect table.
+    private void deleteEffect() {
+        int[] rows = effectTable.getSelectedRows();
+        
+        // Delete from the bottom up so that the rows left keep their indices.
+        java.util.Arrays.sort(rows);
+        for (int c = rows.length - 1; c >= 0; c--) {
+            ((javax.swing.table.DefaultTableModel)effectTable.getModel())
+                    .removeRow(rows[c]);
+        }
+    }
+    
     // Deletes the currently selected row in the Modifier table.
     private void deleteModifier() {
         // Delete all of the selected rows.
@@ -654,6 +710,9 @@ public class AbilityEditor extends javax.swing.JFrame {
         AddModifierButton.setEnabled(false);
         ((javax.swing.table.DefaultTableModel)ModifierTable.getModel())
                 .setNumRows(0);
+        addEffectButton.setEnabled(false);
+        ((javax.swing.table.DefaultTableModel)effectTable.getModel())
+                .setNumRows(0);
     }
     
     // Enables all input fields.
@@ -666,6 +725,30 @@ public class AbilityEditor extends javax.swing.JFrame {
         SaveButton.setEnabled(true);
         DescriptionField.setEnabled(true);
         AddModifierButton.setEnabled(true);
+        addEffectButton.setEnabled(true);
+    }
+    
+    // Retrieves all of the Effects from the table.
+    private Effect[] getEffects() {
+        Effect[] effects = new Effect[effectTable.getRowCount()];
+        
+        // Create an Effect from each row of the table.
+        for (int r = 0; r < effects.length; r++)
+            effects[r] = new Effect(
+                    effectTable.getValueAt(r, 0).toString(),
+                    java.util.Arrays.asList(TARGETS)
+                            .indexOf(effectTable.getValueAt(r, 1)),
+                    java.util.Arrays.asList(STATS)
+                            .indexOf(effectTable.getValueAt(r, 2)),
+                    (int)effectTable.getValueAt(r, 3),
+                    (double)effectTable.getValueAt(r, 4),
+                    (int)effectTable.getValueAt(r, 5),
+                    (int)effectTable.getValueAt(r, 6),
+                    (int)effectTable.getValueAt(r, 7),
+                    effectTable.getValueAt(r, 8).toString()
+            );
+        
+        return effects;
     }
     
     // Retrieves all of the Modifiers from the table.
@@ -712,6 +795,57 @@ public class AbilityEditor extends javax.swing.JFrame {
         return modifiers;
     }
     
+    // Places the Effect table and its button below the generated form.
+    private void initEffectPanel() {
+        // Choose the type, target and stat from lists.
+        effectTable.getColumnModel().getColumn(0).setCellEditor(
+                new javax.swing.DefaultCellEditor(
+                    new javax.swing.JComboBox<>(EffectTypes.getNames())));
+        effectTable.getColumnModel().getColumn(1).setCellEditor(
+                new javax.swing.DefaultCellEditor(
+                    new javax.swing.JComboBox<>(TARGETS)));
+        effectTable.getColumnModel().getColumn(2).setCellEditor(
+                new javax.swing.DefaultCellEditor(
+                    new javax.swing.JComboBox<>(STATS)));
+        effectTable.setToolTipText("<html>Count is the number of hits or "
+                + "turns. Chance is out of 100 and scaled by the user's luck."
+                + "<br>Threshold is the percent of its health the target "
+                + "must be at or below. Press Delete to remove a row.");
+        effectTable.addKeyListener(new java.awt.event.KeyAdapter() {
+            @Override
+            public void keyPressed(java.awt.event.KeyEvent evt) {
+                if (evt.getKeyCode() == java.awt.event.KeyEvent.VK_DELETE)
+                    javax.swing.SwingUtilities.invokeLater(
+                            AbilityEditor.this::deleteEffect);
+            }
+        });
+        addEffectButton.addActionListener(e -> addEffect());
+        
+        javax.swing.JScrollPane scrollPane 
+                = new javax.swing.JScrollPane(effectTable);
+        scrollPane.setPreferredSize(new java.awt.Dimension(0, 123));
+        javax.swing.JPanel effectPanel = new javax.swing.JPanel(
+                new java.awt.BorderLayout(0, 3));
+        effectPanel.setBorder(javax.swing.BorderFactory.createCompoundBorder(
+                javax.swing.BorderFactory.createEmptyBorder(0, 10, 10, 10),
+                javax.swing.BorderFactory.createCompoundBorder(
+                    javax.swing.BorderFactory.createEtchedBorder(),
+                    javax.swing.BorderFactory.createEmptyBorder(
+                            5, 10, 10, 10))));
+        effectPanel.add(new javax.swing.JLabel("Effects:"),
+                java.awt.BorderLayout.NORTH);
+        effectPanel.add(scrollPane, java.awt.BorderLayout.CENTER);
+        effectPanel.add(addEffectButton, java.awt.BorderLayout.SOUTH);
+        
+        // Place the generated form above the panel.
+        javax.swing.JPanel content = new javax.swing.JPanel(
+                new java.awt.BorderLayout());
+        content.add(getContentPane(), java.awt.BorderLayout.CENTER);
+        content.add(effectPanel, java.awt.BorderLayout.SOUTH);
+        setContentPane(content);
+        pack();
+    }
+    
     private void initTable() {
         ModifierTable.getColumnModel().getColumn(0).setCellEditor(
                 new javax.swing.DefaultCellEditor(
@@ -763,6 +897,23 @@ public class AbilityEditor extends javax.swing.JFrame {
             //System.out.println( m.getScript("Joe", "Sandy"));
         }
         
+        // Load the Effects into their table. Abilities saved before Effects
+        // existed have none.
+        if (ability.getEffects() != null)
+            for (Effect e : ability.getEffects())
+                ((javax.swing.table.DefaultTableModel)effectTable.getModel())
+                        .addRow(new Object[] {
+                            e.getType(),
+                            TARGETS[e.getTarget()],
+                            STATS[e.getStat()],
+                            e.getAmount(),
+                            e.getMultiplier(),
+                            e.getCount(),
+                            e.getChance(),
+                            e.getThreshold(),
+                            e.getScript()
+                        });
+        
         // Enable the fields.
         enableFields();
     }
@@ -779,6 +930,7 @@ public class AbilityEditor extends javax.swing.JFrame {
                     Integer.parseInt(LevelField.getText()),
                     0,
                     getModifiers(),
+                    getEffects(),
                     DescriptionField.getText()
             );
         else
@@ -789,6 +941,7 @@ public class AbilityEditor extends javax.swing.JFrame {
                     Integer.parseInt(LevelField.getText()),
                     Integer.parseInt(PowerField.getText()),
                     getModifiers(),
+                    getEffects(),
                     DescriptionField.getText()
             );
         
@@ -808,5 +961,30 @@ public class AbilityEditor extends javax.swing.JFrame {
         // Set the model for the AbilityList.
         AbilityList.setListData(Abilities.getAbilityNames());
     }
+    
+    // The model of the Effect table, which gives each column its type so that
+    // the numbers are edited as numbers.
+    private static class EffectTableModel
+            extends javax.swing.table.DefaultTableModel {
+        private static final long serialVersionUID = 1L;
+        
+        // The type of each column.
+        private static final Class<?>[] TYPES = {
+            String.class, String.class, String.class, Integer.class,
+            Double.class, Integer.class, Integer.class, Integer.class,
+            String.class
+        };
+        
+        // Creates an empty model with the Effect columns.
+        EffectTableModel() {
+            super(new Object[] { "Type", "Target", "Stat", "Amount",
+                "Multiplier", "Count", "Chance", "Threshold", "Script" }, 0);
+        }
+        
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return TYPES[columnIndex];
+        }
+    }
     // </editor-fold>
 }
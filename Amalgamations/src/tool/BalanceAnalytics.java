@@ -0,0 +1,586 @@
+package tool;
+
+import amalgamation.Amalgamation;
+import amalgamation.abilities.Ability;
+import amalgamation.battle.AIController;
+import amalgamation.parts.Arm;
+import amalgamation.parts.Body;
+import amalgamation.parts.Head;
+import amalgamation.parts.Leg;
+import amalgamation.parts.Part;
+import amalgamation.parts.Slot;
+import util.Parts;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * BalanceAnalytics keeps win rate and usage statistics for every Part and
+ * Ability by simulating Battles between a pool of sample Amalgamations built
+ * from them.
+ *
+ * Each sample Amalgamation is built from Parts chosen with a generator seeded
+ * by its place in the pool, so the same Parts always give the same pool. Every
+ * sample has a match against every other one, with the samples taking turns
+ * being the player, and the result of every match is kept. A Part's statistics
+ * are the totals of the samples it is used in, and an Ability's are the totals
+ * of the samples that learned it. The matches are played by a MatchRunner, so
+ * a Battle that runs out of turns is a tie.
+ *
+ * When a single Part is changed, only the samples built with it are rebuilt,
+ * and only the samples that actually came out differently have their matches
+ * played again. Every other result is kept, so balancing a Part takes as long
+ * as the matches it is involved in rather than the whole pool.
+ *
+ * The Abilities' accuracy is random, so the results of a match vary from run
+ * to run. Small changes in a win rate should be read with the number of
+ * Battles behind them in mind.
+ *
+ * A BalanceAnalytics should only be used by one thread at a time.
+ *
+ * @author Caleb Rush
+ */
+public class BalanceAnalytics implements AutoCloseable {
+    /**
+     * The number of sample Amalgamations used by default.
+     */
+    public static final int DEFAULT_SAMPLES = 100;
+    /**
+     * The number of Battles in each match by default.
+     */
+    public static final int DEFAULT_GAMES   = 4;
+    /**
+     * The level every sample Amalgamation is raised to.
+     */
+    public static final int LEVEL           = 20;
+    
+    // The names of the Parts the samples are built from, by type.
+    private final String[]              arms;
+    private final String[]              bodies;
+    private final String[]              heads;
+    private final String[]              legs;
+    // The serialized Parts, by key, so that each sample gets its own copy.
+    private final HashMap<String, byte[]> parts = new HashMap<>();
+    // The sample Amalgamations.
+    private final Sample[]              samples;
+    // The number of Battles in each match.
+    private final int                   games;
+    // The Battles each sample won against each other sample, and the Battles
+    // that were ties.
+    private final int[][]               wins;
+    private final int[][]               ties;
+    // Plays the matches, with the samples indexed by their place in the
+    // pool.
+    private final MatchRunner           runner;
+    // The number of Battles that have been played.
+    private long                        battles;
+    
+    /**
+     * Creates a BalanceAnalytics that builds its samples from the given Parts
+     * and plays every match.
+     *
+     * @param arms the Arms the samples can use
+     * @param bodies the Bodies the samples can use
+     * @param heads the Heads the samples can use
+     * @param legs the Legs the samples can use
+     * @param samples the number of sample Amalgamations
+     * @param games the number of Battles in each match
+     * @param threads the number of Battles to play at once
+     * @throws IllegalArgumentException if any of the arrays of Parts are
+     *                                  empty, there are fewer than two
+     *                                  samples, or the games or threads are
+     *                                  not positive
+     */
+    public BalanceAnalytics(Arm[] arms, Body[] bodies, Head[] heads,
+            Leg[] legs, int samples, int games, int threads) {
+        if (arms.length == 0 || bodies.length == 0 || heads.length == 0
+                || legs.length == 0)
+            throw new IllegalArgumentException(
+                    "There must be at least one Part of each type");
+        if (samples < 2)
+            throw new IllegalArgumentException(
+                    "At least two samples are needed");
+        if (games < 1)
+            throw new IllegalArgumentException(
+                    "Each match needs at least one Battle");
+        if (threads < 1)
+            throw new IllegalArgumentException(
+                    "At least one thread is needed");
+        
+        this.arms = addParts(arms);
+        this.bodies = addParts(bodies);
+        this.heads = addParts(heads);
+        this.legs = addParts(legs);
+        this.samples = new Sample[samples];
+        this.games = games;
+        wins = new int[samples][samples];
+        ties = new int[samples][samples];
+        runner = new MatchRunner(samples, AIController.STRATEGY_STRONGEST,
+                games, threads, "Balance Simulator");
+        
+        // Build every sample and play every match.
+        for (int i = 0; i < samples; i++) {
+            this.samples[i] = build(i);
+            runner.set(i, this.samples[i].amalgamation);
+        }
+        HashSet<Integer> all = new HashSet<>();
+        for (int i = 0; i < samples; i++)
+            all.add(i);
+        playMatches(all);
+    }
+    
+    // Adds the given Parts to the serialized Parts, returning their names in
+    // order.
+    private String[] addParts(Part[] parts) {
+        String[] names = new String[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            names[i] = parts[i].getName();
+            this.parts.put(key(parts[i]), serialize(parts[i]));
+        }
+        
+        Arrays.sort(names);
+        return names;
+    }
+    
+    // Builds the sample at the given place in the pool from the current
+    // Parts.
+    private Sample build(int index) {
+        // The Parts and the Amalgamation's variances and Abilities are chosen
+        // with separate generators, so that changing a Part does not change
+        // the choices made for the rest of the sample.
+        Random choices = new Random(index);
+        Random stats = new Random(~index);
+        HashSet<String> used = new HashSet<>();
+        
+        Body body = (Body)part(used, Parts.TYPE_BODY,
+                bodies[choices.nextInt(bodies.length)]);
+        for (Slot<Arm> s : body.getArmSlots())
+            s.setPart((Arm)part(used, Parts.TYPE_ARM,
+                    arms[choices.nextInt(arms.length)]));
+        for (Slot<Head> s : body.getHeadSlots())
+            s.setPart((Head)part(used, Parts.TYPE_HEAD,
+                    heads[choices.nextInt(heads.length)]));
+        for (Slot<Leg> s : body.getLegSlots())
+            s.setPart((Leg)part(used, Parts.TYPE_LEG,
+                    legs[choices.nextInt(legs.length)]));
+        
+        Amalgamation amalgamation = new Amalgamation("Sample " + (index + 1),
+                body, stats);
+        amalgamation.setLevel(LEVEL, stats);
+        
+        HashSet<String> learned = new HashSet<>();
+        for (Ability ability : amalgamation.getAbilities())
+            if (ability != null)
+                learned.add(ability.getName());
+        
+        return new Sample(serialize(amalgamation), used, learned);
+    }
+    
+    @Override
+    public void close() {
+        runner.close();
+    }
+    
+    // Deserializes an object held in the given bytes.
+    private static Object deserialize(byte[] bytes) {
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                new java.io.ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("A copy could not be made", e);
+        }
+    }
+    
+    /**
+     * Retrieves the statistics of the given Ability.
+     *
+     * @param name the name of the Ability
+     * @return the statistics of the samples that learned the Ability
+     */
+    public Stats getAbilityStats(String name) {
+        return stats(s -> s.abilities.contains(name));
+    }
+    
+    /**
+     * Retrieves the number of Battles that have been played, including the
+     * Battles played again after a Part changed.
+     *
+     * @return the number of Battles played
+     */
+    public long getBattleCount() {
+        return battles;
+    }
+    
+    /**
+     * Retrieves the statistics of the given Part.
+     *
+     * @param type the type of the Part, one of the Parts.TYPE_XXXX constants
+     * @param name the name of the Part
+     * @return the statistics of the samples that use the Part
+     */
+    public Stats getPartStats(int type, String name) {
+        String key = key(type, name);
+        return stats(s -> s.parts.contains(key));
+    }
+    
+    /**
+     * Retrieves the number of sample Amalgamations.
+     *
+     * @return the number of samples
+     */
+    public int getSampleCount() {
+        return samples.length;
+    }
+    
+    /**
+     * Returns whether or not the samples can be built with the Part of the
+     * given type and name.
+     *
+     * @param type the type of the Part, one of the Parts.TYPE_XXXX constants
+     * @param name the name of the Part
+     * @return true if the Part is one the samples are built from
+     */
+    public boolean hasPart(int type, String name) {
+        return parts.containsKey(key(type, name));
+    }
+    
+    // Creates the key that identifies the given Part.
+    private static String key(Part part) {
+        if (part instanceof Arm)
+            return key(Parts.TYPE_ARM, part.getName());
+        if (part instanceof Body)
+            return key(Parts.TYPE_BODY, part.getName());
+        if (part instanceof Head)
+            return key(Parts.TYPE_HEAD, part.getName());
+        if (part instanceof Leg)
+            return key(Parts.TYPE_LEG, part.getName());
+        
+        throw new IllegalArgumentException("Unknown type of Part: "
+                + part.getClass().getName());
+    }
+    
+    // Creates the key that identifies the Part of the given type and name.
+    private static String key(int type, String name) {
+        return type + "/" + name;
+    }
+    
+    // Creates a copy of the Part of the given type and name, adding its key
+    // to the set of keys used.
+    private Part part(HashSet<String> used, int type, String name) {
+        String key = key(type, name);
+        used.add(key);
+        return (Part)deserialize(parts.get(key));
+    }
+    
+    // Plays every match involving one of the samples at the given places in
+    // the pool, returning the number of Battles played.
+    private int playMatches(java.util.Set<Integer> changed) {
+        List<int[]> pairs = new ArrayList<>();
+        for (int a = 0; a < samples.length; a++)
+            for (int b = a + 1; b < samples.length; b++)
+                if (changed.contains(a) || changed.contains(b))
+                    pairs.add(new int[] { a, b });
+        
+        List<int[]> results = runner.playMatches(pairs);
+        for (int i = 0; i < pairs.size(); i++) {
+            int[] result = results.get(i);
+            int a = pairs.get(i)[0], b = pairs.get(i)[1];
+            wins[a][b] = result[MatchRunner.RESULT_WINS];
+            wins[b][a] = result[MatchRunner.RESULT_LOSSES];
+            ties[a][b] = ties[b][a] = result[MatchRunner.RESULT_TIES];
+        }
+        
+        int played = pairs.size() * games;
+        battles += played;
+        return played;
+    }
+    
+    // Serializes the given object.
+    private static byte[] serialize(Object object) {
+        java.io.ByteArrayOutputStream bytes
+                = new java.io.ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out
+                = new java.io.ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        } catch (IOException e) {
+            throw new IllegalStateException("A copy could not be made", e);
+        }
+        
+        return bytes.toByteArray();
+    }
+    
+    // Totals the results of the samples that match the given filter.
+    private Stats stats(java.util.function.Predicate<Sample> filter) {
+        int used = 0, won = 0, lost = 0, tied = 0;
+        for (int a = 0; a < samples.length; a++) {
+            if (!filter.test(samples[a]))
+                continue;
+            
+            used++;
+            for (int b = 0; b < samples.length; b++) {
+                won += wins[a][b];
+                lost += wins[b][a];
+                tied += ties[a][b];
+            }
+        }
+        
+        return new Stats(used, won, lost, tied);
+    }
+    
+    /**
+     * Replaces the Part of the same type and name as the given Part, and
+     * plays again the matches of every sample that changed because of it.
+     *
+     * A Part that no sample uses, such as a new one, changes nothing, since
+     * the samples are only ever built from the Parts the BalanceAnalytics was
+     * created with.
+     *
+     * @param part the changed Part
+     * @return the statistics of the Part and of the Abilities of the samples
+     *         it is used in, from before and after the change
+     */
+    public Change update(Part part) {
+        long start = System.nanoTime();
+        String key = key(part);
+        
+        // Keep the statistics from before the change, including every
+        // Ability that a rebuilt sample could have learned instead.
+        HashSet<String> abilities = new HashSet<>();
+        HashMap<String, Stats> abilitiesBefore = new HashMap<>();
+        for (Sample sample : samples) {
+            if (sample.parts.contains(key))
+                abilities.addAll(sample.abilities);
+            for (String ability : sample.abilities)
+                abilitiesBefore.computeIfAbsent(ability,
+                        this::getAbilityStats);
+        }
+        Stats before = stats(s -> s.parts.contains(key));
+        
+        // Rebuild the samples that use the Part, keeping only the ones that
+        // came out differently.
+        HashSet<Integer> changed = new HashSet<>();
+        if (parts.containsKey(key)) {
+            parts.put(key, serialize(part));
+            for (int i = 0; i < samples.length; i++) {
+                if (!samples[i].parts.contains(key))
+                    continue;
+                
+                Sample rebuilt = build(i);
+                if (!Arrays.equals(rebuilt.amalgamation,
+                        samples[i].amalgamation)) {
+                    samples[i] = rebuilt;
+                    runner.set(i, rebuilt.amalgamation);
+                    changed.add(i);
+                    abilities.addAll(rebuilt.abilities);
+                }
+            }
+        }
+        int played = playMatches(changed);
+        
+        // Pair up the Abilities' statistics, sorted by name.
+        String[] names = abilities.toArray(new String[0]);
+        Arrays.sort(names);
+        LinkedHashMap<String, Stats[]> abilityChanges = new LinkedHashMap<>();
+        for (String ability : names)
+            abilityChanges.put(ability, new Stats[] {
+                abilitiesBefore.getOrDefault(ability, new Stats(0, 0, 0, 0)),
+                getAbilityStats(ability) });
+        
+        return new Change(before, stats(s -> s.parts.contains(key)),
+                abilityChanges, changed.size(), played,
+                (System.nanoTime() - start) / 1000000);
+    }
+    
+    /**
+     * A Change holds the statistics of a changed Part, and of the Abilities
+     * of the samples it is used in, from before and after the change.
+     */
+    public static class Change {
+        // The statistics of the Part.
+        private final Stats                     before;
+        private final Stats                     after;
+        // The statistics of the Abilities before and after, by name.
+        private final Map<String, Stats[]>      abilities;
+        // The number of samples rebuilt and Battles played again.
+        private final int                       samples;
+        private final int                       battles;
+        // The time the change took.
+        private final long                      millis;
+        
+        // Creates a Change.
+        private Change(Stats before, Stats after,
+                Map<String, Stats[]> abilities, int samples, int battles,
+                long millis) {
+            this.before = before;
+            this.after = after;
+            this.abilities = abilities;
+            this.samples = samples;
+            this.battles = battles;
+            this.millis = millis;
+        }
+        
+        /**
+         * Retrieves the statistics of each Ability learned by the samples
+         * that use the Part, sorted by name. Each value holds the statistics
+         * from before the change followed by the statistics from after it.
+         *
+         * @return the statistics of the Abilities
+         */
+        public Map<String, Stats[]> getAbilities() {
+            return java.util.Collections.unmodifiableMap(abilities);
+        }
+        
+        /**
+         * Retrieves the statistics of the Part after the change.
+         *
+         * @return the statistics after the change
+         */
+        public Stats getAfter() {
+            return after;
+        }
+        
+        /**
+         * Retrieves the number of Battles played again because of the
+         * change.
+         *
+         * @return the number of Battles played
+         */
+        public int getBattleCount() {
+            return battles;
+        }
+        
+        /**
+         * Retrieves the statistics of the Part before the change.
+         *
+         * @return the statistics before the change
+         */
+        public Stats getBefore() {
+            return before;
+        }
+        
+        /**
+         * Retrieves the time the change took to apply, including playing the
+         * Battles.
+         *
+         * @return the time taken in milliseconds
+         */
+        public long getMillis() {
+            return millis;
+        }
+        
+        /**
+         * Retrieves the number of samples that came out differently because
+         * of the change.
+         *
+         * @return the number of samples changed
+         */
+        public int getSampleCount() {
+            return samples;
+        }
+    }
+    
+    // A sample Amalgamation, along with the Parts it was built from and the
+    // Abilities it learned.
+    private static class Sample {
+        // The serialized Amalgamation.
+        private final byte[]            amalgamation;
+        // The keys of the Parts it was built from.
+        private final HashSet<String>   parts;
+        // The names of the Abilities it learned.
+        private final HashSet<String>   abilities;
+        
+        private Sample(byte[] amalgamation, HashSet<String> parts,
+                HashSet<String> abilities) {
+            this.amalgamation = amalgamation;
+            this.parts = parts;
+            this.abilities = abilities;
+        }
+    }
+    
+    /**
+     * Stats holds the totals of the matches played by a group of sample
+     * Amalgamations.
+     */
+    public static class Stats {
+        // The number of samples in the group.
+        private final int   samples;
+        // The number of Battles won, lost and tied.
+        private final int   wins;
+        private final int   losses;
+        private final int   ties;
+        
+        // Creates Stats.
+        private Stats(int samples, int wins, int losses, int ties) {
+            this.samples = samples;
+            this.wins = wins;
+            this.losses = losses;
+            this.ties = ties;
+        }
+        
+        /**
+         * Retrieves the number of Battles played.
+         *
+         * @return the Battles played
+         */
+        public int getBattles() {
+            return wins + losses + ties;
+        }
+        
+        /**
+         * Retrieves the number of Battles lost.
+         *
+         * @return the Battles lost
+         */
+        public int getLosses() {
+            return losses;
+        }
+        
+        /**
+         * Retrieves the number of sample Amalgamations in the group, which is
+         * how many use the Part or learned the Ability.
+         *
+         * @return the number of samples
+         */
+        public int getSamples() {
+            return samples;
+        }
+        
+        /**
+         * Retrieves the number of Battles that were ties.
+         *
+         * @return the Battles tied
+         */
+        public int getTies() {
+            return ties;
+        }
+        
+        /**
+         * Retrieves the fraction of the Battles played that were won, with
+         * each tie counting as half a win.
+         *
+         * @return the win rate between 0 and 1, or 0 if no Battles were
+         *         played
+         */
+        public double getWinRate() {
+            int battles = getBattles();
+            return battles == 0? 0 : (wins + ties / 2.0) / battles;
+        }
+        
+        /**
+         * Retrieves the number of Battles won.
+         *
+         * @return the Battles won
+         */
+        public int getWins() {
+            return wins;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package tool;
+
+import amalgamation.Amalgamation;
+import amalgamation.battle.AIController;
+import amalgamation.battle.Battle;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A MatchRunner plays matches between serialized Amalgamations on a pool of
+ * threads, for the tools that rank Amalgamations by simulating Battles.
+ *
+ * A match is a number of Battles between two Amalgamations, with the
+ * Amalgamations taking turns being the player, since the player moves first
+ * when the Amalgamations are equally fast. A Battle that runs out of turns
+ * is counted as a tie, since neither Amalgamation could win it.
+ *
+ * Each thread has its own copy of every Amalgamation, which it reuses for
+ * each of its Battles, as a simulated Battle restores the Amalgamations'
+ * current stats when it ends. A copy is only made again once its
+ * Amalgamation has been replaced.
+ *
+ * A MatchRunner should only be used by one thread at a time, though its
+ * matches are played on many.
+ *
+ * @author Caleb Rush
+ */
+class MatchRunner implements AutoCloseable {
+    /**
+     * The index of the first Amalgamation's wins in a match's result.
+     */
+    public static final int RESULT_WINS     = 0;
+    /**
+     * The index of the first Amalgamation's losses in a match's result.
+     */
+    public static final int RESULT_LOSSES   = 1;
+    /**
+     * The index of the ties in a match's result.
+     */
+    public static final int RESULT_TIES     = 2;
+    
+    // The serialized Amalgamations, by index.
+    private final byte[][]              amalgamations;
+    // The strategy the AIControllers use.
+    private final int                   strategy;
+    // The number of Battles in each match.
+    private final int                   games;
+    // The threads that play the Battles, and each thread's copies of the
+    // Amalgamations.
+    private final ExecutorService       battlers;
+    private final ThreadLocal<Copy[]>   copies;
+    
+    /**
+     * Creates a MatchRunner for the given number of Amalgamations, which
+     * must each be set before they play a match.
+     *
+     * @param size the number of Amalgamations
+     * @param strategy the strategy the Amalgamations choose moves with. This
+     *                 should be one of the AIController.STRATEGY_XXXX
+     *                 constants
+     * @param games the number of Battles in each match
+     * @param threads the number of Battles to play at once
+     * @param name the name of the threads
+     */
+    public MatchRunner(int size, int strategy, int games, int threads,
+            String name) {
+        amalgamations = new byte[size][];
+        this.strategy = strategy;
+        this.games = games;
+        copies = ThreadLocal.withInitial(() -> new Copy[size]);
+        battlers = java.util.concurrent.Executors.newFixedThreadPool(threads,
+                r -> {
+                    Thread thread = new Thread(r, name);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @Override
+    public void close() {
+        battlers.shutdownNow();
+    }
+    
+    // Retrieves the calling thread's copy of the Amalgamation at the given
+    // index, with its current stats reset.
+    private Amalgamation copy(int index) {
+        Copy[] threadCopies = copies.get();
+        byte[] amalgamation = amalgamations[index];
+        // The copy is made again once the Amalgamation has been replaced.
+        if (threadCopies[index] == null
+                || threadCopies[index].source != amalgamation) {
+            try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                    new java.io.ByteArrayInputStream(amalgamation))) {
+                threadCopies[index] = new Copy(amalgamation,
+                        (Amalgamation)in.readObject());
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException("A copy could not be made",
+                        e);
+            }
+            threadCopies[index].amalgamation.resetCurrentStats();
+        }
+        
+        return threadCopies[index].amalgamation;
+    }
+    
+    // Plays a match between two Amalgamations on the calling thread.
+    private int[] playMatch(int a, int b) {
+        int[] result = new int[3];
+        for (int game = 0; game < games; game++) {
+            // Take turns being the player.
+            boolean aPlays = game % 2 == 0;
+            Battle battle = Battle.simulate(
+                    copy(aPlays? a : b), copy(aPlays? b : a),
+                    new AIController(strategy), new AIController(strategy));
+            
+            if (battle.isTie() || battle.isTimedOut())
+                result[RESULT_TIES]++;
+            else if (battle.isPlayerWon() == aPlays)
+                result[RESULT_WINS]++;
+            else
+                result[RESULT_LOSSES]++;
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Plays the matches between each pair of Amalgamations at once, and
+     * returns once every match is over.
+     *
+     * @param pairs the indices of the Amalgamations in each match
+     * @return the result of each match, in the order of the pairs. Each
+     *         result holds the first Amalgamation's wins and losses and the
+     *         ties, at the RESULT_XXXX indices
+     * @throws IllegalStateException if a match could not finish
+     */
+    public List<int[]> playMatches(List<int[]> pairs) {
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (int[] pair : pairs)
+            futures.add(battlers.submit(() -> playMatch(pair[0], pair[1])));
+        
+        List<int[]> results = new ArrayList<>();
+        for (Future<int[]> future : futures)
+            try {
+                results.add(future.get());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("A match could not finish",
+                        e);
+            }
+        
+        return results;
+    }
+    
+    /**
+     * Sets the Amalgamation at the given index. Each thread's copy of the
+     * Amalgamation it replaces is made again before its next Battle.
+     *
+     * @param index the index of the Amalgamation
+     * @param amalgamation the serialized Amalgamation
+     */
+    public void set(int index, byte[] amalgamation) {
+        amalgamations[index] = amalgamation;
+    }
+    
+    // A thread's copy of an Amalgamation.
+    private static class Copy {
+        // The serialized Amalgamation the copy was made from.
+        private final byte[]        source;
+        // The copy of the Amalgamation.
+        private final Amalgamation  amalgamation;
+        
+        private Copy(byte[] source, Amalgamation amalgamation) {
+            this.source = source;
+            this.amalgamation = amalgamation;
+        }
+    }
+}
@@ -34,6 +34,19 @@ public class PartEditor extends javax.swing.JFrame {
     private boolean pivotSet = false;
     // The ImagePanel that paints the image.
     private final ImagePanel imagePanel = new ImagePanel();
+    // The statistics of the Parts from simulated Battles. These are created
+    // the first time the balance is simulated.
+    private BalanceAnalytics analytics;
+    // Whether or not the statistics must be created again because a Part was
+    // added or deleted.
+    private boolean analyticsStale = false;
+    // Whether or not the balance is being simulated.
+    private boolean simulating = false;
+    // The button that simulates the balance and the area showing the result.
+    private final javax.swing.JButton balanceButton
+            = new javax.swing.JButton("Simulate Balance");
+    private final javax.swing.JTextArea balanceArea
+            = new javax.swing.JTextArea(7, 0);
     // </editor-fold>
 
     // <editor-fold desc="Constructor" defaultstate="collapsed">
@@ -54,6 +67,8 @@ public class PartEditor extends javax.swing.JFrame {
         disableFields();
         // Initialize the table.
         initTable();
+        // Add the panel showing the balance of the Part.
+        initBalancePanel();
         // Center window on screen.
         setLocationRelativeTo(null);
     }
@@ -1190,6 +1205,39 @@ public class PartEditor extends javax.swing.JFrame {
         return true;
     }
     
+    // Creates the Part as it is in the fields.
+    private Part currentPart() {
+        String name = PartNameField.getText();
+        String imageFile = PartImageField.getText();
+        int health = Integer.parseInt(PartBaseHealthField.getText());
+        int attack = Integer.parseInt(PartBaseAttackField.getText());
+        int defense = Integer.parseInt(PartBaseDefenseField.getText());
+        int speed = Integer.parseInt(PartBaseSpeedField.getText());
+        
+        // Determine the type of Part to create.
+        switch (PartTypeCombo.getSelectedItem().toString()) {
+            case "Arm":
+                return new Arm(name, imageFile, health, attack, defense, speed,
+                        Integer.parseInt(PartPivotXField.getText()),
+                        Integer.parseInt(PartPivotYField.getText()),
+                        getAbilities());
+            case "Body":
+                return new Body(name, imageFile, health, attack, defense,
+                        speed, getArmSlots(), getHeadSlots(), getLegSlots(),
+                        getAbilities());
+            case "Head":
+                return new Head(name, imageFile, health, attack, defense,
+                        speed, Integer.parseInt(PartPivotXField.getText()),
+                        Integer.parseInt(PartPivotYField.getText()),
+                        getAbilities());
+            default:
+                return new Leg(name, imageFile, health, attack, defense, speed,
+                        Integer.parseInt(PartPivotXField.getText()),
+                        Integer.parseInt(PartPivotYField.getText()),
+                        getAbilities());
+        }
+    }
+    
     // Deletes the currently selected Ability from the table.
     private void deleteAbility() {
         // Check if an ability is selected.
@@ -1208,6 +1256,8 @@ public class PartEditor extends javax.swing.JFrame {
                 == javax.swing.JOptionPane.YES_OPTION) {
             // Delete the file.
             Parts.delete(partType, partName);
+            // Stop building the balance samples with the Part.
+            analyticsStale = true;
             // Refresh the files.
             updateFileLists();
             // Disable the fields.
@@ -1215,6 +1265,37 @@ public class PartEditor extends javax.swing.JFrame {
         }
     }
     
+    // Describes how the statistics of the named Part and the Abilities of the
+    // samples using it changed.
+    private String describeChange(String name,
+            BalanceAnalytics.Change change) {
+        // Check if any sample uses the Part.
+        if (change.getAfter().getSamples() == 0)
+            return "No sample uses " + name + ". Save it to include it the "
+                    + "next time the balance is simulated.";
+        
+        StringBuilder text = new StringBuilder(describeStats(name,
+                change.getBefore(), change.getAfter()));
+        change.getAbilities().forEach((ability, stats) ->
+                text.append(describeStats(ability, stats[0], stats[1])));
+        text.append(String.format(
+                "Played %d Battles again for %d changed samples in %.1f s",
+                change.getBattleCount(), change.getSampleCount(),
+                change.getMillis() / 1000.0));
+        return text.toString();
+    }
+    
+    // Describes how the statistics of a Part or Ability changed.
+    private static String describeStats(String name,
+            BalanceAnalytics.Stats before, BalanceAnalytics.Stats after) {
+        return String.format(
+                "%-16s win rate %5.1f%% -> %5.1f%% (%+5.1f), "
+                + "used by %d -> %d samples%n",
+                name, before.getWinRate() * 100, after.getWinRate() * 100,
+                (after.getWinRate() - before.getWinRate()) * 100,
+                before.getSamples(), after.getSamples());
+    }
+    
     // Disables all fields so that the user cannot edit anything.
     private void disableFields() {
         image = null;
@@ -1239,6 +1320,7 @@ public class PartEditor extends javax.swing.JFrame {
         slot = null;
         ((javax.swing.DefaultListModel)AbilityList.getModel()).clear();
         AddAbilitiesButton.setEnabled(false);
+        balanceButton.setEnabled(false);
         repaint();
     }
     
@@ -1252,6 +1334,7 @@ public class PartEditor extends javax.swing.JFrame {
         PartTypeCombo.setEnabled(true);
         SaveButton.setEnabled(true);
         AddAbilitiesButton.setEnabled(true);
+        balanceButton.setEnabled(!simulating);
         repaint();
     }
     
@@ -1339,6 +1422,34 @@ public class PartEditor extends javax.swing.JFrame {
         return slot;
     }
     
+    // Adds the panel that simulates the balance of the Part below the rest of
+    // the form.
+    private void initBalancePanel() {
+        balanceArea.setEditable(false);
+        balanceArea.setFont(new java.awt.Font(java.awt.Font.MONOSPACED,
+                java.awt.Font.PLAIN, 12));
+        balanceArea.setText("Simulate Battles between sample Amalgamations "
+                + "to see how changing the Part affects its win rate.");
+        balanceButton.addActionListener(e -> simulateBalance());
+        
+        javax.swing.JPanel balancePanel = new javax.swing.JPanel(
+                new java.awt.BorderLayout(10, 0));
+        balancePanel.setBorder(javax.swing.BorderFactory.createCompoundBorder(
+                javax.swing.BorderFactory.createEmptyBorder(0, 10, 10, 10),
+                javax.swing.BorderFactory.createEtchedBorder()));
+        balancePanel.add(balanceButton, java.awt.BorderLayout.WEST);
+        balancePanel.add(new javax.swing.JScrollPane(balanceArea),
+                java.awt.BorderLayout.CENTER);
+        
+        // Place the generated form above the panel.
+        javax.swing.JPanel content = new javax.swing.JPanel(
+                new java.awt.BorderLayout());
+        content.add(getContentPane(), java.awt.BorderLayout.CENTER);
+        content.add(balancePanel, java.awt.BorderLayout.SOUTH);
+        setContentPane(content);
+        pack();
+    }
+    
     // Sets up the Slot table.
     private void initTable() {
         // Retrieve the table's current model.
@@ -1507,18 +1618,80 @@ public class PartEditor extends javax.swing.JFrame {
                     javax.swing.JOptionPane.ERROR_MESSAGE
             );
         // If there was no error, display a confirmation message.
-        else
+        else {
+            // Build the balance samples with the Part if it is new.
+            if (simulating || analytics != null
+                    && !analytics.hasPart(partType, PartNameField.getText()))
+                analyticsStale = true;
             javax.swing.JOptionPane.showMessageDialog(
                     this,
                     "Part was successfully saved.",
                     "Save successful",
                     javax.swing.JOptionPane.INFORMATION_MESSAGE
             );
+        }
         
         // Update the lists.
         updateFileLists();
     }
     
+    // Simulates Battles with the Part as it is in the fields, and shows how
+    // its statistics changed since the last simulation.
+    private void simulateBalance() {
+        // Ensure no simulation is running and the Part is valid.
+        if (simulating || !checkValidity())
+            return;
+        
+        Part part = currentPart();
+        // Discard the statistics if Parts were added or deleted.
+        if (analyticsStale && analytics != null) {
+            analytics.close();
+            analytics = null;
+        }
+        analyticsStale = false;
+        
+        simulating = true;
+        balanceButton.setEnabled(false);
+        balanceArea.setText(analytics == null
+                ? "Simulating every sample..."
+                : "Simulating the samples that use " + part.getName() + "...");
+        new javax.swing.SwingWorker<BalanceAnalytics.Change, Void>() {
+            // The statistics to simulate the Part with.
+            private BalanceAnalytics engine = analytics;
+            
+            @Override
+            protected BalanceAnalytics.Change doInBackground()
+                    throws java.io.IOException {
+                // Simulate every sample with the saved Parts the first time.
+                if (engine == null)
+                    engine = new BalanceAnalytics(
+                            Parts.getArms(Parts.ARMS_RES_DIR),
+                            Parts.getBodies(Parts.BODIES_RES_DIR),
+                            Parts.getHeads(Parts.HEADS_RES_DIR),
+                            Parts.getLegs(Parts.LEGS_RES_DIR),
+                            BalanceAnalytics.DEFAULT_SAMPLES,
+                            BalanceAnalytics.DEFAULT_GAMES,
+                            Runtime.getRuntime().availableProcessors());
+                return engine.update(part);
+            }
+            
+            @Override
+            protected void done() {
+                simulating = false;
+                balanceButton.setEnabled(SaveButton.isEnabled());
+                analytics = engine;
+                try {
+                    balanceArea.setText(describeChange(part.getName(), get()));
+                } catch (InterruptedException
+                        | java.util.concurrent.ExecutionException e) {
+                    balanceArea.setText("The balance could not be simulated: "
+                            + e.getCause());
+                }
+                balanceArea.setCaretPosition(0);
+            }
+        }.execute();
+    }
+    
     // Updates all the file lists to show any new files that are in the Part
     // res folders.
     private void updateFileLists() {
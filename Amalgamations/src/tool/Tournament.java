@@ -0,0 +1,514 @@
+package tool;
+
+import amalgamation.Amalgamation;
+import amalgamation.battle.AIController;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A Tournament plays saved Amalgamations against each other and ranks them by
+ * how many of their Battles they win, without displaying anything.
+ *
+ * A Tournament is either a round robin, where every Amalgamation meets every
+ * other one, or a Swiss tournament, where each round pairs Amalgamations with
+ * similar scores that have not met yet. Every meeting is a match of a given
+ * number of Battles, with the Amalgamations taking turns being the player,
+ * since the player moves first when the Amalgamations are equally fast. Each
+ * Battle won is worth one point and each tie half a point. A Battle that
+ * runs out of turns is counted as a tie.
+ *
+ * The Battles of a round are spread across a pool of threads by a
+ * MatchRunner. Nothing on the way loads Swing, so a Tournament can run on a
+ * headless machine.
+ *
+ * The main method runs a Tournament from the command line and prints the
+ * standings:
+ *
+ * <pre>
+ * java -cp Amalgamations.jar tool.Tournament [options] [file or directory]...
+ * </pre>
+ *
+ * Each argument is an AMAL file or a directory of them, and the default is
+ * the res/amal directory. The options are:
+ *
+ * <pre>
+ * --format round-robin|swiss   the format (round-robin)
+ * --rounds n                   the rounds of a Swiss tournament (log2 of the
+ *                              number of Amalgamations)
+ * --games n                    the Battles in each match (2)
+ * --strategy random|strongest  how the Amalgamations choose moves (strongest)
+ * --threads n                  the Battles played at once (one per core)
+ * </pre>
+ *
+ * @author Caleb Rush
+ */
+public class Tournament implements AutoCloseable {
+    /**
+     * Every Amalgamation meets every other one.
+     */
+    public static final int FORMAT_ROUND_ROBIN  = 0;
+    /**
+     * Each round pairs Amalgamations with similar scores that have not met.
+     */
+    public static final int FORMAT_SWISS        = 1;
+    
+    // The usage printed when the arguments are invalid.
+    private static final String USAGE = String.format(
+            "Usage: java tool.Tournament [options] [file or directory]...%n"
+            + "  --format round-robin|swiss   the format (round-robin)%n"
+            + "  --rounds n                   the rounds of a Swiss "
+            + "tournament%n"
+            + "  --games n                    the Battles in each match (2)%n"
+            + "  --strategy random|strongest  how moves are chosen "
+            + "(strongest)%n"
+            + "  --threads n                  the Battles played at once%n");
+    
+    // The Amalgamations competing.
+    private final Entrant[]         entrants;
+    // The number of Battles in each match.
+    private final int               games;
+    // Plays the matches, with the Amalgamations indexed by seed.
+    private final MatchRunner       runner;
+    // The number of Battles that have been played.
+    private int                     battles;
+    
+    /**
+     * Creates a Tournament between the Amalgamations saved in the given
+     * files.
+     *
+     * @param files the AMAL files to load the Amalgamations from
+     * @param strategy the strategy the Amalgamations choose moves with. This
+     *                 should be one of the AIController.STRATEGY_XXXX
+     *                 constants
+     * @param games the number of Battles in each match
+     * @param threads the number of Battles to play at once
+     * @throws IllegalArgumentException if fewer than two of the files hold
+     *                                  an Amalgamation, or the games or
+     *                                  threads are not positive
+     */
+    public Tournament(List<Path> files, int strategy, int games,
+            int threads) {
+        if (games < 1)
+            throw new IllegalArgumentException(
+                    "Each match needs at least one Battle");
+        if (threads < 1)
+            throw new IllegalArgumentException(
+                    "At least one thread is needed");
+        
+        // Skip the files that cannot be loaded, such as ones saved by an
+        // older version of the game, rather than giving up on the rest.
+        List<Entrant> loaded = new ArrayList<>();
+        for (Path file : files)
+            try {
+                loaded.add(new Entrant(file, loaded.size()));
+            } catch (IOException e) {
+                System.err.printf("Skipping %s: %s%n", file, e);
+            }
+        if (loaded.size() < 2)
+            throw new IllegalArgumentException(
+                    "A Tournament needs at least two Amalgamations");
+        
+        entrants = loaded.toArray(new Entrant[loaded.size()]);
+        this.games = games;
+        runner = new MatchRunner(entrants.length, strategy, games, threads,
+                "Tournament Battler");
+        for (Entrant entrant : entrants)
+            runner.set(entrant.seed, entrant.amalgamation);
+    }
+    
+    // Adds the given AMAL file, or every AMAL file in the given directory,
+    // to the list of files.
+    private static void addFiles(List<Path> files, Path path)
+            throws IOException {
+        if (!Files.isDirectory(path)) {
+            if (!Files.isRegularFile(path))
+                throw new IOException(path + " does not exist");
+            files.add(path);
+            return;
+        }
+        
+        try (java.util.stream.Stream<Path> list = Files.list(path)) {
+            list.filter(p -> p.toString().endsWith(
+                    util.Amalgamations.AMAL_FILE_EXT))
+                    .sorted()
+                    .forEach(files::add);
+        }
+    }
+    
+    @Override
+    public void close() {
+        runner.close();
+    }
+    
+    /**
+     * Retrieves the number of Battles that have been played.
+     *
+     * @return the number of Battles played
+     */
+    public int getBattleCount() {
+        return battles;
+    }
+    
+    /**
+     * Retrieves the number of Amalgamations competing, which leaves out any
+     * files that could not be loaded.
+     *
+     * @return the number of Amalgamations
+     */
+    public int getEntrantCount() {
+        return entrants.length;
+    }
+    
+    /**
+     * Retrieves the sum of the points of every Amalgamation the given one has
+     * met, which is the usual tie breaker of a Swiss tournament.
+     *
+     * @param entrant the Amalgamation
+     * @return the points of its opponents
+     */
+    public double getOpponentPoints(Entrant entrant) {
+        double points = 0;
+        for (int opponent : entrant.opponents)
+            points += entrants[opponent].points;
+        return points;
+    }
+    
+    /**
+     * Retrieves the Amalgamations ranked by their points, with ties broken
+     * by the points of the Amalgamations they met, then by their wins.
+     *
+     * @return the ranked Amalgamations
+     */
+    public Entrant[] getStandings() {
+        Entrant[] standings = entrants.clone();
+        Arrays.sort(standings, Comparator
+                .comparingDouble(Entrant::getPoints).reversed()
+                .thenComparing(Comparator.comparingDouble(
+                        this::getOpponentPoints).reversed())
+                .thenComparing(Comparator.comparingInt(
+                        Entrant::getWins).reversed())
+                .thenComparingInt(e -> e.seed));
+        return standings;
+    }
+    
+    /**
+     * Runs a Tournament from the command line and prints the standings. See
+     * the class description for the arguments.
+     *
+     * @param args the options, followed by the AMAL files or directories
+     */
+    public static void main(String[] args) {
+        int format = FORMAT_ROUND_ROBIN;
+        int rounds = 0;
+        int games = 2;
+        int strategy = AIController.STRATEGY_STRONGEST;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> files = new ArrayList<>();
+        
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (!option.startsWith("--")) {
+                    addFiles(files, Paths.get(option));
+                    continue;
+                }
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException(
+                            option + " needs a value");
+                String value = args[++i];
+                
+                switch (option) {
+                    case "--format":
+                        if (value.equals("round-robin"))
+                            format = FORMAT_ROUND_ROBIN;
+                        else if (value.equals("swiss"))
+                            format = FORMAT_SWISS;
+                        else
+                            throw new IllegalArgumentException(
+                                    "Unknown format: " + value);
+                        break;
+                    
+                    case "--rounds":
+                        rounds = parsePositive(option, value);
+                        break;
+                    
+                    case "--games":
+                        games = parsePositive(option, value);
+                        break;
+                    
+                    case "--strategy":
+                        if (value.equals("random"))
+                            strategy = AIController.STRATEGY_RANDOM;
+                        else if (value.equals("strongest"))
+                            strategy = AIController.STRATEGY_STRONGEST;
+                        else
+                            throw new IllegalArgumentException(
+                                    "Unknown strategy: " + value);
+                        break;
+                    
+                    case "--threads":
+                        threads = parsePositive(option, value);
+                        break;
+                    
+                    default:
+                        throw new IllegalArgumentException(
+                                "Unknown option: " + option);
+                }
+            }
+            
+            if (files.isEmpty())
+                addFiles(files, Paths.get(
+                        util.Amalgamations.AMAL_RES_DIR));
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+        
+        long start = System.nanoTime();
+        try (Tournament tournament = new Tournament(files, strategy, games,
+                threads)) {
+            if (format == FORMAT_SWISS) {
+                // Enough rounds for a single undefeated winner.
+                if (rounds == 0)
+                    rounds = 32 - Integer.numberOfLeadingZeros(
+                            tournament.getEntrantCount() - 1);
+                tournament.playSwiss(rounds);
+            }
+            else
+                tournament.playRoundRobin();
+            
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s of %d Amalgamations: %d Battles in %.2f s "
+                    + "(%.0f Battles/s) on %d threads%n%n",
+                    format == FORMAT_SWISS?
+                            rounds + " round Swiss tournament" :
+                            "Round robin",
+                    tournament.getEntrantCount(),
+                    tournament.getBattleCount(), seconds,
+                    tournament.getBattleCount() / seconds, threads);
+            tournament.printStandings(System.out);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    // Parses a positive whole number from the value of the given option.
+    private static int parsePositive(String option, String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0)
+                return n;
+        } catch (NumberFormatException e) {
+            // Fall through to the error below.
+        }
+        
+        throw new IllegalArgumentException(
+                option + " needs a positive whole number");
+    }
+    
+    // Plays the matches between each pair of Amalgamations at once, and
+    // records their results once every match is over.
+    private void playMatches(List<Entrant[]> pairs) {
+        List<int[]> seeds = new ArrayList<>();
+        for (Entrant[] pair : pairs)
+            seeds.add(new int[] { pair[0].seed, pair[1].seed });
+        List<int[]> results = runner.playMatches(seeds);
+        
+        for (int i = 0; i < pairs.size(); i++) {
+            int[] result = results.get(i);
+            Entrant a = pairs.get(i)[0], b = pairs.get(i)[1];
+            a.record(b, result[MatchRunner.RESULT_WINS],
+                    result[MatchRunner.RESULT_LOSSES],
+                    result[MatchRunner.RESULT_TIES]);
+            b.record(a, result[MatchRunner.RESULT_LOSSES],
+                    result[MatchRunner.RESULT_WINS],
+                    result[MatchRunner.RESULT_TIES]);
+            battles += games;
+        }
+    }
+    
+    /**
+     * Plays a round robin, where every Amalgamation has a match against every
+     * other one. Every match is played at once.
+     */
+    public void playRoundRobin() {
+        List<Entrant[]> pairs = new ArrayList<>();
+        for (int i = 0; i < entrants.length; i++)
+            for (int j = i + 1; j < entrants.length; j++)
+                pairs.add(new Entrant[] {entrants[i], entrants[j]});
+        
+        playMatches(pairs);
+    }
+    
+    /**
+     * Plays a Swiss tournament of the given number of rounds.
+     *
+     * Each round, the Amalgamations are ranked by their points so far, and
+     * each one in turn is paired with the highest ranked one left that it has
+     * not met yet. If every one left has been met, it meets the highest
+     * ranked one again. When there is an odd number of Amalgamations, the
+     * lowest ranked one that has not had a bye sits the round out and is
+     * awarded the match as if it had won every Battle.
+     *
+     * @param rounds the number of rounds to play
+     */
+    public void playSwiss(int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            List<Entrant> unpaired = new ArrayList<>(
+                    Arrays.asList(getStandings()));
+            
+            // Give a bye to the lowest ranked Amalgamation without one.
+            if (unpaired.size() % 2 == 1) {
+                Entrant bye = unpaired.get(unpaired.size() - 1);
+                for (int i = unpaired.size() - 1; i >= 0; i--)
+                    if (!unpaired.get(i).bye) {
+                        bye = unpaired.get(i);
+                        break;
+                    }
+                bye.bye = true;
+                bye.wins += games;
+                bye.points += games;
+                unpaired.remove(bye);
+            }
+            
+            // Pair the highest ranked Amalgamation with the next highest one
+            // that it has not met.
+            List<Entrant[]> pairs = new ArrayList<>();
+            while (!unpaired.isEmpty()) {
+                Entrant entrant = unpaired.remove(0);
+                Entrant opponent = unpaired.get(0);
+                for (Entrant e : unpaired)
+                    if (!entrant.opponents.contains(e.seed)) {
+                        opponent = e;
+                        break;
+                    }
+                unpaired.remove(opponent);
+                pairs.add(new Entrant[] {entrant, opponent});
+            }
+            
+            playMatches(pairs);
+        }
+    }
+    
+    // Prints the standings as a table.
+    private void printStandings(java.io.PrintStream out) {
+        Entrant[] standings = getStandings();
+        int width = "Amalgamation".length();
+        for (Entrant e : standings)
+            width = Math.max(width, e.getName().length());
+        
+        String format = "%4s  %-" + width + "s  %5s  %5s  %5s  %7s  %9s%n";
+        out.printf(format, "Rank", "Amalgamation", "Won", "Lost", "Tied",
+                "Points", "Opponents");
+        for (int i = 0; i < standings.length; i++) {
+            Entrant e = standings[i];
+            out.printf(format, i + 1, e.getName(), e.getWins(),
+                    e.getLosses(), e.getTies(),
+                    String.format("%.1f", e.getPoints()),
+                    String.format("%.1f", getOpponentPoints(e)));
+        }
+    }
+    
+    /**
+     * An Entrant is an Amalgamation competing in a Tournament, along with its
+     * results so far.
+     */
+    public static class Entrant {
+        // The Amalgamation, serialized so that every thread can have its own
+        // copy.
+        private final byte[]            amalgamation;
+        // The name of the Amalgamation.
+        private final String            name;
+        // The position of the Amalgamation in the list of files.
+        private final int               seed;
+        // The seeds of the Amalgamations that have been met.
+        private final HashSet<Integer>  opponents = new HashSet<>();
+        // The Battles won, lost and tied, and the points earned.
+        private int                     wins;
+        private int                     losses;
+        private int                     ties;
+        private double                  points;
+        // Whether or not the Amalgamation has sat out a Swiss round.
+        private boolean                 bye;
+        
+        // Loads the Amalgamation from the given file.
+        private Entrant(Path file, int seed) throws IOException {
+            amalgamation = Files.readAllBytes(file);
+            this.seed = seed;
+            try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                    new java.io.ByteArrayInputStream(amalgamation))) {
+                name = ((Amalgamation)in.readObject()).getName();
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw new IOException(file + " is not an Amalgamation", e);
+            }
+        }
+        
+        /**
+         * Retrieves the number of Battles the Amalgamation lost.
+         *
+         * @return the Battles lost
+         */
+        public int getLosses() {
+            return losses;
+        }
+        
+        /**
+         * Retrieves the name of the Amalgamation.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Retrieves the points the Amalgamation has earned: one for each
+         * Battle won and half of one for each tie.
+         *
+         * @return the points
+         */
+        public double getPoints() {
+            return points;
+        }
+        
+        /**
+         * Retrieves the number of Battles the Amalgamation tied.
+         *
+         * @return the Battles tied
+         */
+        public int getTies() {
+            return ties;
+        }
+        
+        /**
+         * Retrieves the number of Battles the Amalgamation won, including the
+         * Battles awarded for a bye.
+         *
+         * @return the Battles won
+         */
+        public int getWins() {
+            return wins;
+        }
+        
+        // Records a match against the given opponent.
+        private void record(Entrant opponent, int won, int lost, int tied) {
+            opponents.add(opponent.seed);
+            wins += won;
+            losses += lost;
+            ties += tied;
+            points += won + tied / 2.0;
+        }
+    }
+}
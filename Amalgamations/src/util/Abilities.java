@@ -1,7 +1,9 @@
 package util;
 
 import amalgamation.abilities.Ability;
+import amalgamation.abilities.AbilityProgram;
 import amalgamation.abilities.Attack;
+import amalgamation.abilities.Effect;
 import amalgamation.abilities.StatModifier;
 import java.io.Serializable;
 
@@ -54,6 +56,8 @@ public class Abilities implements Serializable {
         // Delete the file.
         new java.io.File(ABILITY_RES_DIR + abilityFileName + ABILITIES_FILE_EXT)
                 .delete();
+        // The preloaded assets no longer match the Ability files.
+        AssetRegistry.invalidate();
     }
     
     /**
@@ -69,14 +73,19 @@ public class Abilities implements Serializable {
             throws IllegalArgumentException {
         // Attempt to open the file and load the ability.
         Ability ability;
+        String path = ABILITY_RES_DIR + abilityFileName + ABILITIES_FILE_EXT;
+        GameEvents.AssetLoad event = GameEvents.AssetLoad.start(
+                GameEvents.AssetLoad.TYPE_ABILITY, path);
         
         try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
-                    new java.io.FileInputStream(
-                            new java.io.File(ABILITY_RES_DIR 
-                                    + abilityFileName + ABILITIES_FILE_EXT)
-                    ))) {
+                    event.measure(AssetRegistry.openAsset(path)))) {
             // Load the ability from the file.
             ability = (Ability)in.readObject();
+        } catch (java.io.InvalidObjectException e) {
+            // The Ability uses an Effect type that is not registered.
+            throw new IllegalArgumentException(String.format(
+                    "The ABILITY file %s is invalid: %s", abilityFileName,
+                    e.getMessage()), e);
         } catch (java.io.IOException e) {
             e.printStackTrace();
             throw new IllegalArgumentException(String.format(
@@ -88,6 +97,7 @@ public class Abilities implements Serializable {
             return null;
         }
         
+        event.finish();
         return ability;
     }
     
@@ -97,26 +107,30 @@ public class Abilities implements Serializable {
      * @return the list of Abilities from the resource directory
      */
     public static Ability[] getAbilities() {
-        // Load the directory.
-        java.io.File directory = new java.io.File(ABILITY_RES_DIR);
-        
-        // Load only files with the .part file extension.
-        java.io.File[] files = directory.listFiles((dir, name) ->
-                ABILITIES_FILE_EXT.equals( 
-                    name.substring(name.lastIndexOf(".")))
-        );
+        // Load only files with the .abil file extension.
+        String[] files;
+        try {
+            files = AssetArchive.listAssets(ABILITY_RES_DIR, 
+                    ABILITIES_FILE_EXT);
+        } catch (java.io.IOException e) {
+            e.printStackTrace();
+            return null;
+        }
         
-        // Load the Parts from each file.
+        // Load the Abilities from each file.
         Ability[] abilities = new Ability[files.length];
         for (int i = 0; i < files.length; i++) {
+            GameEvents.AssetLoad event = GameEvents.AssetLoad.start(
+                    GameEvents.AssetLoad.TYPE_ABILITY, files[i]);
             try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
-                        new java.io.FileInputStream(files[i]))) {
+                        event.measure(AssetRegistry.openAsset(files[i])))) {
                 abilities[i] = (Ability)in.readObject();
             } catch (ClassNotFoundException | java.io.IOException e) {
                 // If the class is not found, something is seriously wrong.
                 e.printStackTrace();
                 return null;
             }
+            event.finish();
         }
         
         return abilities;
@@ -128,22 +142,23 @@ public class Abilities implements Serializable {
      * @return the list of Ability files from the resource directory
      */
     public static String[] getAbilityNames() {
-        // Load the directory. 
-        java.io.File directory = new java.io.File(ABILITY_RES_DIR); 
-          
         // Load only files with the .abil file extension. 
-        String[] fileNames = directory.list((dir, name) -> 
-                ABILITIES_FILE_EXT.equals( 
-                    name.substring(name.lastIndexOf("."))) 
-        ); 
+        String[] fileNames;
+        try {
+            fileNames = AssetArchive.listAssets(ABILITY_RES_DIR, 
+                    ABILITIES_FILE_EXT);
+        } catch (java.io.IOException e) {
+            fileNames = new String[0];
+        }
           
-        // Remove the file extensions from the file names. 
+        // Remove the directory and file extensions from the file names. 
         String[] names = new String[fileNames.length]; 
         for (int i = 0; i < names.length; i++) { 
             // Retrieve the last index of a period in the filename. 
             int index = fileNames[i].lastIndexOf('.'); 
             // Set the arm name to everything before the period. 
-            names[i] = fileNames[i].substring(0, index); 
+            names[i] = fileNames[i].substring(ABILITY_RES_DIR.length(), 
+                    index); 
         } 
           
         return names; 
@@ -196,25 +211,40 @@ public class Abilities implements Serializable {
      * @param damage the base damage of the move. This will only be used if the 
      *               type is TYPE_ATTACk.
      * @param modifiers an array of StatModifiers (should not be null)
+     * @param effects an array of Effects done after the StatModifiers (should
+     *                not be null)
      * @param description a basic description of the Ability to be displayed
       *                     to the user. This can use endline characters.
-     * @throws IllegalArgumentException if the type is an invalid type
+     * @throws IllegalArgumentException if the type is an invalid type, or one
+     *                                  of the Effects names a type that is not
+     *                                  registered
      */
     public static void save(int type, String name, int cooldown, int accuracy, 
-            int level, int damage, StatModifier[] modifiers, String description) 
-            throws IllegalArgumentException {
+            int level, int damage, StatModifier[] modifiers, Effect[] effects, 
+            String description) throws IllegalArgumentException {
         // Create the Ability object.
         Ability ability = null;
         switch(type) {
             case TYPE_ABILITY:
                 ability = new Ability(name, cooldown, accuracy, level, 
-                        modifiers, description);
+                        modifiers, effects, description);
                 break;
             case TYPE_ATTACK:
                 ability = new Attack(name, cooldown, accuracy, level, damage, 
-                        modifiers, description);
+                        modifiers, effects, description);
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown type of Ability: " + type);
         }
         
+        // Make sure the Ability can be compiled before saving it, so that it
+        // cannot fail once it is loaded.
+        AbilityProgram.compile(ability);
+        
+        // The preloaded assets will no longer match the Ability files.
+        AssetRegistry.invalidate();
+        
         // Attempt to save the Ability to the specified file.
         try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(
                     new java.io.FileOutputStream(
@@ -0,0 +1,335 @@
+package util;
+
+import amalgamation.Amalgamation;
+import amalgamation.parts.Slot;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AmalgamationIndex keeps a small summary of every saved Amalgamation
+ * (its name, level, experience, Parts and when it was saved) in a single
+ * index file next to the Amalgamation files.
+ *
+ * Listing and sorting the saved Amalgamations only needs the index, so none
+ * of the Amalgamation files have to be deserialized. The index is updated in
+ * memory by Amalgamations every time an Amalgamation is saved or deleted. The
+ * index file is written in the background once the changes stop coming in,
+ * so that a burst of saves rewrites it once, and when Amalgamations is
+ * flushed.
+ *
+ * The first time the index is used, it is checked against the Amalgamation
+ * files on disk. Any file that was added, replaced or removed behind the
+ * index's back (such as by copying saves between computers) is re-indexed, so
+ * the index file itself can always be deleted safely.
+ *
+ * @author Caleb Rush
+ */
+public class AmalgamationIndex {
+    // The path to the index file.
+    public static final String  INDEX_PATH  = Amalgamations.AMAL_RES_DIR
+            + "amal.index";
+    // How long to wait after a change before writing the index file, in
+    // milliseconds.
+    private static final int    WRITE_DELAY = 2000;
+    
+    /**
+     * Orders Entries alphabetically by name, ignoring case.
+     */
+    public static final Comparator<Entry> BY_NAME = (a, b) ->
+            String.CASE_INSENSITIVE_ORDER.compare(a.getName(), b.getName());
+    
+    // The thread that writes the index file in the background.
+    private static final ScheduledExecutorService writer
+            = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(
+                    r -> {
+                        Thread thread = new Thread(r,
+                                "Amalgamation Index Writer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+    
+    // Every indexed Amalgamation, by name.
+    private static HashMap<String, Entry> entries;
+    // Whether or not the entries have changed since the index file was
+    // written.
+    private static boolean dirty;
+    
+    // Marks the entries as changed, scheduling a write of the index file if
+    // one isn't already waiting.
+    private static void changed() {
+        if (!dirty) {
+            dirty = true;
+            writer.schedule(AmalgamationIndex::flush, WRITE_DELAY,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Writes the index file now if any Amalgamations have been saved or
+     * deleted since it was last written.
+     *
+     * This is called by Amalgamations.flush. If the program stops before the
+     * index file is written, the changed files are indexed again the next
+     * time the index is used.
+     */
+    static synchronized void flush() {
+        if (dirty) {
+            dirty = false;
+            write();
+        }
+    }
+    
+    /**
+     * Retrieves the index Entries of every saved Amalgamation.
+     *
+     * @param order the order to sort the Entries in, such as BY_NAME
+     * @return the Entries of every saved Amalgamation in the given order
+     */
+    public static synchronized Entry[] getEntries(Comparator<Entry> order) {
+        Entry[] all = entries().values().toArray(new Entry[0]);
+        Arrays.sort(all, order);
+        return all;
+    }
+    
+    /**
+     * Removes the Amalgamation with the given name from the index.
+     *
+     * This is called by Amalgamations when an Amalgamation file is deleted.
+     *
+     * @param name the name of the deleted Amalgamation
+     */
+    static synchronized void remove(String name) {
+        if (entries().remove(name) != null)
+            changed();
+    }
+    
+    /**
+     * Summarizes the given Amalgamation as it is now, to be added to the
+     * index with update once its file has been written.
+     *
+     * @param amal the Amalgamation being saved
+     * @return the summary of the Amalgamation
+     */
+    static Entry summarize(Amalgamation amal) {
+        return new Entry(amal, 0);
+    }
+    
+    /**
+     * Adds or replaces an Amalgamation in the index.
+     *
+     * This is called by Amalgamations after an Amalgamation file is written.
+     *
+     * @param entry the summary of the saved Amalgamation, from summarize
+     * @param lastModified the last modified time of the saved file
+     */
+    static synchronized void update(Entry entry, long lastModified) {
+        entries().put(entry.getName(), new Entry(entry, lastModified));
+        changed();
+    }
+    
+    // Retrieves the entries, reading and checking the index file the first
+    // time they are needed.
+    private static HashMap<String, Entry> entries() {
+        if (entries == null) {
+            entries = read();
+            if (reconcile())
+                write();
+        }
+        
+        return entries;
+    }
+    
+    // Reads the index file, or returns an empty index if it can't be read.
+    @SuppressWarnings("unchecked")
+    private static HashMap<String, Entry> read() {
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                    new java.io.BufferedInputStream(
+                            new java.io.FileInputStream(INDEX_PATH)))) {
+            return (HashMap<String, Entry>)in.readObject();
+        } catch (java.io.IOException | ClassNotFoundException
+                | ClassCastException e) {
+            // The index will be rebuilt from the Amalgamation files.
+            return new HashMap<>();
+        }
+    }
+    
+    // Brings the entries up to date with the Amalgamation files on disk.
+    // Returns whether or not any entries were changed.
+    private static boolean reconcile() {
+        String[] names;
+        try {
+            names = Amalgamations.getAmalgamationNames(
+                    Amalgamations.AMAL_RES_DIR);
+        } catch (java.io.IOException e) {
+            // There are no Amalgamations to index.
+            names = new String[0];
+        }
+        
+        boolean changed = entries.keySet().retainAll(Arrays.asList(names));
+        
+        for (String name : names) {
+            long lastModified = new java.io.File(Amalgamations.AMAL_RES_DIR
+                    + name + Amalgamations.AMAL_FILE_EXT).lastModified();
+            
+            // Only load the files that have changed since they were indexed.
+            Entry entry = entries.get(name);
+            if (entry != null && entry.getLastModified() == lastModified)
+                continue;
+            
+            try {
+                Amalgamation amal = Amalgamations.load(name);
+                if (amal != null) {
+                    entries.put(name, new Entry(amal, lastModified));
+                    changed = true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Files that can't be loaded are left out of the index.
+                changed |= entries.remove(name) != null;
+            }
+        }
+        
+        return changed;
+    }
+    
+    // Writes the entries to the index file, replacing it all at once.
+    private static void write() {
+        java.nio.file.Path file = java.nio.file.Paths.get(INDEX_PATH);
+        java.nio.file.Path temp = java.nio.file.Paths.get(INDEX_PATH + ".tmp");
+        
+        try {
+            try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(
+                        new java.io.BufferedOutputStream(
+                                java.nio.file.Files.newOutputStream(temp)))) {
+                out.writeObject(entries);
+            }
+            
+            java.nio.file.Files.move(temp, file,
+                    java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        } catch (java.io.IOException e) {
+            // The index will be rebuilt the next time it is read.
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * An Entry is the summary of a single saved Amalgamation stored in the
+     * index.
+     */
+    public static class Entry implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        // The name of the Amalgamation.
+        private final String    name;
+        // The level of the Amalgamation.
+        private final int       level;
+        // The experience the Amalgamation has toward its next level.
+        private final int       experience;
+        // The experience the Amalgamation needs to reach its next level.
+        private final int       targetExperience;
+        // The name of the Amalgamation's Body.
+        private final String    bodyName;
+        // The names of the Parts connected to the Body, in Slot order.
+        private final String[]  partNames;
+        // When the Amalgamation file was last written.
+        private final long      lastModified;
+        
+        // Creates an Entry summarizing the given Amalgamation.
+        private Entry(Amalgamation amal, long lastModified) {
+            name = amal.getName();
+            level = amal.getLevel();
+            experience = amal.getExperience();
+            targetExperience = amal.getTargetExperience();
+            bodyName = amal.getBody().getName();
+            this.lastModified = lastModified;
+            
+            // Record each Part.
+            Slot<?>[] slots = amal.getBody().getSlots();
+            partNames = new String[slots.length];
+            for (int i = 0; i < slots.length; i++)
+                if (slots[i].getPart() != null)
+                    partNames[i] = slots[i].getPart().getName();
+        }
+        
+        // Copies an Entry with a new last modified time.
+        private Entry(Entry entry, long lastModified) {
+            name = entry.name;
+            level = entry.level;
+            experience = entry.experience;
+            targetExperience = entry.targetExperience;
+            bodyName = entry.bodyName;
+            partNames = entry.partNames;
+            this.lastModified = lastModified;
+        }
+        
+        /**
+         * Retrieves the name of the Amalgamation's Body.
+         *
+         * @return the name of the Amalgamation's Body
+         */
+        public String getBodyName() {
+            return bodyName;
+        }
+        
+        /**
+         * Retrieves the experience the Amalgamation has toward its next
+         * level.
+         *
+         * @return the Amalgamation's experience
+         */
+        public int getExperience() {
+            return experience;
+        }
+        
+        /**
+         * Retrieves when the Amalgamation file was last written.
+         *
+         * @return the last modified time of the file, in milliseconds since
+         *         the epoch
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+        
+        /**
+         * Retrieves the level of the Amalgamation.
+         *
+         * @return the level of the Amalgamation
+         */
+        public int getLevel() {
+            return level;
+        }
+        
+        /**
+         * Retrieves the name of the Amalgamation.
+         *
+         * @return the name of the Amalgamation
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Retrieves the names of the Parts connected to the Amalgamation's
+         * Body, in the same order as Body::getSlots.
+         *
+         * @return the names of the connected Parts. Empty Slots are null
+         */
+        public String[] getPartNames() {
+            return partNames.clone();
+        }
+        
+        /**
+         * Retrieves the experience the Amalgamation needs to reach its next
+         * level.
+         *
+         * @return the Amalgamation's target experience
+         */
+        public int getTargetExperience() {
+            return targetExperience;
+        }
+    }
+}
@@ -19,6 +19,29 @@ public class Amalgamations {
     
     // The directory that holds this type of file
     public static final String  AMAL_RES_DIR   = "res/amal/";
+    // The extension of the temporary file written before replacing a save.
+    private static final String TEMP_FILE_EXT  = ".tmp";
+    
+    // Snapshots waiting to be written by the background writer, keyed by
+    // name so that repeated saves of the same Amalgamation are coalesced.
+    // Saving or deleting an Amalgamation removes its waiting snapshot, so an
+    // older version is never written over a newer one.
+    private static final java.util.Map<String, Snapshot> pendingSaves 
+            = new java.util.HashMap<>();
+    // The single background thread that writes every save and deletion in
+    // order, so that no two of them touch the same file at once.
+    private static final java.util.concurrent.ExecutorService saveWriter 
+            = java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "Amalgamation Save Writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+    
+    static {
+        // Make sure queued saves make it to disk when the program exits.
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(Amalgamations::flush));
+    }
     
     /**
      * Deletes the Amal file with the specified name.
@@ -30,9 +53,18 @@ public class Amalgamations {
      *                        include file extension or path)
      */
     public static void delete(String amalFileName) {
-        // Delete the file.
-        new java.io.File(AMAL_RES_DIR + amalFileName + AMAL_FILE_EXT)
-                .delete();
+        // Make sure a queued save doesn't bring the file back.
+        synchronized (pendingSaves) {
+            pendingSaves.remove(amalFileName);
+        }
+        
+        runOnWriter(() -> {
+            // Delete the file.
+            new java.io.File(AMAL_RES_DIR + amalFileName + AMAL_FILE_EXT)
+                    .delete();
+            // Remove it from the index.
+            AmalgamationIndex.remove(amalFileName);
+        });
     }
     
     /**
@@ -47,11 +79,12 @@ public class Amalgamations {
         String resDirectory = AMAL_RES_DIR;
         
         // Attempt to load the Amalgamation file.
+        String path = resDirectory + amalFileName + AMAL_FILE_EXT;
+        GameEvents.AssetLoad event = GameEvents.AssetLoad.start(
+                GameEvents.AssetLoad.TYPE_AMALGAMATION, path);
         Amalgamation amalgamation;
         try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
-                    new java.io.FileInputStream(
-                            resDirectory + amalFileName + AMAL_FILE_EXT
-                    ))) {
+                    event.measure(new java.io.FileInputStream(path)))) {
             // Load the Amalgamation from the file.
             amalgamation = (Amalgamation)in.readObject();
         } catch (java.io.IOException e) {
@@ -64,6 +97,7 @@ public class Amalgamations {
             return null;
         }
         
+        event.finish();
         return amalgamation;
     }
     
@@ -87,19 +121,54 @@ public class Amalgamations {
         // Load the Amalgamation from each file.
         Amalgamation[] amalgamations = new Amalgamation[files.length];
         for (int i = 0; i < files.length; i++) {
+            GameEvents.AssetLoad event = GameEvents.AssetLoad.start(
+                    GameEvents.AssetLoad.TYPE_AMALGAMATION, 
+                    files[i].getPath());
             try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
-                        new java.io.FileInputStream(files[i]))) {
+                        event.measure(
+                                new java.io.FileInputStream(files[i])))) {
                 amalgamations[i] = (Amalgamation)in.readObject();
             } catch (ClassNotFoundException e) {
                 // If the class is not found, something is seriously wrong.
                 e.printStackTrace();
                 return null;
             }   
+            event.finish();
         }
         
         return amalgamations;
     }
     
+    /**
+     * Retrieves the names of all of the Amalgamations saved in the given
+     * directory without loading any of them.
+     * 
+     * Since every Amalgamation is saved to a file with its own name, the names
+     * come straight from the file names, which makes this much cheaper than
+     * getAmalgamations when only the names are needed.
+     * 
+     * @param dirPath the path to the directory
+     * @return the names of the saved Amalgamations, sorted alphabetically
+     * @throws java.io.IOException if the directory does not exist
+     */
+    public static String[] getAmalgamationNames(String dirPath) 
+            throws java.io.IOException {
+        // Load only files with the .amal file extension.
+        String[] names = new java.io.File(dirPath).list((dir, name) ->
+                name.endsWith(AMAL_FILE_EXT));
+        if (names == null)
+            throw new java.io.IOException("The directory " + dirPath 
+                    + " does not exist");
+        
+        // Remove the file extensions.
+        for (int i = 0; i < names.length; i++)
+            names[i] = names[i].substring(0, 
+                    names[i].length() - AMAL_FILE_EXT.length());
+        
+        java.util.Arrays.sort(names, String.CASE_INSENSITIVE_ORDER);
+        return names;
+    }
+    
     /**
      * Randomly generates an Amalgamation using any of the parts available in
      * the parts resource folder.
@@ -143,35 +212,177 @@ public class Amalgamations {
      */
     public static void save(Body body, String name) 
                 throws IllegalArgumentException {
-        Amalgamation amalgamation = new Amalgamation(name, body);
-        String resDirectory = AMAL_RES_DIR;
-        
-         // Attempt to create the resource file.
-        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(
-                    new java.io.FileOutputStream(
-                            resDirectory + name + AMAL_FILE_EXT))) {
-            // Write the created Part to the file.
-            out.writeObject(amalgamation);
-        } catch (java.io.IOException e) {
+        save(new Amalgamation(name, body));
+    }
+    
+    /**
+     * Blocks until every save queued with saveAsync has been written, along
+     * with the AmalgamationIndex.
+     * 
+     * This is called automatically when the program exits.
+     */
+    public static void flush() {
+        try {
+            // The writer runs tasks in order, so once this empty task has run
+            // every save queued before it has finished.
+            saveWriter.submit(() -> {}).get();
+        } catch (InterruptedException 
+                | java.util.concurrent.ExecutionException e) {
             e.printStackTrace();
         }
+        
+        AmalgamationIndex.flush();
     }
     
     /**
      * Saves the given Amalgamation to a file.
      * 
+     * The Amalgamation is first written to a temporary file which then
+     * replaces the old file, so a failed write never corrupts an existing save.
+     * The write is done by the same thread as saveAsync's, and replaces any
+     * save of the same Amalgamation still waiting to be written.
+     * 
      * @param amal the Amalgamation to save to a file.
      */
     public static void save(Amalgamation amal) {
-        System.out.println(amal.getTargetExperience());
-         // Attempt to create the resource file.
-        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(
-                    new java.io.FileOutputStream(
-                            AMAL_RES_DIR + amal.getName() + AMAL_FILE_EXT))) {
-            // Write the created Part to the file.
+        Snapshot snapshot = snapshot(amal);
+        if (snapshot == null)
+            return;
+        
+        // This save is newer than any that is still waiting.
+        synchronized (pendingSaves) {
+            pendingSaves.remove(snapshot.name);
+        }
+        
+        runOnWriter(() -> write(snapshot));
+    }
+    
+    // Runs the task on the writer and waits for it to finish.
+    private static void runOnWriter(Runnable task) {
+        try {
+            saveWriter.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (java.util.concurrent.ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Queues the given Amalgamation to be saved to a file on a background
+     * thread and returns immediately.
+     * 
+     * The Amalgamation is serialized before this returns, so it can be
+     * changed (such as by starting another Battle) while the save is waiting
+     * to be written. If the same Amalgamation (by name) is queued again
+     * before the writer gets to it, only the most recent one is written. Use
+     * flush to wait for all queued saves to finish.
+     * 
+     * @param amal the Amalgamation to save to a file.
+     */
+    public static void saveAsync(Amalgamation amal) {
+        Snapshot snapshot = snapshot(amal);
+        if (snapshot == null)
+            return;
+        
+        synchronized (pendingSaves) {
+            // Only schedule a write if one isn't already waiting for this
+            // name. Otherwise the waiting write will pick up this version.
+            if (pendingSaves.put(snapshot.name, snapshot) != null)
+                return;
+        }
+        
+        saveWriter.execute(() -> {
+            Snapshot latest;
+            synchronized (pendingSaves) {
+                latest = pendingSaves.remove(snapshot.name);
+            }
+            
+            // Nothing is left if the Amalgamation was saved or deleted since.
+            if (latest != null)
+                write(latest);
+        });
+    }
+    
+    // Serializes the Amalgamation and summarizes it for the index, or returns
+    // null if it can't be serialized.
+    private static Snapshot snapshot(Amalgamation amal) {
+        java.io.ByteArrayOutputStream bytes 
+                = new java.io.ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out 
+                    = new java.io.ObjectOutputStream(bytes)) {
             out.writeObject(amal);
         } catch (java.io.IOException e) {
             e.printStackTrace();
+            return null;
+        }
+        
+        return new Snapshot(amal.getName(), bytes.toByteArray(), 
+                AmalgamationIndex.summarize(amal));
+    }
+    
+    // Writes a snapshot to its file. The snapshot is first written to a
+    // temporary file of its own which then replaces the old file, so a failed
+    // write never corrupts an existing save. This must be run by the writer.
+    private static void write(Snapshot snapshot) {
+        java.nio.file.Path file = java.nio.file.Paths.get(
+                AMAL_RES_DIR + snapshot.name + AMAL_FILE_EXT);
+        
+        // Attempt to create the temporary file.
+        java.nio.file.Path temp;
+        try {
+            temp = java.nio.file.Files.createTempFile(file.getParent(), 
+                    snapshot.name, AMAL_FILE_EXT + TEMP_FILE_EXT);
+        } catch (java.io.IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try {
+            java.nio.file.Files.write(temp, snapshot.bytes);
+        } catch (java.io.IOException e) {
+            e.printStackTrace();
+            temp.toFile().delete();
+            return;
+        }
+        
+        // Replace the old file with the temporary file.
+        try {
+            try {
+                java.nio.file.Files.move(temp, file, 
+                        java.nio.file.StandardCopyOption.REPLACE_EXISTING,
+                        java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            } catch (java.nio.file.AtomicMoveNotSupportedException e) {
+                // Fall back to a regular move on file systems without atomic
+                // moves.
+                java.nio.file.Files.move(temp, file, 
+                        java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            }
+            
+            // Update the index with the new save.
+            AmalgamationIndex.update(snapshot.entry, java.nio.file.Files
+                    .getLastModifiedTime(file).toMillis());
+        } catch (java.io.IOException e) {
+            e.printStackTrace();
+            temp.toFile().delete();
+        }
+    }
+    
+    // A Snapshot is an Amalgamation as it was when it was saved: its
+    // serialized bytes and its summary for the index.
+    private static class Snapshot {
+        // The name of the Amalgamation.
+        private final String                    name;
+        // The serialized Amalgamation.
+        private final byte[]                    bytes;
+        // The Amalgamation's summary for the index.
+        private final AmalgamationIndex.Entry   entry;
+        
+        // Creates a Snapshot from its parts.
+        private Snapshot(String name, byte[] bytes, 
+                AmalgamationIndex.Entry entry) {
+            this.name = name;
+            this.bytes = bytes;
+            this.entry = entry;
         }
     }
 }
@@ -0,0 +1,424 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * An AssetArchive is a single packed file containing the read-only resource
+ * files (Parts, Abilities, rand files and images) so that they can be loaded
+ * without opening a separate file for each one.
+ *
+ * The archive is made up of a header, a table of contents, and the raw bytes
+ * of every packed file:
+ *
+ * <pre>
+ * int    magic number
+ * int    format version
+ * int    number of entries
+ * entry  [number of entries] (short path length, UTF-8 path, long offset,
+ *                              int length)
+ * byte[] the packed files, back to back
+ * </pre>
+ *
+ * The archive is memory mapped when opened and the table of contents is read
+ * into a hash map, so looking up an asset is a single hash lookup and the
+ * returned buffers are slices of the mapped file rather than copies.
+ *
+ * Paths inside the archive are the same relative paths used by the rest of
+ * the util classes (such as "res/part/Arms/Axe.part"), so callers can use the
+ * static open and list methods in this class and transparently fall back to
+ * the loose files when no archive has been built.
+ *
+ * The archive is built by running this class's main method, which the Ant
+ * build does after compiling.
+ *
+ * @author Caleb Rush
+ */
+public class AssetArchive implements AutoCloseable {
+    // The path to the packed archive.
+    public static final String      ARCHIVE_PATH    = "res/assets.pak";
+    // The path to the marker left when the archive is out of date but could
+    // not be deleted.
+    public static final String      STALE_PATH      = ARCHIVE_PATH + ".stale";
+    // The directories whose files are packed into the archive.
+    public static final String[]    PACKED_DIRS     = {
+        Parts.PARTS_RES_DIR,
+        Abilities.ABILITY_RES_DIR,
+        Randoms.RAND_RES_DIR,
+        "res/img/",
+        SpriteAtlas.ATLAS_DIR
+    };
+    // Identifies the file as an AssetArchive ("AMPK").
+    private static final int        MAGIC           = 0x414D504B;
+    // The version of the archive format.
+    private static final int        VERSION         = 1;
+    
+    // The archive shared by the rest of the program.
+    private static AssetArchive     shared;
+    // Whether or not an attempt has been made to open the shared archive.
+    private static boolean          sharedOpened;
+    
+    // The channel the archive was mapped from.
+    private final FileChannel                   channel;
+    // The entire archive mapped into memory.
+    private final MappedByteBuffer              buffer;
+    // The offset and length of each packed file, by path.
+    private final HashMap<String, long[]>       index;
+    // The paths of every packed file, in the order they were packed.
+    private final String[]                      paths;
+    
+    /**
+     * Opens and memory maps the archive at the given path.
+     *
+     * @param archivePath the path of the archive to open
+     * @throws IOException if the file cannot be read or is not an AssetArchive
+     */
+    public AssetArchive(String archivePath) throws IOException {
+        channel = FileChannel.open(Paths.get(archivePath),
+                StandardOpenOption.READ);
+        
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            
+            // Check the header.
+            if (buffer.getInt() != MAGIC)
+                throw new IOException(archivePath
+                        + " is not an asset archive");
+            if (buffer.getInt() != VERSION)
+                throw new IOException(archivePath
+                        + " was packed with a different archive version");
+            
+            // Read the table of contents.
+            int entries = buffer.getInt();
+            index = new HashMap<>(entries * 2);
+            paths = new String[entries];
+            for (int i = 0; i < entries; i++) {
+                paths[i] = readPath(buffer);
+                index.put(paths[i],
+                        new long[] {buffer.getLong(), buffer.getInt()});
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    /**
+     * Returns whether or not the archive contains a file at the given path.
+     *
+     * @param path the relative path of the file
+     * @return true if the file is packed in the archive
+     */
+    public boolean contains(String path) {
+        return index.containsKey(path);
+    }
+    
+    /**
+     * Retrieves the paths of all packed files directly inside the given
+     * directory with the given extension.
+     *
+     * @param dirPath the directory to list, ending with a slash
+     * @param extension the file extension to filter by, including the period
+     * @return the paths of the matching files, or an empty array if there are
+     *         none
+     */
+    public String[] list(String dirPath, String extension) {
+        ArrayList<String> matches = new ArrayList<>();
+        
+        for (String path : paths)
+            // Make sure the file is directly in the directory.
+            if (path.startsWith(dirPath)
+                    && path.indexOf('/', dirPath.length()) == -1
+                    && path.endsWith(extension))
+                matches.add(path);
+        
+        return matches.toArray(new String[0]);
+    }
+    
+    /**
+     * Opens an InputStream that reads the packed file at the given path.
+     *
+     * @param path the relative path of the file
+     * @return an InputStream over the file's bytes
+     * @throws IOException if the file is not in the archive
+     */
+    public InputStream openStream(String path) throws IOException {
+        return new ByteBufferInputStream(slice(path));
+    }
+    
+    /**
+     * Retrieves the bytes of the packed file at the given path.
+     *
+     * The returned buffer is a read only view of the mapped archive, so no
+     * bytes are copied.
+     *
+     * @param path the relative path of the file
+     * @return a read only buffer containing the file's bytes
+     * @throws IOException if the file is not in the archive
+     */
+    public ByteBuffer slice(String path) throws IOException {
+        long[] entry = index.get(path);
+        if (entry == null)
+            throw new IOException(path + " is not in the asset archive");
+        
+        ByteBuffer slice = buffer.duplicate();
+        slice.position((int)entry[0]);
+        slice.limit((int)(entry[0] + entry[1]));
+        return slice.slice();
+    }
+    
+    /**
+     * Closes and deletes the shared archive.
+     *
+     * This should be called whenever one of the packed resource files is
+     * modified, since the archive would otherwise keep serving the old
+     * version. The loose files are used until the archive is packed again.
+     * 
+     * The mapped archive cannot be deleted on some platforms (such as
+     * Windows) until the program exits. In that case a stale marker is left
+     * next to it so that the archive is not used again, and it is deleted
+     * the next time the program starts.
+     */
+    public static synchronized void invalidate() {
+        if (shared != null) {
+            try {
+                shared.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        
+        shared = null;
+        sharedOpened = true;
+        
+        java.io.File archive = new java.io.File(ARCHIVE_PATH);
+        if (!archive.delete() && archive.exists()) {
+            try {
+                new java.io.File(STALE_PATH).createNewFile();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Retrieves the paths of all resource files directly inside the given
+     * directory with the given extension.
+     *
+     * The shared archive is used if it exists. Otherwise, the directory is
+     * listed on disk.
+     *
+     * @param dirPath the directory to list, ending with a slash
+     * @param extension the file extension to filter by, including the period
+     * @return the paths of the matching files
+     * @throws IOException if there is no archive and the directory does not
+     *                     exist
+     */
+    public static String[] listAssets(String dirPath, String extension)
+            throws IOException {
+        AssetArchive archive = shared();
+        if (archive != null)
+            return archive.list(dirPath, extension);
+        
+        // Fall back to the loose files.
+        String[] names = new java.io.File(dirPath).list((dir, name) ->
+                name.endsWith(extension));
+        if (names == null)
+            throw new IOException("The directory " + dirPath
+                    + " does not exist");
+        
+        for (int i = 0; i < names.length; i++)
+            names[i] = dirPath + names[i];
+        
+        return names;
+    }
+    
+    /**
+     * Opens an InputStream for the resource file at the given path.
+     *
+     * The shared archive is used if it contains the file. Otherwise, the
+     * loose file is opened.
+     *
+     * @param path the relative path of the file
+     * @return an InputStream over the file's bytes
+     * @throws IOException if the file does not exist
+     */
+    public static InputStream openAsset(String path) throws IOException {
+        AssetArchive archive = shared();
+        if (archive != null && archive.contains(path))
+            return archive.openStream(path);
+        
+        return new java.io.FileInputStream(path);
+    }
+    
+    /**
+     * Packs every file in the packed directories into a new archive at the
+     * given path, replacing any archive that is already there.
+     *
+     * @param archivePath the path to write the archive to
+     * @return the number of files packed
+     * @throws IOException if a resource file cannot be read or the archive
+     *                     cannot be written
+     */
+    public static int pack(String archivePath) throws IOException {
+        // Collect every file to pack.
+        ArrayList<String> files = new ArrayList<>();
+        for (String dir : PACKED_DIRS) {
+            Path root = Paths.get(dir);
+            if (!Files.isDirectory(root))
+                continue;
+            
+            try (java.util.stream.Stream<Path> walk = Files.walk(root)) {
+                walk.filter(Files::isRegularFile)
+                        .map(p -> p.toString().replace('\\', '/'))
+                        .sorted()
+                        .forEach(files::add);
+            }
+        }
+        
+        // Work out where the packed files start.
+        long offset = 12;
+        for (String file : files)
+            offset += 2 + file.getBytes(StandardCharsets.UTF_8).length + 8 + 4;
+        
+        Path temp = Paths.get(archivePath + ".tmp");
+        try (java.io.DataOutputStream out = new java.io.DataOutputStream(
+                new java.io.BufferedOutputStream(Files.newOutputStream(temp)))) {
+            // Write the header.
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(files.size());
+            
+            // Write the table of contents.
+            for (String file : files) {
+                long length = Files.size(Paths.get(file));
+                byte[] path = file.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(path.length);
+                out.write(path);
+                out.writeLong(offset);
+                out.writeInt((int)length);
+                offset += length;
+            }
+            
+            // Write the packed files.
+            for (String file : files)
+                Files.copy(Paths.get(file), out);
+        }
+        
+        Files.move(temp, Paths.get(archivePath),
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        // The new archive is up to date.
+        if (archivePath.equals(ARCHIVE_PATH))
+            Files.deleteIfExists(Paths.get(STALE_PATH));
+        
+        return files.size();
+    }
+    
+    // Retrieves the shared archive, opening it the first time it's needed.
+    private static synchronized AssetArchive shared() {
+        if (!sharedOpened) {
+            sharedOpened = true;
+            
+            // An archive that was invalidated but could not be deleted is
+            // out of date, so delete it now that it is no longer mapped.
+            java.io.File archive = new java.io.File(ARCHIVE_PATH);
+            java.io.File stale = new java.io.File(STALE_PATH);
+            if (stale.exists()) {
+                if (archive.delete() || !archive.exists())
+                    stale.delete();
+                else
+                    return null;
+            }
+            
+            if (archive.isFile()) {
+                try {
+                    shared = new AssetArchive(ARCHIVE_PATH);
+                } catch (IOException e) {
+                    // Use the loose files instead.
+                    e.printStackTrace();
+                }
+            }
+        }
+        
+        return shared;
+    }
+    
+    // Reads a path written as a short length followed by UTF-8 bytes.
+    private static String readPath(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Packs the resource directories into the archive.
+     *
+     * This should be run from the project directory (the one containing res).
+     *
+     * @param args an optional path to write the archive to instead of the
+     *             default ARCHIVE_PATH
+     * @throws IOException if the archive cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        String archivePath = args.length > 0? args[0] : ARCHIVE_PATH;
+        int count = pack(archivePath);
+        System.out.printf("Packed %d files into %s%n", count, archivePath);
+    }
+    
+    // An InputStream that reads from a ByteBuffer without copying it first.
+    private static class ByteBufferInputStream extends InputStream {
+        // The buffer to read from.
+        private final ByteBuffer buffer;
+        
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+        
+        @Override
+        public int read() {
+            return buffer.hasRemaining()? buffer.get() & 0xFF : -1;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+        
+        @Override
+        public long skip(long n) {
+            int skipped = (int)Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package util;
+
+import java.awt.image.BufferedImage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The AssetRegistry holds the resource files that were loaded ahead of time
+ * so that the menus never have to wait on the disk.
+ *
+ * Calling preload reads every Part, Ability and rand file and decodes every
+ * Part image (or the SpriteAtlas, if there is one) on a pool of worker
+ * threads. Once an asset has been preloaded,
+ * the util classes read it from memory instead of from the disk. Assets that
+ * have not been preloaded (yet) are simply loaded the normal way.
+ *
+ * Only the raw bytes of the serialized assets are kept, and every load
+ * deserializes a fresh copy from them. This is important because Bodies
+ * are modified when Parts are connected to them, so they cannot be shared.
+ * Decoded images are shared, since nothing modifies them.
+ *
+ * @author Caleb Rush
+ */
+public class AssetRegistry {
+    // The file extension for Part images.
+    public static final String  IMAGE_FILE_EXT  = ".png";
+    
+    // The bytes of every preloaded Part, Ability and rand file, by path.
+    private static final ConcurrentHashMap<String, byte[]> files
+            = new ConcurrentHashMap<>();
+    // Every preloaded Part image, by path.
+    private static final ConcurrentHashMap<String, BufferedImage> images
+            = new ConcurrentHashMap<>();
+    // The number of times the registry has been invalidated. Assets that were
+    // being loaded when it was invalidated are thrown away, since they may
+    // have been read before the change.
+    private static int generation;
+    // The worker threads that load the assets.
+    private static final ExecutorService workers = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), r -> {
+                Thread thread = new Thread(r, "Asset Preloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+    
+    /**
+     * Clears everything that has been preloaded and invalidates the packed
+     * AssetArchive, the SpriteAtlas and the stored Thumbnails.
+     *
+     * This should be called whenever one of the resource files is modified.
+     */
+    public static void invalidate() {
+        synchronized (AssetRegistry.class) {
+            generation++;
+            files.clear();
+            images.clear();
+        }
+        AssetArchive.invalidate();
+        SpriteAtlas.invalidate();
+        Thumbnails.invalidate();
+    }
+    
+    /**
+     * Retrieves the preloaded image at the given path.
+     *
+     * @param path the relative path of the image file
+     * @return the decoded image, or null if it has not been preloaded
+     */
+    public static BufferedImage getImage(String path) {
+        return images.get(path);
+    }
+    
+    /**
+     * Opens an InputStream for the resource file at the given path.
+     *
+     * If the file has been preloaded, the stream reads from memory. Otherwise,
+     * it is opened from the AssetArchive or the disk.
+     *
+     * @param path the relative path of the file
+     * @return an InputStream over the file's bytes
+     * @throws IOException if the file does not exist
+     */
+    public static InputStream openAsset(String path) throws IOException {
+        byte[] bytes = files.get(path);
+        if (bytes != null)
+            return new java.io.ByteArrayInputStream(bytes);
+        
+        return AssetArchive.openAsset(path);
+    }
+    
+    /**
+     * Starts loading every Part, Ability, rand file and Part image in the
+     * background.
+     *
+     * The listener is called from the worker threads every time an asset
+     * finishes loading, so any changes it makes to Swing components should
+     * be made with SwingUtilities::invokeLater.
+     *
+     * @param listener the listener to report progress to. This can be null
+     * @return a future that completes once every asset has been loaded
+     */
+    public static CompletableFuture<Void> preload(ProgressListener listener) {
+        // Collect the paths of every asset to load.
+        ArrayList<String> paths = new ArrayList<>();
+        addAssets(paths, Parts.ARMS_RES_DIR, Parts.PARTS_FILE_EXT);
+        addAssets(paths, Parts.BODIES_RES_DIR, Parts.PARTS_FILE_EXT);
+        addAssets(paths, Parts.HEADS_RES_DIR, Parts.PARTS_FILE_EXT);
+        addAssets(paths, Parts.LEGS_RES_DIR, Parts.PARTS_FILE_EXT);
+        addAssets(paths, Abilities.ABILITY_RES_DIR,
+                Abilities.ABILITIES_FILE_EXT);
+        addAssets(paths, Randoms.RAND_RES_DIR, Randoms.RAND_FILE_EXT);
+        // The Part images are decoded all at once if there is an atlas.
+        if (SpriteAtlas.exists())
+            paths.add(SpriteAtlas.MANIFEST_PATH);
+        else {
+            addAssets(paths, Parts.ARMS_IMG_DIR, IMAGE_FILE_EXT);
+            addAssets(paths, Parts.BODIES_IMG_DIR, IMAGE_FILE_EXT);
+            addAssets(paths, Parts.HEADS_IMG_DIR, IMAGE_FILE_EXT);
+            addAssets(paths, Parts.LEGS_IMG_DIR, IMAGE_FILE_EXT);
+        }
+        
+        // Load each asset on the worker threads.
+        int total = paths.size();
+        int started;
+        synchronized (AssetRegistry.class) {
+            started = generation;
+        }
+        AtomicInteger loaded = new AtomicInteger();
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[total];
+        for (int i = 0; i < total; i++) {
+            String path = paths.get(i);
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    load(path, started);
+                } catch (RuntimeException e) {
+                    // A broken asset is left out so it fails the normal way
+                    // when it's loaded, without stopping the rest.
+                    e.printStackTrace();
+                } finally {
+                    // Every asset counts toward the progress, loaded or not.
+                    if (listener != null)
+                        listener.progressed(loaded.incrementAndGet(), total);
+                }
+            }, workers);
+        }
+        
+        return CompletableFuture.allOf(tasks);
+    }
+    
+    // Adds the paths of the assets in the given directory to the list.
+    private static void addAssets(ArrayList<String> paths, String dirPath,
+            String extension) {
+        try {
+            paths.addAll(java.util.Arrays.asList(
+                    AssetArchive.listAssets(dirPath, extension)));
+        } catch (IOException e) {
+            // A missing directory simply has nothing to preload.
+        }
+    }
+    
+    // Loads a single asset into the registry, unless the registry has been
+    // invalidated since the given generation.
+    private static void load(String path, int started) {
+        // Decode the whole atlas at once.
+        if (path.equals(SpriteAtlas.MANIFEST_PATH)) {
+            SpriteAtlas.load();
+            return;
+        }
+        
+        try (InputStream in = AssetArchive.openAsset(path)) {
+            // Decode images right away.
+            if (path.endsWith(IMAGE_FILE_EXT)) {
+                BufferedImage image = javax.imageio.ImageIO.read(
+                        new javax.imageio.stream.MemoryCacheImageInputStream(
+                                in));
+                if (image != null)
+                    synchronized (AssetRegistry.class) {
+                        if (generation == started)
+                            images.put(path, image);
+                    }
+                return;
+            }
+            
+            // Read the rest of the file into memory.
+            java.io.ByteArrayOutputStream bytes
+                    = new java.io.ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) != -1;)
+                bytes.write(buffer, 0, read);
+            
+            byte[] file = bytes.toByteArray();
+            
+            // Deserialize it once to make sure it isn't corrupted. If it is,
+            // leave it out so it fails the normal way when it's loaded.
+            try (java.io.ObjectInputStream object
+                    = new java.io.ObjectInputStream(
+                            new java.io.ByteArrayInputStream(file))) {
+                object.readObject();
+            }
+            
+            synchronized (AssetRegistry.class) {
+                if (generation == started)
+                    files.put(path, file);
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * A ProgressListener is notified as assets are preloaded.
+     */
+    public static interface ProgressListener {
+        /**
+         * Called every time an asset finishes loading.
+         *
+         * @param loaded the number of assets loaded so far
+         * @param total the total number of assets being loaded
+         */
+        void progressed(int loaded, int total);
+    }
+}
@@ -0,0 +1,451 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.awt.image.BufferedImage;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * GameEvents holds the Java Flight Recorder events emitted by the game's
+ * subsystems: Battle turns, loading Parts, Abilities and Amalgamations,
+ * decoding Part images, rendering Bodies and sending and receiving Battles
+ * over the network. Each event records how long the operation took and, where
+ * it makes sense, how many bytes it read or wrote, so that stalls in a
+ * recording can be lined up with the garbage collection and I/O events the JVM
+ * records alongside them.
+ *
+ * The events are only recorded while a recording is running, such as one
+ * started with -XX:StartFlightRecording=filename=amalgamations.jfr. Otherwise
+ * each event costs little more than an allocation that the JIT removes, and
+ * the byte counting streams are not created at all.
+ *
+ * @author Caleb Rush
+ */
+public class GameEvents {
+    // The category every event is listed under.
+    private static final String CATEGORY = "Amalgamations";
+    
+    /**
+     * An AssetLoad records a Part, Ability or Amalgamation being loaded from
+     * its file.
+     */
+    @Name("amalgamations.AssetLoad")
+    @Label("Asset Load")
+    @Category({CATEGORY, "Assets"})
+    @Description("A Part, Ability or Amalgamation loaded from its file")
+    public static class AssetLoad extends MeasuredEvent {
+        // The types of assets.
+        public static final String  TYPE_ABILITY        = "Ability";
+        public static final String  TYPE_AMALGAMATION   = "Amalgamation";
+        public static final String  TYPE_PART           = "Part";
+        
+        @Label("Type")
+        String type;
+        @Label("Path")
+        String path;
+        
+        /**
+         * Starts timing the loading of an asset.
+         *
+         * @param type the type of asset, one of the TYPE_XXXX constants
+         * @param path the path of the asset's file
+         * @return the started event
+         */
+        public static AssetLoad start(String type, String path) {
+            AssetLoad event = new AssetLoad();
+            event.type = type;
+            event.path = path;
+            event.begin();
+            return event;
+        }
+        
+        /**
+         * Records the asset as loaded.
+         */
+        public void finish() {
+            commitMeasured();
+        }
+    }
+    
+    /**
+     * A BattleTurn records a single turn of a Battle, from the script being
+     * sent to the Controllers to both moves having been enacted.
+     */
+    @Name("amalgamations.BattleTurn")
+    @Label("Battle Turn")
+    @Category({CATEGORY, "Battle"})
+    @Description("A turn of a Battle, including choosing and enacting moves")
+    // The turns are nested in recursive calls, so their stack traces are long
+    // and say nothing that the turn number does not.
+    @StackTrace(false)
+    public static class BattleTurn extends Event {
+        @Label("Turn")
+        int turn;
+        @Label("Player")
+        String player;
+        @Label("Opponent")
+        String opponent;
+        @Label("Simulated")
+        boolean simulated;
+        
+        /**
+         * Starts timing a turn.
+         *
+         * @return the started event
+         */
+        public static BattleTurn start() {
+            BattleTurn event = new BattleTurn();
+            event.begin();
+            return event;
+        }
+        
+        /**
+         * Records the turn as ended.
+         *
+         * @param turn the number of the turn in its Battle, starting at 1
+         * @param player the name of the player's Amalgamation
+         * @param opponent the name of the opponent's Amalgamation
+         * @param simulated whether or not the Battle is simulated
+         */
+        public void finish(int turn, String player, String opponent,
+                boolean simulated) {
+            end();
+            if (shouldCommit()) {
+                this.turn = turn;
+                this.player = player;
+                this.opponent = opponent;
+                this.simulated = simulated;
+                commit();
+            }
+        }
+    }
+    
+    /**
+     * A CompositeRender records the full image of a Body being drawn with all
+     * of its connected Parts.
+     */
+    @Name("amalgamations.CompositeRender")
+    @Label("Composite Render")
+    @Category({CATEGORY, "Rendering"})
+    @Description("A Body drawn with all of its connected Parts")
+    public static class CompositeRender extends Event {
+        @Label("Body")
+        String body;
+        @Label("Parts")
+        @Description("The number of Parts drawn, including the Body")
+        int parts;
+        
+        /**
+         * Starts timing the drawing of a Body.
+         *
+         * @return the started event
+         */
+        public static CompositeRender start() {
+            CompositeRender event = new CompositeRender();
+            event.begin();
+            return event;
+        }
+        
+        /**
+         * Records the Body as drawn.
+         *
+         * @param body the Body that was drawn
+         */
+        public void finish(amalgamation.parts.Body body) {
+            end();
+            if (shouldCommit()) {
+                this.body = body.getName();
+                // Count the Body itself along with its connected Parts.
+                parts = 1;
+                for (amalgamation.parts.Slot<?> slot : body.getSlots())
+                    if (slot.getPart() != null)
+                        parts++;
+                commit();
+            }
+        }
+    }
+    
+    /**
+     * A CountingInputStream counts the bytes read through it.
+     */
+    public static class CountingInputStream extends java.io.FilterInputStream {
+        // The number of bytes read.
+        private long count;
+        
+        /**
+         * Creates a CountingInputStream that reads from the given stream.
+         *
+         * @param in the stream to read from
+         */
+        public CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        /**
+         * Retrieves the number of bytes that have been read.
+         *
+         * @return the number of bytes read
+         */
+        public long getCount() {
+            return count;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1)
+                count++;
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0)
+                count += n;
+            return n;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+    
+    /**
+     * A CountingOutputStream counts the bytes written through it.
+     */
+    public static class CountingOutputStream
+            extends java.io.FilterOutputStream {
+        // The number of bytes written.
+        private long count;
+        
+        /**
+         * Creates a CountingOutputStream that writes to the given stream.
+         *
+         * @param out the stream to write to
+         */
+        public CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+        
+        /**
+         * Retrieves the number of bytes that have been written.
+         *
+         * @return the number of bytes written
+         */
+        public long getCount() {
+            return count;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+    
+    /**
+     * An ImageDecode records a Part's image being loaded, whether it was cut
+     * from the sprite atlas, already preloaded or decoded from its file.
+     */
+    @Name("amalgamations.ImageDecode")
+    @Label("Image Decode")
+    @Category({CATEGORY, "Assets"})
+    @Description("A Part image loaded from the atlas, the preloaded images "
+            + "or its file")
+    public static class ImageDecode extends MeasuredEvent {
+        // The places an image can come from.
+        public static final String  SOURCE_ATLAS        = "atlas";
+        public static final String  SOURCE_FILE         = "file";
+        public static final String  SOURCE_PRELOADED    = "preloaded";
+        
+        @Label("Path")
+        String path;
+        @Label("Source")
+        String source;
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+        
+        /**
+         * Starts timing the loading of an image.
+         *
+         * @param path the path of the image's file
+         * @return the started event
+         */
+        public static ImageDecode start(String path) {
+            ImageDecode event = new ImageDecode();
+            event.path = path;
+            event.begin();
+            return event;
+        }
+        
+        /**
+         * Records the image as loaded.
+         *
+         * @param source where the image came from, one of the SOURCE_XXXX
+         *               constants
+         * @param image the loaded image. This can be null
+         * @return the loaded image
+         */
+        public BufferedImage finish(String source, BufferedImage image) {
+            this.source = source;
+            if (image != null) {
+                width = image.getWidth();
+                height = image.getHeight();
+            }
+            commitMeasured();
+            return image;
+        }
+    }
+    
+    // A MeasuredEvent records the number of bytes read from a stream.
+    abstract static class MeasuredEvent extends Event {
+        @Label("Size")
+        @DataAmount
+        long size;
+        
+        // The stream counting the bytes read, if they are being counted.
+        private transient CountingInputStream counter;
+        
+        // Commits the event along with the number of bytes read.
+        void commitMeasured() {
+            end();
+            if (shouldCommit()) {
+                if (counter != null)
+                    size = counter.getCount();
+                commit();
+            }
+        }
+        
+        /**
+         * Counts the bytes read from the given stream while the event is
+         * being recorded.
+         *
+         * @param in the stream to read from
+         * @return the stream to read from instead
+         */
+        public InputStream measure(InputStream in) {
+            if (!isEnabled())
+                return in;
+            
+            return counter = new CountingInputStream(in);
+        }
+    }
+    
+    /**
+     * A NetworkReceive records a message of a networked Battle being received.
+     * The time includes waiting for the message to arrive.
+     */
+    @Name("amalgamations.NetworkReceive")
+    @Label("Network Receive")
+    @Category({CATEGORY, "Network"})
+    @Description("A message of a networked Battle received, including the "
+            + "time spent waiting for it")
+    public static class NetworkReceive extends Event {
+        @Label("Message")
+        String message;
+        @Label("Size")
+        @DataAmount
+        long size;
+        
+        // The stream the message is read through, and its count beforehand.
+        private transient CountingInputStream   counter;
+        private transient long                  start;
+        
+        /**
+         * Starts timing the receiving of a message.
+         *
+         * @param message what the message holds, such as "move"
+         * @param counter the stream the message is read through
+         * @return the started event
+         */
+        public static NetworkReceive start(String message,
+                CountingInputStream counter) {
+            NetworkReceive event = new NetworkReceive();
+            event.message = message;
+            event.counter = counter;
+            event.start = counter.getCount();
+            event.begin();
+            return event;
+        }
+        
+        /**
+         * Records the message as received.
+         */
+        public void finish() {
+            end();
+            if (shouldCommit()) {
+                size = counter.getCount() - start;
+                commit();
+            }
+        }
+    }
+    
+    /**
+     * A NetworkSend records a message of a networked Battle being sent.
+     */
+    @Name("amalgamations.NetworkSend")
+    @Label("Network Send")
+    @Category({CATEGORY, "Network"})
+    @Description("A message of a networked Battle sent")
+    public static class NetworkSend extends Event {
+        @Label("Message")
+        String message;
+        @Label("Size")
+        @DataAmount
+        long size;
+        
+        // The stream the message is written through, and its count
+        // beforehand.
+        private transient CountingOutputStream  counter;
+        private transient long                  start;
+        
+        /**
+         * Starts timing the sending of a message.
+         *
+         * @param message what the message holds, such as "script"
+         * @param counter the stream the message is written through
+         * @return the started event
+         */
+        public static NetworkSend start(String message,
+                CountingOutputStream counter) {
+            NetworkSend event = new NetworkSend();
+            event.message = message;
+            event.counter = counter;
+            event.start = counter.getCount();
+            event.begin();
+            return event;
+        }
+        
+        /**
+         * Records the message as sent. The stream should have been flushed.
+         */
+        public void finish() {
+            end();
+            if (shouldCommit()) {
+                size = counter.getCount() - start;
+                commit();
+            }
+        }
+    }
+}
@@ -83,6 +83,8 @@ public class Parts {
         
         // Delete the file.
         new java.io.File(resDirectory + partFileName + PARTS_FILE_EXT).delete();
+        // The preloaded assets no longer match the Part files.
+        AssetRegistry.invalidate();
     }
     
     /**
@@ -128,11 +130,12 @@ public class Parts {
         }
         
         // Attempt to load the file.
+        String path = resDirectory + partFileName + PARTS_FILE_EXT;
+        GameEvents.AssetLoad event = GameEvents.AssetLoad.start(
+                GameEvents.AssetLoad.TYPE_PART, path);
         Part part;
         try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
-                    new java.io.FileInputStream(
-                            resDirectory + partFileName + PARTS_FILE_EXT
-                    ))) {
+                    event.measure(AssetRegistry.openAsset(path)))) {
             // Load the part from the file.
             part = (Part)in.readObject();
         } catch (java.io.IOException e) {
@@ -145,6 +148,7 @@ public class Parts {
             return null;
         }
         
+        event.finish();
         return part;
     }
     
@@ -162,22 +166,21 @@ public class Parts {
      *         directory or the Part file extension.
      */
     public static String[] getPartNames(String dirPath) { 
-        // Load the directory. 
-        java.io.File directory = new java.io.File(dirPath); 
-          
         // Load only files with the .part file extension. 
-        String[] fileNames = directory.list((dir, name) -> 
-                PARTS_FILE_EXT.equals( 
-                    name.substring(name.lastIndexOf("."))) 
-        ); 
+        String[] fileNames;
+        try {
+            fileNames = AssetArchive.listAssets(dirPath, PARTS_FILE_EXT);
+        } catch (java.io.IOException e) {
+            fileNames = new String[0];
+        }
           
-        // Remove the file extensions from the file names. 
+        // Remove the directory and file extensions from the file names. 
         String[] names = new String[fileNames.length]; 
         for (int i = 0; i < names.length; i++) { 
             // Retrieve the last index of a period in the filename. 
             int index = fileNames[i].lastIndexOf('.'); 
             // Set the arm name to everything before the period. 
-            names[i] = fileNames[i].substring(0, index); 
+            names[i] = fileNames[i].substring(dirPath.length(), index); 
         } 
           
         return names; 
@@ -261,26 +264,23 @@ public class Parts {
      * @see Parts#getLegs getLegs
      */
     public static Part[] getParts(String dirPath) throws java.io.IOException {
-        // Load the directory.
-        java.io.File directory = new java.io.File(dirPath);
-        
         // Load only files with the .part file extension.
-        java.io.File[] files = directory.listFiles((dir, name) ->
-                PARTS_FILE_EXT.equals( 
-                    name.substring(name.lastIndexOf(".")))
-        );
+        String[] files = AssetArchive.listAssets(dirPath, PARTS_FILE_EXT);
         
         // Load the Parts from each file.
         Part[] parts = new Part[files.length];
         for (int i = 0; i < files.length; i++) {
+            GameEvents.AssetLoad event = GameEvents.AssetLoad.start(
+                    GameEvents.AssetLoad.TYPE_PART, files[i]);
             try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
-                        new java.io.FileInputStream(files[i]))) {
+                        event.measure(AssetRegistry.openAsset(files[i])))) {
                 parts[i] = (Part)in.readObject();
             } catch (ClassNotFoundException e) {
                 // If the class is not found, something is seriously wrong.
                 e.printStackTrace();
                 return null;
             }   
+            event.finish();
         }
         
         return parts;
@@ -318,6 +318,28 @@ public class Parts {
      */
     public static Body randomBody(Arm[] arms, Body[] bodies, Head[] heads, 
             Leg[] legs) throws IllegalArgumentException {
+        return randomBody(arms, bodies, heads, legs, new Random());
+    }
+    
+    /**
+     * Generates a random Body using the given Parts and the given random
+     * number generator.
+     * 
+     * The Body will already have its Slots set to randomized Parts. The Body
+     * and the Parts in its Slots are copies, so the given Parts are never
+     * modified or shared between the Bodies this generates.
+     * 
+     * @param arms the Arms the randomized Body can choose from
+     * @param bodies the Bodies the randomized Body can be
+     * @param heads the Heads the randomized Body can choose from
+     * @param legs the Legs the randomized Body can choose from
+     * @param rand the random number generator used to choose the Parts
+     * @return the randomized Body
+     * @throw IllegalArgumentException if any of the arrays of parts are null or
+     *                                 empty
+     */
+    public static Body randomBody(Arm[] arms, Body[] bodies, Head[] heads, 
+            Leg[] legs, Random rand) throws IllegalArgumentException {
         // Ensure that each of the arrays are not null or empty.
         if (arms == null)
             throw new IllegalArgumentException(
@@ -344,29 +366,45 @@ public class Parts {
             throw new IllegalArgumentException(
                     "The array of Legs cannot be empty!");
         
-        // Create a random number generator.
-        Random rand = new Random();
-        
         // Choose a random body.
-        Body body = bodies[rand.nextInt(bodies.length)];
+        Body body = copy(bodies[rand.nextInt(bodies.length)]);
         
         // Iterate through the body's Arm slots.
         for (Slot s : body.getArmSlots())
             // Set a random arm to the slot.
-            s.setPart(arms[rand.nextInt(arms.length)]);
+            s.setPart(copy(arms[rand.nextInt(arms.length)]));
         
         // Iterate through the body's Head slots.
         for (Slot s : body.getHeadSlots())
             // Set a random head to the slot.
-            s.setPart(heads[rand.nextInt(heads.length)]);
+            s.setPart(copy(heads[rand.nextInt(heads.length)]));
         
         // Iterate through the body's Leg slots.
         for (Slot s : body.getLegSlots())
             // Set a random leg to the slot.
-            s.setPart(legs[rand.nextInt(legs.length)]);
+            s.setPart(copy(legs[rand.nextInt(legs.length)]));
         
         return body;
     }
+    
+    // Creates an independent copy of the given Part by serializing it.
+    @SuppressWarnings("unchecked")
+    private static <T extends Part> T copy(T part) {
+        try {
+            java.io.ByteArrayOutputStream bytes 
+                    = new java.io.ByteArrayOutputStream();
+            try (java.io.ObjectOutputStream out 
+                    = new java.io.ObjectOutputStream(bytes)) {
+                out.writeObject(part);
+            }
+            try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                    new java.io.ByteArrayInputStream(bytes.toByteArray()))) {
+                return (T)in.readObject();
+            }
+        } catch (java.io.IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("The Part could not be copied", e);
+        }
+    }
 
     /**
      * Creates and saves a Part instance with the given characteristics to
@@ -454,6 +492,9 @@ public class Parts {
                         "Invalid Part type: " + type);
         }
         
+        // The preloaded assets will no longer match the Part files.
+        AssetRegistry.invalidate();
+        
         // Attempt to create the resource file.
         try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(
                     new java.io.FileOutputStream(
@@ -10,6 +10,8 @@ import java.util.Random;
 public class Randoms {
     // The file extension for rand files.
     public static String RAND_FILE_EXT = ".rand";
+    // The directory containing the rand files.
+    public static String RAND_RES_DIR = "res/rand/";
     // The path to the random names file.
     public static String NAMES_RES_PATH = "res/rand/Names";
     // The path to the random adjectives file.
@@ -24,8 +26,7 @@ public class Randoms {
      */
     public static String[] loadAdjectives() throws java.io.IOException {
         try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
-                    new java.io.FileInputStream(
-                            ADJS_RES_PATH + RAND_FILE_EXT))) {
+                    AssetRegistry.openAsset(ADJS_RES_PATH + RAND_FILE_EXT))) {
             // Read the String[] from the file.
             return (String[])in.readObject();
         } catch (ClassNotFoundException e) {
@@ -43,8 +44,7 @@ public class Randoms {
      */
     public static String[] loadNames() throws java.io.IOException {
         try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
-                    new java.io.FileInputStream(
-                            NAMES_RES_PATH + RAND_FILE_EXT))) {
+                    AssetRegistry.openAsset(NAMES_RES_PATH + RAND_FILE_EXT))) {
             // Read the String[] from the file.
             return (String[])in.readObject();
         } catch (ClassNotFoundException e) {
@@ -86,6 +86,25 @@ public class Randoms {
      */
     public static String randomName(String[] names, String[] adjectives) 
             throws IllegalArgumentException {
+        return randomName(names, adjectives, new Random());
+    }
+    
+    /**
+     * Returns a randomly generated name using the given list of names and
+     * adjectives and the given random number generator.
+     * 
+     * This method constructs a name of the format "{NAME) the {ADJECTIVE}"
+     * where {NAME} is a random name and {ADJECTIVE} is a random adjective.
+     * 
+     * @param names the list of names to choose from.
+     * @param adjectives the list of adjectives to choose from.
+     * @param rand the random number generator used to choose
+     * @return the randomly generated name
+     * @throws IllegalArgumentException if either of the arrays are empty or 
+     *                                  null
+     */
+    public static String randomName(String[] names, String[] adjectives, 
+            Random rand) throws IllegalArgumentException {
         // Ensure the arrays are not empty or null.
         if (names == null)
             throw new IllegalArgumentException(
@@ -100,9 +119,6 @@ public class Randoms {
             throw new IllegalArgumentException(
                     "The array of adjectives cannot be empty!");
         
-        // Create a random number generator.
-        Random rand = new Random();
-        
         // Choose a random name.
         String name = names[rand.nextInt(names.length)];
         
@@ -128,6 +144,9 @@ public class Randoms {
      */
     public static void saveAdjectives(String[] adjectives) 
             throws java.io.IOException {
+        // The preloaded assets will no longer match the rand files.
+        AssetRegistry.invalidate();
+        
         try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(
                     new java.io.FileOutputStream(
                             ADJS_RES_PATH + RAND_FILE_EXT))) {
@@ -148,6 +167,9 @@ public class Randoms {
      */
     public static void saveNames(String[] names) 
             throws java.io.IOException {
+        // The preloaded assets will no longer match the rand files.
+        AssetRegistry.invalidate();
+        
         try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(
                     new java.io.FileOutputStream(
                             NAMES_RES_PATH + RAND_FILE_EXT))) {
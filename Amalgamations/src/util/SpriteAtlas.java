@@ -0,0 +1,284 @@
+package util;
+
+import java.awt.image.BufferedImage;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The SpriteAtlas packs every Part image into a few large atlas pages so that
+ * they can all be decoded at once when the game starts, instead of decoding a
+ * separate PNG file for every Part.
+ *
+ * The atlas is made up of the page images and a manifest listing where each
+ * Part image is located:
+ *
+ * <pre>
+ * pages   [number of pages]
+ * [path]  [page] [x] [y] [width] [height]
+ * ...
+ * </pre>
+ *
+ * The Part images handed out by the atlas are sub-images of the pages, so they
+ * share the pages' pixels rather than holding copies.
+ *
+ * The atlas is built by running this class's main method, which the Ant build
+ * does after compiling. If there is no atlas, or it has been invalidated, the
+ * Part images are simply loaded from their own files.
+ *
+ * @author Caleb Rush
+ */
+public class SpriteAtlas {
+    // The directory containing the atlas pages and manifest.
+    public static final String  ATLAS_DIR       = "res/atlas/";
+    // The path of the manifest.
+    public static final String  MANIFEST_PATH   = ATLAS_DIR + "parts.atlas";
+    // The width and height of each atlas page.
+    public static final int     PAGE_SIZE       = 2048;
+    // The number of empty pixels left between packed images.
+    private static final int    PADDING         = 1;
+    
+    // Every packed image, by path.
+    private static HashMap<String, BufferedImage>   sprites;
+    // Whether or not an attempt has been made to load the atlas.
+    private static boolean                          loaded;
+    
+    /**
+     * Returns whether or not an atlas has been built.
+     *
+     * @return true if the atlas manifest exists
+     */
+    public static boolean exists() {
+        return new java.io.File(MANIFEST_PATH).isFile();
+    }
+    
+    /**
+     * Retrieves the packed image at the given path.
+     *
+     * The whole atlas is loaded the first time this is called.
+     *
+     * @param path the relative path of the image file, such as
+     *             "res/img/Parts/Arms/Axe Arm.png"
+     * @return the image, or null if the image is not in the atlas
+     */
+    public static synchronized BufferedImage getSprite(String path) {
+        load();
+        return sprites == null? null : sprites.get(path);
+    }
+    
+    /**
+     * Removes the loaded atlas from memory and deletes the atlas files.
+     *
+     * This should be called whenever a Part image is added or changed, since
+     * the atlas would otherwise keep serving the old images. The loose image
+     * files are used until the atlas is packed again.
+     */
+    public static synchronized void invalidate() {
+        sprites = null;
+        loaded = true;
+        
+        java.io.File[] files = new java.io.File(ATLAS_DIR).listFiles();
+        if (files != null)
+            for (java.io.File file : files)
+                file.delete();
+    }
+    
+    /**
+     * Loads the atlas pages and manifest if they have not been loaded yet.
+     *
+     * This is called automatically by getSprite, but can be called ahead of
+     * time to decode the atlas before any Part images are needed.
+     */
+    public static synchronized void load() {
+        if (loaded)
+            return;
+        loaded = true;
+        
+        if (!exists())
+            return;
+        
+        try (java.io.BufferedReader in = new java.io.BufferedReader(
+                    new java.io.InputStreamReader(
+                            AssetArchive.openAsset(MANIFEST_PATH),
+                            StandardCharsets.UTF_8))) {
+            // Decode every page.
+            int pageCount = Integer.parseInt(in.readLine().split("\t")[1]);
+            BufferedImage[] pages = new BufferedImage[pageCount];
+            for (int i = 0; i < pageCount; i++)
+                pages[i] = loadPage(i);
+            
+            // Slice out each image.
+            HashMap<String, BufferedImage> slices = new HashMap<>();
+            for (String line; (line = in.readLine()) != null;) {
+                String[] fields = line.split("\t");
+                slices.put(fields[0], pages[Integer.parseInt(fields[1])]
+                        .getSubimage(
+                                Integer.parseInt(fields[2]),
+                                Integer.parseInt(fields[3]),
+                                Integer.parseInt(fields[4]),
+                                Integer.parseInt(fields[5])));
+            }
+            
+            sprites = slices;
+        } catch (IOException | RuntimeException e) {
+            // Load the loose images instead.
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Packs every image in the Part image directories into atlas pages and
+     * writes them along with the manifest, replacing any existing atlas.
+     *
+     * @return the number of images packed
+     * @throws IOException if an image cannot be read or the atlas cannot be
+     *                     written
+     */
+    public static int pack() throws IOException {
+        // Collect every image to pack.
+        ArrayList<String> paths = new ArrayList<>();
+        Path root = Paths.get(Parts.PARTS_IMG_DIR);
+        if (Files.isDirectory(root)) {
+            try (java.util.stream.Stream<Path> walk = Files.walk(root)) {
+                walk.filter(Files::isRegularFile)
+                        .map(p -> p.toString().replace('\\', '/'))
+                        .filter(p -> p.endsWith(AssetRegistry.IMAGE_FILE_EXT))
+                        .sorted()
+                        .forEach(paths::add);
+            }
+        }
+        
+        HashMap<String, BufferedImage> images = new HashMap<>();
+        for (String path : paths) {
+            BufferedImage image = javax.imageio.ImageIO.read(new java.io.File(
+                    path));
+            if (image == null)
+                throw new IOException(path + " is not a readable image");
+            images.put(path, image);
+        }
+        
+        // Pack the tallest images first so that the rows waste less space.
+        paths.sort((a, b) -> Integer.compare(images.get(b).getHeight(),
+                images.get(a).getHeight()));
+        
+        // Place the images in rows, starting a new page when one fills up.
+        // Each placement is {page, x, y}, and each page's size is the area
+        // actually covered by its images.
+        HashMap<String, int[]> placements = new HashMap<>();
+        ArrayList<java.awt.Dimension> pageSizes = new ArrayList<>();
+        int x = PAGE_SIZE, y = 0, rowHeight = 0;
+        for (String path : paths) {
+            BufferedImage image = images.get(path);
+            int width = image.getWidth();
+            int height = image.getHeight();
+            
+            // Move to the next row if this one is full.
+            if (x + width > PAGE_SIZE) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            // Move to the next page if this one is full.
+            if (pageSizes.isEmpty() || y + height > PAGE_SIZE) {
+                pageSizes.add(new java.awt.Dimension());
+                x = y = rowHeight = 0;
+            }
+            
+            int page = pageSizes.size() - 1;
+            placements.put(path, new int[] {page, x, y});
+            java.awt.Dimension size = pageSizes.get(page);
+            size.width = Math.max(size.width, x + width);
+            size.height = Math.max(size.height, y + height);
+            
+            x += width + PADDING;
+            rowHeight = Math.max(rowHeight, height + PADDING);
+        }
+        
+        // Draw the pages.
+        BufferedImage[] pages = new BufferedImage[pageSizes.size()];
+        for (int i = 0; i < pages.length; i++)
+            pages[i] = new BufferedImage(pageSizes.get(i).width,
+                    pageSizes.get(i).height, BufferedImage.TYPE_INT_ARGB);
+        
+        StringBuilder manifest = new StringBuilder();
+        for (String path : paths) {
+            BufferedImage image = images.get(path);
+            int[] placement = placements.get(path);
+            
+            // Copy the pixels exactly instead of blending them.
+            java.awt.Graphics2D g = pages[placement[0]].createGraphics();
+            g.setComposite(java.awt.AlphaComposite.Src);
+            g.drawImage(image, placement[1], placement[2], null);
+            g.dispose();
+            
+            manifest.append(String.format("%s\t%d\t%d\t%d\t%d\t%d%n", path,
+                    placement[0], placement[1], placement[2],
+                    image.getWidth(), image.getHeight()));
+        }
+        
+        // Write the pages and manifest, replacing the old atlas.
+        invalidate();
+        Files.createDirectories(Paths.get(ATLAS_DIR));
+        for (int i = 0; i < pages.length; i++)
+            javax.imageio.ImageIO.write(pages[i], "png",
+                    new java.io.File(pagePath(i)));
+        Files.write(Paths.get(MANIFEST_PATH), ("pages\t" + pages.length
+                + String.format("%n") + manifest)
+                .getBytes(StandardCharsets.UTF_8));
+        
+        // Load the new atlas the next time it's needed.
+        synchronized (SpriteAtlas.class) {
+            loaded = false;
+        }
+        
+        return paths.size();
+    }
+    
+    // Decodes the page with the given index into the fastest format to draw.
+    private static BufferedImage loadPage(int index) throws IOException {
+        BufferedImage page;
+        try (java.io.InputStream in = AssetArchive.openAsset(
+                pagePath(index))) {
+            page = javax.imageio.ImageIO.read(
+                    new javax.imageio.stream.MemoryCacheImageInputStream(in));
+        }
+        if (page == null)
+            throw new IOException(pagePath(index) + " is not a readable image");
+        
+        if (page.getType() == BufferedImage.TYPE_INT_ARGB)
+            return page;
+        
+        BufferedImage converted = new BufferedImage(page.getWidth(),
+                page.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        java.awt.Graphics2D g = converted.createGraphics();
+        g.setComposite(java.awt.AlphaComposite.Src);
+        g.drawImage(page, 0, 0, null);
+        g.dispose();
+        return converted;
+    }
+    
+    // Returns the path of the page with the given index.
+    private static String pagePath(int index) {
+        return ATLAS_DIR + "parts" + index + AssetRegistry.IMAGE_FILE_EXT;
+    }
+    
+    /**
+     * Packs the Part images into the atlas.
+     *
+     * This should be run from the project directory (the one containing res).
+     *
+     * @param args unused
+     * @throws IOException if the atlas cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int count = pack();
+        System.out.printf("Packed %d images into %s%n", count, ATLAS_DIR);
+    }
+}
@@ -0,0 +1,309 @@
+package util;
+
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Thumbnails is a cache of high quality, pre-scaled copies of images so that
+ * the panels displaying Parts and Amalgamations only have to copy pixels when
+ * they are repainted instead of scaling the full image every time.
+ *
+ * Thumbnails are identified by a hash of the source image's pixels along with
+ * the size they were scaled to. When a Part or Amalgamation changes, its image
+ * changes, and so does its hash, so outdated thumbnails are never used.
+ *
+ * Recently used thumbnails are kept in memory. Every thumbnail is also written
+ * to the THUMB_RES_DIR directory in the background so that it does not have to
+ * be scaled again the next time the game is started. Only the most recently
+ * used DISK_CAPACITY thumbnails are kept on disk.
+ *
+ * Components that are being resized, such as by an animation, should use
+ * getSettledThumbnail, which only scales and stores thumbnails once the size
+ * stops changing.
+ *
+ * @author Caleb Rush
+ */
+public class Thumbnails {
+    // The directory the thumbnails are stored in.
+    public static final String  THUMB_RES_DIR       = "res/thumb/";
+    // The file extension of the stored thumbnails.
+    public static final String  THUMB_FILE_EXT      = ".png";
+    // The maximum number of thumbnails kept in memory.
+    private static final int    MEMORY_CAPACITY     = 256;
+    // The maximum number of thumbnails kept on disk.
+    public static final int     DISK_CAPACITY       = 512;
+    // How long a component's size must stay the same before it gets a
+    // thumbnail, in milliseconds.
+    private static final int    SETTLE_DELAY        = 200;
+    // The client properties that track each component's size.
+    private static final String SIZE_PROPERTY       = "Thumbnails.size";
+    private static final String SETTLED_PROPERTY    = "Thumbnails.settled";
+    private static final String TIMER_PROPERTY      = "Thumbnails.timer";
+    
+    // The most recently used thumbnails, by key.
+    private static final java.util.LinkedHashMap<String, BufferedImage> memory
+            = new java.util.LinkedHashMap<String, BufferedImage>(
+                    MEMORY_CAPACITY, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        java.util.Map.Entry<String, BufferedImage> eldest) {
+                    return size() > MEMORY_CAPACITY;
+                }
+            };
+    // The content hash of each source image that has been hashed already.
+    private static final java.util.Map<BufferedImage, Long> hashes
+            = java.util.Collections.synchronizedMap(
+                    new java.util.WeakHashMap<>());
+    // The thread that writes thumbnails to disk.
+    private static final java.util.concurrent.ExecutorService writer
+            = java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "Thumbnail Writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+    
+    /**
+     * Retrieves a copy of the given image scaled to the given size.
+     *
+     * The thumbnail is taken from memory or from disk if it has been scaled
+     * before. Otherwise, it is scaled now and stored for next time.
+     *
+     * @param image the full sized image
+     * @param width the width of the thumbnail
+     * @param height the height of the thumbnail
+     * @return the scaled image. If either dimension is not positive, the
+     *         original image is returned
+     */
+    public static BufferedImage getThumbnail(BufferedImage image, int width,
+            int height) {
+        if (width <= 0 || height <= 0)
+            return image;
+        
+        String key = String.format("%016x_%dx%d", contentHash(image), width,
+                height);
+        
+        // Check memory first.
+        BufferedImage thumbnail;
+        synchronized (memory) {
+            thumbnail = memory.get(key);
+        }
+        if (thumbnail != null)
+            return thumbnail;
+        
+        // Then check the disk.
+        java.io.File file = new java.io.File(THUMB_RES_DIR + key
+                + THUMB_FILE_EXT);
+        try {
+            if (file.isFile())
+                thumbnail = toArgb(javax.imageio.ImageIO.read(file));
+        } catch (java.io.IOException e) {
+            // Scale the image again instead.
+        }
+        
+        // Finally, scale the image and save it for next time.
+        if (thumbnail == null || thumbnail.getWidth() != width
+                || thumbnail.getHeight() != height) {
+            thumbnail = scale(image, width, height);
+            write(thumbnail, file);
+        }
+        else
+            // Mark the stored thumbnail as recently used.
+            writer.execute(() -> 
+                    file.setLastModified(System.currentTimeMillis()));
+        
+        synchronized (memory) {
+            memory.put(key, thumbnail);
+        }
+        return thumbnail;
+    }
+    
+    /**
+     * Retrieves a copy of the given image scaled to the given size for a
+     * component, once the component has stopped changing size.
+     *
+     * While the size keeps changing, such as during an animation, the
+     * original image is returned instead, so that nothing is scaled ahead of
+     * time, read from disk or stored for sizes that are only shown for a
+     * frame. The component is repainted once its size has stayed the same
+     * for a moment, at which point the thumbnail is returned. An AComponent's
+     * cached layer is invalidated first, so that it is rendered again with
+     * the thumbnail.
+     *
+     * The returned image should be drawn at the given size, which is a plain
+     * copy for the thumbnail.
+     *
+     * @param component the component the image is drawn on
+     * @param image the full sized image
+     * @param width the width of the thumbnail
+     * @param height the height of the thumbnail
+     * @return the scaled image, or the original image if the size has just
+     *         changed or either dimension is not positive
+     */
+    public static BufferedImage getSettledThumbnail(
+            javax.swing.JComponent component, BufferedImage image, int width,
+            int height) {
+        java.awt.Dimension size = new java.awt.Dimension(width, height);
+        if (size.equals(component.getClientProperty(SIZE_PROPERTY))) {
+            if (Boolean.TRUE.equals(
+                    component.getClientProperty(SETTLED_PROPERTY)))
+                return getThumbnail(image, width, height);
+            
+            return image;
+        }
+        
+        // Wait for the new size to settle before scaling the image.
+        component.putClientProperty(SIZE_PROPERTY, size);
+        component.putClientProperty(SETTLED_PROPERTY, false);
+        javax.swing.Timer timer = (javax.swing.Timer)component
+                .getClientProperty(TIMER_PROPERTY);
+        if (timer == null) {
+            timer = new javax.swing.Timer(SETTLE_DELAY, e -> {
+                component.putClientProperty(SETTLED_PROPERTY, true);
+                if (component instanceof acomponent.AComponent)
+                    ((acomponent.AComponent)component).invalidateLayer();
+                else
+                    component.repaint();
+            });
+            timer.setRepeats(false);
+            component.putClientProperty(TIMER_PROPERTY, timer);
+        }
+        timer.restart();
+        
+        return image;
+    }
+    
+    /**
+     * Computes a hash of the given image's size and pixels.
+     *
+     * The hash is only computed once for each image object.
+     *
+     * @param image the image to hash
+     * @return the content hash of the image
+     */
+    public static long contentHash(BufferedImage image) {
+        Long hash = hashes.get(image);
+        if (hash == null) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            
+            // A 64 bit FNV-1a hash over the pixels.
+            long h = 0xcbf29ce484222325L;
+            h = (h ^ width) * 0x100000001b3L;
+            h = (h ^ height) * 0x100000001b3L;
+            for (int pixel : pixels)
+                h = (h ^ pixel) * 0x100000001b3L;
+            
+            hash = h;
+            hashes.put(image, hash);
+        }
+        
+        return hash;
+    }
+    
+    /**
+     * Removes every thumbnail from memory and from disk.
+     *
+     * Outdated thumbnails are never used anyway, so this only frees up space.
+     */
+    public static void invalidate() {
+        synchronized (memory) {
+            memory.clear();
+        }
+        
+        // Delete the stored thumbnails after any pending writes.
+        writer.execute(() -> {
+            java.io.File[] files = new java.io.File(THUMB_RES_DIR).listFiles();
+            if (files != null)
+                for (java.io.File file : files)
+                    file.delete();
+        });
+    }
+    
+    // Scales the image to the given size, halving it repeatedly with bilinear
+    // interpolation so that large reductions still look smooth.
+    private static BufferedImage scale(BufferedImage image, int width,
+            int height) {
+        BufferedImage scaled = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        
+        do {
+            // Never shrink by more than half in a single step.
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            // Grow straight to the final size.
+            if (currentWidth < width || currentHeight < height) {
+                currentWidth = width;
+                currentHeight = height;
+            }
+            
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight,
+                    BufferedImage.TYPE_INT_ARGB);
+            java.awt.Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                    RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(scaled, 0, 0, currentWidth, currentHeight, null);
+            g.dispose();
+            scaled = step;
+        } while (currentWidth != width || currentHeight != height);
+        
+        return scaled;
+    }
+    
+    // Converts a decoded image to the same pixel format as the scaled
+    // thumbnails, which is the fastest one to draw.
+    private static BufferedImage toArgb(BufferedImage image) {
+        if (image == null || image.getType() == BufferedImage.TYPE_INT_ARGB)
+            return image;
+        
+        BufferedImage converted = new BufferedImage(image.getWidth(),
+                image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        java.awt.Graphics2D g = converted.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return converted;
+    }
+    
+    // Deletes the least recently used thumbnails on disk until there are no
+    // more than DISK_CAPACITY of them. This must be run by the writer.
+    private static void trim() {
+        java.io.File[] files = new java.io.File(THUMB_RES_DIR).listFiles(
+                (dir, name) -> name.endsWith(THUMB_FILE_EXT));
+        if (files == null || files.length <= DISK_CAPACITY)
+            return;
+        
+        // Read each file's time once so that it can't change while sorting.
+        long[] times = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            times[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        java.util.Arrays.sort(order, (a, b) -> Long.compare(times[a],
+                times[b]));
+        
+        for (int i = 0; i < files.length - DISK_CAPACITY; i++)
+            files[order[i]].delete();
+    }
+    
+    // Writes the thumbnail to the given file in the background.
+    private static void write(BufferedImage thumbnail, java.io.File file) {
+        writer.execute(() -> {
+            java.io.File temp = new java.io.File(file.getPath() + ".tmp");
+            try {
+                file.getParentFile().mkdirs();
+                javax.imageio.ImageIO.write(thumbnail, "png", temp);
+                java.nio.file.Files.move(temp.toPath(), file.toPath(),
+                        java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            } catch (java.io.IOException e) {
+                // The thumbnail will just be scaled again next time.
+                temp.delete();
+            }
+            
+            trim();
+        });
+    }
+}